@@ -0,0 +1,125 @@
+package com.example.innovateiu_home_task;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generates reproducible document corpora for benchmarks and load tests.
+ * The same seed always yields the same ids, titles, contents, authors and
+ * creation times, so results of different runs are comparable.
+ */
+public class BenchmarkDataset {
+
+    public static final Instant BASE_CREATED = Instant.parse("2024-01-01T00:00:00Z");
+    public static final long SEED = 42;
+
+    private static final String[] WORDS = {
+            "report", "budget", "meeting", "summary", "draft", "review", "plan", "invoice",
+            "contract", "design", "release", "incident", "roadmap", "proposal", "notes", "policy",
+            "quarterly", "annual", "customer", "vendor", "project", "team", "status", "update",
+            "analysis", "forecast", "revenue", "expense", "approval", "deadline", "launch", "audit"
+    };
+
+    private final SplittableRandom random;
+    private final int authorCount;
+    private final int contentLength;
+    private final List<DocumentManager.Author> authors = new ArrayList<>();
+    private long sequence;
+
+    public BenchmarkDataset(long seed, int authorCount, int contentLength) {
+        this.random = new SplittableRandom(seed);
+        this.authorCount = authorCount;
+        this.contentLength = contentLength;
+        for (int i = 0; i < authorCount; i++) {
+            authors.add(new DocumentManager.Author("author-" + i, "Author " + i));
+        }
+    }
+
+    /**
+     * Creates the next document of the corpus, with a generated id and a
+     * creation time one second after the previous document.
+     */
+    public DocumentManager.Document nextDocument() {
+        return nextDocument(new UUID(random.nextLong(), random.nextLong()).toString());
+    }
+
+    /**
+     * Creates the next document of the corpus under the given id, or without
+     * an id if the given id is null. The n-th document is written by
+     * {@link #authorOf(long) authorOf(n)}.
+     */
+    public DocumentManager.Document nextDocument(String id) {
+        long index = sequence++;
+        return DocumentManager.Document.builder()
+                .id(id)
+                .title(title())
+                .content(text(contentLength))
+                .author(authorOf(index))
+                .created(createdAt(index))
+                .build();
+    }
+
+    /**
+     * Creates a document with the given author, creation time and content
+     * length, for workloads that pick those themselves; does not advance
+     * the corpus sequence.
+     */
+    public DocumentManager.Document document(String id, DocumentManager.Author author, Instant created, int contentLength) {
+        return DocumentManager.Document.builder()
+                .id(id)
+                .title(title())
+                .content(text(contentLength))
+                .author(author)
+                .created(created)
+                .build();
+    }
+
+    public String title() {
+        return word() + " " + word() + " " + random.nextInt(1000);
+    }
+
+    public String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    public DocumentManager.Author author(int index) {
+        return authors.get(index);
+    }
+
+    /**
+     * Returns the author of the n-th document of the corpus, so that upserts
+     * can keep a document's author without looking the document up.
+     */
+    public DocumentManager.Author authorOf(long index) {
+        return authors.get((int) (index % authorCount));
+    }
+
+    private String text(int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(word()).append(' ');
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+
+    /**
+     * Fills a document manager with a corpus of the given size.
+     *
+     * @return the ids of the saved documents, in insertion order.
+     */
+    public List<String> populate(DocumentManager documentManager, int corpusSize) {
+        List<String> ids = new ArrayList<>(corpusSize);
+        for (int i = 0; i < corpusSize; i++) {
+            ids.add(documentManager.save(nextDocument()).getId());
+        }
+        return ids;
+    }
+
+    public Instant createdAt(long index) {
+        return BASE_CREATED.plusSeconds(index);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.innovateiu_home_task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline benchmarks of the {@link DocumentManager} hot paths. Every search
+ * criterion is measured alone and in combination, over corpora of different
+ * sizes and content lengths.
+ * <p>
+ * The thread count is set on the command line with {@code -t}, e.g.
+ * {@code -t 1} vs {@code -t 16} to see how an operation scales. Corpora are
+ * generated with a fixed seed, see {@link BenchmarkDataset}.
+ * <p>
+ * The default grid fits a default heap. Larger corpora and content lengths
+ * are selected on the command line and need a larger heap; the 10M corpus
+ * is run with the short content length only, e.g.
+ * {@code -p corpusSize=1000000,10000000 -p contentLength=100 -jvmArgs -Xmx32g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentManagerBenchmark {
+
+    @Param({"1000", "100000"})
+    int corpusSize;
+
+    @Param({"100", "1000"})
+    int contentLength;
+
+    @Param({"false", "true"})
+    boolean contentIndex;
+
+    private DocumentManager documentManager;
+    private BenchmarkDataset dataset;
+    private String[] ids;
+    // documents added by saveInsert, deleted after every iteration to keep the corpus size fixed
+    private final Queue<String> inserted = new ConcurrentLinkedQueue<>();
+
+    private DocumentManager.SearchRequest byTitle;
+    private DocumentManager.SearchRequest byContent;
+    private DocumentManager.SearchRequest byAuthor;
+    private DocumentManager.SearchRequest byCreated;
+    private DocumentManager.SearchRequest byAll;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        documentManager = new DocumentManager(DocumentManager.Options.builder().contentIndexEnabled(contentIndex).build());
+        dataset = new BenchmarkDataset(BenchmarkDataset.SEED, Math.max(1, corpusSize / 100), contentLength);
+        ids = dataset.populate(documentManager, corpusSize).toArray(String[]::new);
+
+        byTitle = DocumentManager.SearchRequest.builder().titlePrefixes(List.of("report budget")).build();
+        byContent = DocumentManager.SearchRequest.builder().containsContents(List.of("revenue forecast")).build();
+        byAuthor = DocumentManager.SearchRequest.builder().authorIds(List.of(dataset.author(0).getId())).build();
+        byCreated = DocumentManager.SearchRequest.builder()
+                .createdFrom(dataset.createdAt(corpusSize - 3600L))
+                .createdTo(dataset.createdAt(corpusSize))
+                .build();
+        byAll = DocumentManager.SearchRequest.builder()
+                .titlePrefixes(byTitle.getTitlePrefixes())
+                .containsContents(byContent.getContainsContents())
+                .authorIds(byAuthor.getAuthorIds())
+                .createdFrom(byCreated.getCreatedFrom())
+                .createdTo(byCreated.getCreatedTo())
+                .build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteInserted() {
+        for (String id = inserted.poll(); id != null; id = inserted.poll()) {
+            documentManager.deleteById(id);
+        }
+    }
+
+    private String randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    /**
+     * Upserts keep the author of the original document, so the author
+     * distribution of the corpus does not drift during the benchmark.
+     */
+    private DocumentManager.Document randomUpsert() {
+        int index = ThreadLocalRandom.current().nextInt(ids.length);
+        return DocumentManager.Document.builder()
+                .id(ids[index])
+                .title("updated title " + ThreadLocalRandom.current().nextInt(1000))
+                .author(dataset.authorOf(index))
+                .build();
+    }
+
+    @Benchmark
+    public DocumentManager.Document saveInsert() {
+        DocumentManager.Document saved = documentManager.save(DocumentManager.Document.builder()
+                .title("inserted title")
+                .content("inserted content")
+                .author(dataset.author(0))
+                .build());
+        inserted.add(saved.getId());
+        return saved;
+    }
+
+    @Benchmark
+    public DocumentManager.Document saveUpsertMerge() {
+        return documentManager.save(randomUpsert());
+    }
+
+    @Benchmark
+    public Optional<DocumentManager.Document> findById() {
+        return documentManager.findById(randomId());
+    }
+
+    @Benchmark
+    public List<DocumentManager.Document> searchByTitlePrefix() {
+        return documentManager.search(byTitle);
+    }
+
+    @Benchmark
+    public List<DocumentManager.Document> searchByContent() {
+        return documentManager.search(byContent);
+    }
+
+    @Benchmark
+    public List<DocumentManager.Document> searchByAuthor() {
+        return documentManager.search(byAuthor);
+    }
+
+    @Benchmark
+    public List<DocumentManager.Document> searchByCreatedRange() {
+        return documentManager.search(byCreated);
+    }
+
+    @Benchmark
+    public List<DocumentManager.Document> searchByAllCriteria() {
+        return documentManager.search(byAll);
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.innovateiu_home_task;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator that replays a mixed, skewed workload against a
+ * {@link DocumentManager} for minutes rather than microseconds, to see how
+ * tail latency, throughput and allocation behave under sustained
+ * concurrency. Unlike the JMH benchmarks, it measures every single call.
+ * <p>
+ * Worker threads issue inserts, upserts, lookups and searches in a
+ * configurable mix. Document IDs and authors are drawn from Zipfian
+ * distributions, and content lengths from a log-normal distribution around
+ * a median. With a target rate, every worker follows a fixed schedule, and
+ * the response time of a call is measured from the time it was scheduled
+ * to start, not from when it actually started. A stall therefore also
+ * counts against the calls that queued up behind it. This corrects
+ * coordinated omission. The service time, measured from the actual start,
+ * is reported next to it. Without a rate the workers run closed-loop as
+ * fast as they can, and both times are the same.
+ * <p>
+ * Arguments are {@code key=value} pairs, see {@link Config}, e.g.
+ * <pre>
+ * mvn -Pbenchmarks compile exec:exec@workload -Dworkload.args="threads=8 rate=50000 mix=insert:5,upsert:20,find:60,search:15"
+ * </pre>
+ */
+public class WorkloadHarness {
+
+    enum Operation {
+        INSERT, UPSERT, FIND, SEARCH
+    }
+
+    /**
+     * Settings of a run, parsed from {@code key=value} arguments.
+     */
+    static final class Config {
+        int documents = 100_000;
+        int authors = 1_000;
+        int contentLength = 500;
+        int threads = 8;
+        // total scheduled operations per second over all threads, 0 runs closed-loop
+        long rate;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        Duration reportInterval = Duration.ofSeconds(10);
+        double theta = 0.99;
+        DocumentManager.StorageBackend backend = DocumentManager.StorageBackend.HEAP;
+        boolean contentIndex = true;
+        Map<Operation, Integer> mix = new EnumMap<>(Map.of(
+                Operation.INSERT, 5, Operation.UPSERT, 20, Operation.FIND, 60, Operation.SEARCH, 15));
+
+        static Config parse(String[] args) {
+            Config config = new Config();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Expected key=value: " + arg);
+                }
+                String value = arg.substring(separator + 1);
+                switch (arg.substring(0, separator)) {
+                    case "documents" -> config.documents = Integer.parseInt(value);
+                    case "authors" -> config.authors = Integer.parseInt(value);
+                    case "contentLength" -> config.contentLength = Integer.parseInt(value);
+                    case "threads" -> config.threads = Integer.parseInt(value);
+                    case "rate" -> config.rate = Long.parseLong(value);
+                    case "warmup" -> config.warmup = Duration.ofSeconds(Long.parseLong(value));
+                    case "duration" -> config.duration = Duration.ofSeconds(Long.parseLong(value));
+                    case "reportInterval" -> config.reportInterval = Duration.ofSeconds(Long.parseLong(value));
+                    case "theta" -> config.theta = Double.parseDouble(value);
+                    case "backend" -> config.backend = DocumentManager.StorageBackend.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "contentIndex" -> config.contentIndex = Boolean.parseBoolean(value);
+                    case "mix" -> config.mix = parseMix(value);
+                    default -> throw new IllegalArgumentException("Unknown setting: " + arg);
+                }
+            }
+            return config;
+        }
+
+        private static Map<Operation, Integer> parseMix(String value) {
+            Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+            for (String part : value.split(",")) {
+                String[] weight = part.split(":");
+                mix.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+            }
+            return mix;
+        }
+    }
+
+    /**
+     * Response and service times of one operation type, in nanoseconds.
+     */
+    private static final class OperationStats {
+        final Recorder response = new Recorder(3);
+        final Recorder service = new Recorder(3);
+        final Histogram totalResponse = new Histogram(3);
+        final Histogram totalService = new Histogram(3);
+    }
+
+    private final Config config;
+    private final DocumentManager documentManager;
+    private final ZipfianGenerator documentRanks;
+    private final ZipfianGenerator authorRanks;
+    private final int[] authorOfDocument;
+    private final Operation[] schedule;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    WorkloadHarness(Config config) {
+        this.config = config;
+        this.documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .storageBackend(config.backend)
+                .contentIndexEnabled(config.contentIndex)
+                .build());
+        this.documentRanks = new ZipfianGenerator(config.documents, config.theta);
+        this.authorRanks = new ZipfianGenerator(config.authors, config.theta);
+        this.authorOfDocument = new int[config.documents];
+        this.schedule = schedule(config.mix);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    /**
+     * Expands the operation weights into a table to draw operations from.
+     */
+    private static Operation[] schedule(Map<Operation, Integer> mix) {
+        List<Operation> table = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                table.add(operation);
+            }
+        });
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("The operation mix is empty");
+        }
+        return table.toArray(Operation[]::new);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Config config = Config.parse(args);
+        WorkloadHarness harness = new WorkloadHarness(config);
+        harness.populate();
+        harness.run();
+        harness.documentManager.close();
+    }
+
+    private void populate() {
+        long start = System.nanoTime();
+        BenchmarkDataset dataset = new BenchmarkDataset(BenchmarkDataset.SEED, config.authors, config.contentLength);
+        SplittableRandom random = new SplittableRandom(BenchmarkDataset.SEED);
+        List<DocumentManager.Document> batch = new ArrayList<>(1000);
+        for (int i = 0; i < config.documents; i++) {
+            authorOfDocument[i] = (int) authorRanks.next(random);
+            batch.add(dataset.document(idOf(i), dataset.author(authorOfDocument[i]), dataset.createdAt(i), contentLength(random)));
+            if (batch.size() == 1000 || i == config.documents - 1) {
+                documentManager.saveAll(batch);
+                batch.clear();
+            }
+        }
+        System.out.printf(Locale.ROOT, "Populated %,d documents of %,d authors in %.1f s (backend %s, content index %s, theta %.2f)%n",
+                config.documents, config.authors, (System.nanoTime() - start) / 1e9, config.backend, config.contentIndex, config.theta);
+    }
+
+    private static String idOf(long index) {
+        return "doc-" + index;
+    }
+
+    /**
+     * Draws a log-normal content length with the configured median, capped
+     * at 20 times the median.
+     */
+    private int contentLength(SplittableRandom random) {
+        double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        return (int) Math.min(20.0 * config.contentLength, Math.max(1, config.contentLength * Math.exp(gaussian)));
+    }
+
+    private void run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureStart = start + config.warmup.toNanos();
+        long end = measureStart + config.duration.toNanos();
+        List<Thread> workers = new ArrayList<>(config.threads);
+        for (int i = 0; i < config.threads; i++) {
+            int index = i;
+            Thread worker = new Thread(() -> work(index, start, end), "workload-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+
+        sleepUntil(measureStart);
+        stats.values().forEach(operation -> {
+            operation.response.reset();
+            operation.service.reset();
+        });
+        long allocatedBefore = allocatedBytes(workers);
+        System.out.printf(Locale.ROOT, "Warmed up for %d s, measuring %d s with %d threads at %s%n", config.warmup.toSeconds(),
+                config.duration.toSeconds(), config.threads, config.rate > 0 ? config.rate + " ops/s" : "full speed (closed loop)");
+
+        long intervalStart = measureStart;
+        while (intervalStart < end) {
+            long intervalEnd = Math.min(end, intervalStart + config.reportInterval.toNanos());
+            sleepUntil(intervalEnd);
+            reportInterval(intervalStart, intervalEnd, intervalStart - measureStart);
+            intervalStart = intervalEnd;
+        }
+        long allocatedAfter = allocatedBytes(workers);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // calls still running at the end of the last interval
+        stats.values().forEach(operation -> {
+            operation.totalResponse.add(operation.response.getIntervalHistogram());
+            operation.totalService.add(operation.service.getIntervalHistogram());
+        });
+        reportSummary(end - measureStart, allocatedAfter - allocatedBefore);
+    }
+
+    private void work(int index, long start, long end) {
+        SplittableRandom random = new SplittableRandom(BenchmarkDataset.SEED + 1 + index);
+        BenchmarkDataset dataset = new BenchmarkDataset(BenchmarkDataset.SEED + 1 + index, config.authors, config.contentLength);
+        long interval = config.rate > 0 ? config.threads * TimeUnit.SECONDS.toNanos(1) / config.rate : 0;
+        // stagger the schedules of the workers over one interval
+        long scheduled = start + interval * index / Math.max(1, config.threads);
+        while (true) {
+            long now = System.nanoTime();
+            if (now >= end) {
+                return;
+            }
+            long intended;
+            if (interval > 0) {
+                // a worker behind schedule issues the missed calls back to back, each late by its backlog
+                intended = scheduled;
+                scheduled += interval;
+                if (intended >= end) {
+                    return;
+                }
+                while (now < intended) {
+                    LockSupport.parkNanos(intended - now);
+                    now = System.nanoTime();
+                }
+            } else {
+                intended = now;
+            }
+            Operation operation = schedule[random.nextInt(schedule.length)];
+            long begin = System.nanoTime();
+            switch (operation) {
+                case INSERT -> documentManager.save(dataset.document(null, dataset.author((int) authorRanks.next(random)),
+                        Instant.now(), contentLength(random)));
+                case UPSERT -> {
+                    int document = (int) documentRanks.nextScrambled(random);
+                    documentManager.save(DocumentManager.Document.builder()
+                            .id(idOf(document))
+                            .title(dataset.title())
+                            .author(dataset.author(authorOfDocument[document]))
+                            .build());
+                }
+                case FIND -> documentManager.findById(idOf(documentRanks.nextScrambled(random)));
+                case SEARCH -> documentManager.search(searchRequest(random, dataset));
+            }
+            long done = System.nanoTime();
+            OperationStats operationStats = stats.get(operation);
+            operationStats.response.recordValue(done - intended);
+            operationStats.service.recordValue(done - begin);
+        }
+    }
+
+    /**
+     * Draws one of the typical searches: the documents of a popular author,
+     * a title prefix, a content keyword, or one hour of creation times.
+     */
+    private DocumentManager.SearchRequest searchRequest(SplittableRandom random, BenchmarkDataset dataset) {
+        return switch (random.nextInt(4)) {
+            case 0 -> DocumentManager.SearchRequest.builder()
+                    .authorIds(List.of(dataset.author((int) authorRanks.next(random)).getId()))
+                    .build();
+            case 1 -> DocumentManager.SearchRequest.builder().titlePrefixes(List.of(dataset.word() + " " + dataset.word())).build();
+            case 2 -> DocumentManager.SearchRequest.builder().containsContents(List.of(dataset.word() + " " + dataset.word())).build();
+            default -> {
+                long from = random.nextLong(Math.max(1, config.documents - 3600L));
+                yield DocumentManager.SearchRequest.builder()
+                        .createdFrom(dataset.createdAt(from))
+                        .createdTo(dataset.createdAt(from + 3600))
+                        .build();
+            }
+        };
+    }
+
+    private void reportInterval(long intervalStart, long intervalEnd, long sinceMeasureStart) {
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "[%4ds]", TimeUnit.NANOSECONDS.toSeconds(sinceMeasureStart)));
+        double seconds = (intervalEnd - intervalStart) / 1e9;
+        stats.forEach((operation, operationStats) -> {
+            Histogram response = operationStats.response.getIntervalHistogram();
+            Histogram service = operationStats.service.getIntervalHistogram();
+            operationStats.totalResponse.add(response);
+            operationStats.totalService.add(service);
+            if (response.getTotalCount() > 0) {
+                line.append(String.format(Locale.ROOT, "  %s %,.0f/s p99 %s", operation.name().toLowerCase(Locale.ROOT),
+                        response.getTotalCount() / seconds, micros(response.getValueAtPercentile(99))));
+            }
+        });
+        System.out.println(line);
+    }
+
+    private void reportSummary(long measuredNanos, long allocatedBytes) {
+        double seconds = measuredNanos / 1e9;
+        long totalOperations = 0;
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-7s %12s %12s | %-36s | %-36s%n", "op", "count", "ops/s",
+                "response time p50 / p99 / p99.9 / max", "service time p50 / p99 / p99.9 / max");
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            Histogram response = entry.getValue().totalResponse;
+            Histogram service = entry.getValue().totalService;
+            if (response.getTotalCount() == 0) {
+                continue;
+            }
+            totalOperations += response.getTotalCount();
+            System.out.printf(Locale.ROOT, "%-7s %,12d %,12.0f | %-36s | %-36s%n", entry.getKey().name().toLowerCase(Locale.ROOT),
+                    response.getTotalCount(), response.getTotalCount() / seconds, percentiles(response), percentiles(service));
+        }
+        System.out.printf(Locale.ROOT, "%ntotal   %,12d %,12.0f ops/s%n", totalOperations, totalOperations / seconds);
+        if (allocatedBytes >= 0) {
+            System.out.printf(Locale.ROOT, "allocation rate of the workers: %,.1f MB/s, %,.0f bytes/op%n",
+                    allocatedBytes / seconds / (1 << 20), totalOperations == 0 ? 0.0 : (double) allocatedBytes / totalOperations);
+        }
+    }
+
+    private static String percentiles(Histogram histogram) {
+        return micros(histogram.getValueAtPercentile(50)) + " / " + micros(histogram.getValueAtPercentile(99)) + " / "
+                + micros(histogram.getValueAtPercentile(99.9)) + " / " + micros(histogram.getMaxValue());
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%,.0fus", nanos / 1e3);
+    }
+
+    /**
+     * Sums the bytes allocated so far by the worker threads.
+     *
+     * @return the allocated bytes, or -1 if the JVM does not measure them.
+     */
+    private static long allocatedBytes(List<Thread> workers) {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long[] ids = workers.stream().mapToLong(Thread::getId).toArray();
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(ids)) {
+            total += Math.max(0, bytes);
+        }
+        return total;
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.innovateiu_home_task;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws ranks from {@code [0, n)} with a Zipfian distribution, rank 0 being
+ * the most popular, using the rejection-free method of Gray et al., "Quickly
+ * generating billion-record synthetic databases" (as in YCSB). The zeta
+ * constant is computed once up front in O(n); draws are O(1).
+ * <p>
+ * {@link #nextScrambled} spreads the popular ranks over the whole range, so
+ * the hottest items are not also the oldest ones. Instances are immutable
+ * and can be shared by threads that each bring their own random source.
+ */
+public class ZipfianGenerator {
+
+    private final long items;
+    private final double theta;
+    private final double alpha;
+    private final double zetan;
+    private final double eta;
+    private final double halfPowTheta;
+
+    /**
+     * @param items - the number of ranks; positive.
+     * @param theta - the skew, in (0, 1); 0.99 is the usual web workload skew.
+     */
+    public ZipfianGenerator(long items, double theta) {
+        if (items <= 0 || theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("Invalid Zipfian parameters: items=" + items + ", theta=" + theta);
+        }
+        this.items = items;
+        this.theta = theta;
+        this.alpha = 1 / (1 - theta);
+        this.zetan = zeta(items, theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetan);
+        this.halfPowTheta = 1 + Math.pow(0.5, theta);
+    }
+
+    private static double zeta(long n, double theta) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+
+    /**
+     * @return the next rank, 0 being the most likely.
+     */
+    public long next(SplittableRandom random) {
+        double u = random.nextDouble();
+        double uz = u * zetan;
+        if (uz < 1) {
+            return 0;
+        }
+        if (uz < halfPowTheta) {
+            return 1;
+        }
+        return Math.min(items - 1, (long) (items * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    /**
+     * @return the next rank mapped to a pseudo-random position in the range.
+     */
+    public long nextScrambled(SplittableRandom random) {
+        long key = next(random);
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return Math.floorMod(key, items);
+    }
+
+    public double theta() {
+        return theta;
+    }
+}
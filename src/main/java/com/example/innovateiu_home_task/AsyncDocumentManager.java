@@ -0,0 +1,234 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Document;
+import com.example.innovateiu_home_task.DocumentManager.SearchRequest;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous front of a {@link DocumentManager}, or any other
+ * {@link DocumentShard}, that runs the calls on a fixed pool of worker
+ * threads and cuts duplicate work when many callers ask the same thing at
+ * once:
+ * <ul>
+ *     <li>identical {@link #findById} and {@link #search} calls that are in
+ *     flight at the same time run once, and every caller gets that result
+ *     (single flight);</li>
+ *     <li>upserts of the same ID that queue up while an earlier upsert of
+ *     that ID is still waiting or running are merged into one save
+ *     (micro-batching).</li>
+ * </ul>
+ * The synchronous methods of the wrapped manager can still be used next to
+ * this front. Calls made after {@link #close} return futures that fail with
+ * a {@link RejectedExecutionException}.
+ */
+public class AsyncDocumentManager implements AutoCloseable {
+
+    private static final SearchRequest ALL = SearchRequest.builder().build();
+
+    private final DocumentShard documentManager;
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, CompletableFuture<Optional<Document>>> findsInFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<SearchRequest, CompletableFuture<List<Document>>> searchesInFlight = new ConcurrentHashMap<>();
+    // the latest upsert batch of every ID with upserts pending
+    private final ConcurrentMap<String, UpsertBatch> upserts = new ConcurrentHashMap<>();
+
+    /**
+     * @param documentManager - the manager to call; not closed by {@link #close}.
+     * @param threads         - the number of worker threads.
+     */
+    public AsyncDocumentManager(DocumentShard documentManager, int threads) {
+        this.documentManager = documentManager;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "document-manager-async");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Looks a document up by ID, see {@link DocumentManager#findById}. Joins
+     * a lookup of the same ID that is already in flight.
+     */
+    public CompletableFuture<Optional<Document>> findById(String id) {
+        if (id == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return singleFlight(findsInFlight, id, () -> documentManager.findById(id));
+    }
+
+    /**
+     * Searches for documents, see {@link DocumentManager#search(SearchRequest)}.
+     * Joins an equal search that is already in flight; every caller gets its
+     * own result list.
+     */
+    public CompletableFuture<List<Document>> search(SearchRequest request) {
+        // a null request and a request without criteria both return all documents
+        SearchRequest key = request == null ? ALL : DocumentManager.copyOf(request);
+        return singleFlight(searchesInFlight, key, () -> documentManager.search(key))
+                .thenApply(ArrayList::new);
+    }
+
+    /**
+     * Runs a call unless an identical one is in flight, and returns a future
+     * of the result either way. The call leaves the in-flight map before its
+     * future completes, so callers arriving after completion start afresh.
+     */
+    private <K, V> CompletableFuture<V> singleFlight(ConcurrentMap<K, CompletableFuture<V>> inFlight, K key,
+                                                     Supplier<V> call) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing.copy();
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    V result = call.get();
+                    inFlight.remove(key, created);
+                    created.complete(result);
+                } catch (RuntimeException | Error e) {
+                    inFlight.remove(key, created);
+                    created.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // closed: fail the callers that joined meanwhile too, and let later callers try afresh
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created.copy();
+    }
+
+    /**
+     * Saves a document, see {@link DocumentManager#save}. Upserts of an ID
+     * apply in call order: an upsert waits for the previous batch of its ID,
+     * and joins the batch of that ID that is still waiting, if any. A batch is
+     * saved as one merged document, and its futures complete with the saved
+     * result of the whole batch. Documents without an ID are inserted one by
+     * one.
+     */
+    public CompletableFuture<Document> save(Document document) {
+        if (StringUtils.isEmpty(document.getId())) {
+            try {
+                return CompletableFuture.supplyAsync(() -> documentManager.save(document), executor);
+            } catch (RejectedExecutionException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<Document> saved = new CompletableFuture<>();
+        // the previous batch of a new batch; chained after compute returns, since a
+        // completed or rejected chain runs inline and must not touch the map from inside compute
+        CompletableFuture<?>[] previous = new CompletableFuture<?>[1];
+        UpsertBatch batch = upserts.compute(document.getId(), (id, latest) -> {
+            if (latest != null && latest.add(document, saved)) {
+                return latest;
+            }
+            previous[0] = latest == null ? CompletableFuture.completedFuture(null) : latest.done;
+            return new UpsertBatch(document, saved);
+        });
+        if (previous[0] != null) {
+            previous[0].whenComplete((result, error) -> submit(document.getId(), batch));
+        }
+        return saved;
+    }
+
+    private void submit(String id, UpsertBatch batch) {
+        try {
+            executor.execute(() -> run(id, batch));
+        } catch (RejectedExecutionException e) {
+            batch.close();
+            batch.futures.forEach(future -> future.completeExceptionally(e));
+            upserts.remove(id, batch);
+            batch.done.complete(null);
+        }
+    }
+
+    private void run(String id, UpsertBatch batch) {
+        List<Document> documents = batch.close();
+        try {
+            Document saved = documentManager.save(merge(documents));
+            batch.futures.forEach(future -> future.complete(saved));
+        } catch (RuntimeException | Error e) {
+            batch.futures.forEach(future -> future.completeExceptionally(e));
+        } finally {
+            upserts.remove(id, batch);
+            batch.done.complete(null);
+        }
+    }
+
+    /**
+     * Merges upserts of one ID into one document with the same effect as
+     * saving them in order: later titles and contents replace earlier ones
+     * unless null, the last author wins, and a new document is created with
+     * the creation time of the first upsert.
+     */
+    private static Document merge(List<Document> documents) {
+        Document first = documents.get(0);
+        if (documents.size() == 1) {
+            return first;
+        }
+        Document merged = new Document(first.getId(), first.getTitle(), first.getContent(), first.getAuthor(), first.getCreated());
+        for (Document document : documents.subList(1, documents.size())) {
+            if (document.getTitle() != null) {
+                merged.setTitle(document.getTitle());
+            }
+            if (document.getContent() != null) {
+                merged.setContent(document.getContent());
+            }
+            merged.setAuthor(document.getAuthor());
+        }
+        return merged;
+    }
+
+    /**
+     * Upserts of one ID saved together. The batch takes more upserts until a
+     * worker starts saving it.
+     */
+    private static final class UpsertBatch {
+
+        private final List<Document> documents = new ArrayList<>();
+        private final List<CompletableFuture<Document>> futures = new ArrayList<>();
+        // completes once the batch is saved, successfully or not
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private boolean closed;
+
+        private UpsertBatch(Document document, CompletableFuture<Document> future) {
+            documents.add(document);
+            futures.add(future);
+        }
+
+        synchronized boolean add(Document document, CompletableFuture<Document> future) {
+            if (closed) {
+                return false;
+            }
+            documents.add(document);
+            futures.add(future);
+            return true;
+        }
+
+        synchronized List<Document> close() {
+            closed = true;
+            return documents;
+        }
+    }
+
+    /**
+     * Stops the worker threads after the calls already submitted.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        DocumentPersistence.awaitTermination(executor);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.innovateiu_home_task;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hash index from author id to the ids of the documents written by that
+ * author. Posting sets are modified inside {@link ConcurrentMap#compute}, so
+ * adding the first and removing the last document of an author never race.
+ */
+class AuthorIndex {
+
+    private final ConcurrentMap<String, Set<String>> idsByAuthor = new ConcurrentHashMap<>();
+
+    /**
+     * Moves a document from its previously indexed author to its new one.
+     * Either author id can be null, in which case that side is skipped.
+     *
+     * @param id          - the document id.
+     * @param oldAuthorId - the author id the document was indexed under; can be null.
+     * @param newAuthorId - the author id to index the document under; can be null.
+     */
+    void update(String id, String oldAuthorId, String newAuthorId) {
+        if (oldAuthorId != null && !oldAuthorId.equals(newAuthorId)) {
+            idsByAuthor.computeIfPresent(oldAuthorId, (authorId, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        if (newAuthorId != null) {
+            idsByAuthor.compute(newAuthorId, (authorId, ids) -> {
+                Set<String> authorIds = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                authorIds.add(id);
+                return authorIds;
+            });
+        }
+    }
+
+    /**
+     * Adds a batch of new documents of one author with a single map update.
+     *
+     * @param authorId - the author id.
+     * @param ids      - the ids of the author's new documents.
+     */
+    void addAll(String authorId, Collection<String> ids) {
+        idsByAuthor.compute(authorId, (key, existing) -> {
+            Set<String> authorIds = existing != null ? existing : ConcurrentHashMap.newKeySet(ids.size());
+            authorIds.addAll(ids);
+            return authorIds;
+        });
+    }
+
+    /**
+     * Counts the documents written by any of the given authors.
+     *
+     * @param authorIds - the author ids to look up.
+     * @return the number of indexed documents of those authors.
+     */
+    long count(Collection<String> authorIds) {
+        long count = 0;
+        for (String authorId : new LinkedHashSet<>(authorIds)) {
+            Set<String> ids = authorId == null ? null : idsByAuthor.get(authorId);
+            count += ids == null ? 0 : ids.size();
+        }
+        return count;
+    }
+
+    /**
+     * Adds the number of documents of every author, or of the given authors
+     * only, to the counts, straight from the posting set sizes.
+     *
+     * @param authorIds - the author ids to count; null counts every author.
+     * @param counts    - the counts per author id to add to.
+     */
+    void countByAuthor(Collection<String> authorIds, ObjectCountMap<String> counts) {
+        if (authorIds == null) {
+            idsByAuthor.forEach((authorId, ids) -> counts.increment(authorId, ids.size()));
+            return;
+        }
+        for (String authorId : new LinkedHashSet<>(authorIds)) {
+            Set<String> ids = authorId == null ? null : idsByAuthor.get(authorId);
+            if (ids != null && !ids.isEmpty()) {
+                counts.increment(authorId, ids.size());
+            }
+        }
+    }
+
+    /**
+     * Finds the ids of the documents written by any of the given authors.
+     *
+     * @param authorIds - the author ids to look up.
+     * @return the ids of the matching documents.
+     */
+    Set<String> find(Collection<String> authorIds) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String authorId : authorIds) {
+            Set<String> ids = authorId == null ? null : idsByAuthor.get(authorId);
+            if (ids != null) {
+                result.addAll(ids);
+            }
+        }
+        return result;
+    }
+}
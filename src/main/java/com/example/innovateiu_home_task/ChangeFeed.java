@@ -0,0 +1,212 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.ChangeEvent;
+import com.example.innovateiu_home_task.DocumentManager.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ordered feed of document changes, kept in a fixed-size ring buffer.
+ * <p>
+ * Every change gets the next sequence number and is stored in the slot of
+ * its sequence number, overwriting the change one capacity older. Consumers
+ * read by sequence number, either by polling or through a
+ * {@link Flow.Publisher} that delivers as many changes as they request.
+ * A consumer that falls more than the capacity behind cannot resume and is
+ * told so with an {@link IllegalStateException}.
+ * <p>
+ * Changes are appended while the write is still in progress, inside the
+ * storage compute, so the changes of one document are numbered in the order
+ * they were applied. Once the feed is closed, subscribers receive the
+ * buffered changes they have demand for and then {@code onComplete}.
+ */
+class ChangeFeed {
+
+    private final AtomicReferenceArray<ChangeEvent> ring;
+    private final int mask;
+    private final AtomicLong lastSequence = new AtomicLong();
+    private final Set<FeedSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Executor executor;
+    private volatile boolean closed;
+
+    /**
+     * @param capacity - the number of changes kept; rounded up to a power of two.
+     * @param executor - runs the delivery to subscribers.
+     */
+    ChangeFeed(int capacity, Executor executor) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.executor = executor;
+    }
+
+    /**
+     * Appends a change and wakes up the subscribers waiting for it.
+     *
+     * @param before - the document before the change, or null if it is new.
+     * @param after  - the document after the change.
+     */
+    void append(Document before, Document after) {
+        long sequence = lastSequence.incrementAndGet();
+        ring.set(slot(sequence), new ChangeEvent(sequence, before, after));
+        for (FeedSubscription subscription : subscriptions) {
+            subscription.signal();
+        }
+    }
+
+    long lastSequence() {
+        return lastSequence.get();
+    }
+
+    /**
+     * Returns the buffered changes after a sequence number, oldest first.
+     * Stops early at a change that is numbered but still being written.
+     *
+     * @throws IllegalStateException if changes after the sequence number
+     *                               were already overwritten.
+     */
+    List<ChangeEvent> poll(long afterSequence, int maxEvents) {
+        List<ChangeEvent> events = new ArrayList<>(Math.min(maxEvents, mask + 1));
+        for (long sequence = afterSequence + 1; events.size() < maxEvents; sequence++) {
+            ChangeEvent event = read(sequence);
+            if (event == null) {
+                break;
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    void subscribe(Flow.Subscriber<? super ChangeEvent> subscriber, long afterSequence) {
+        FeedSubscription subscription = new FeedSubscription(subscriber, afterSequence + 1);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+        subscription.signal();
+    }
+
+    /**
+     * Completes every subscription, and every later one right away, after
+     * delivering the buffered changes it has demand for.
+     */
+    void close() {
+        closed = true;
+        for (FeedSubscription subscription : subscriptions) {
+            subscription.signal();
+        }
+    }
+
+    /**
+     * @return the change with the sequence number, or null if it is not
+     * written yet.
+     * @throws IllegalStateException if it was already overwritten.
+     */
+    private ChangeEvent read(long sequence) {
+        ChangeEvent event = ring.get(slot(sequence));
+        if (event == null || event.getSequence() < sequence) {
+            return null;
+        }
+        if (event.getSequence() > sequence) {
+            throw new IllegalStateException("Change " + sequence + " is no longer buffered, the oldest is "
+                    + (event.getSequence() - mask));
+        }
+        return event;
+    }
+
+    private int slot(long sequence) {
+        return (int) sequence & mask;
+    }
+
+    /**
+     * Delivers changes to one subscriber. Requests and appended changes
+     * schedule a drain on the executor; a counter of missed signals makes
+     * sure only one drain runs at a time and none is lost. Errors and the
+     * completion are delivered by the drain as well, so no signal to the
+     * subscriber overlaps another.
+     */
+    private final class FeedSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super ChangeEvent> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger signals = new AtomicInteger();
+        private long nextSequence;
+        private volatile boolean cancelled;
+        // an invalid request, delivered by the next drain
+        private volatile Throwable error;
+
+        private FeedSubscription(Flow.Subscriber<? super ChangeEvent> subscriber, long nextSequence) {
+            this.subscriber = subscriber;
+            this.nextSequence = nextSequence;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Requested " + n + " changes, must be positive");
+                signal();
+                return;
+            }
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        void signal() {
+            if (!cancelled && signals.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (error != null) {
+                    fail(error);
+                    return;
+                }
+                try {
+                    while (!cancelled && demand.get() > 0) {
+                        ChangeEvent event = read(nextSequence);
+                        if (event == null) {
+                            break;
+                        }
+                        nextSequence++;
+                        if (demand.get() != Long.MAX_VALUE) {
+                            demand.decrementAndGet();
+                        }
+                        subscriber.onNext(event);
+                    }
+                } catch (RuntimeException e) {
+                    fail(e);
+                    return;
+                }
+                if (closed && !cancelled) {
+                    cancel();
+                    subscriber.onComplete();
+                    return;
+                }
+                missed = signals.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void fail(Throwable error) {
+            if (!cancelled) {
+                cancel();
+                subscriber.onError(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.innovateiu_home_task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Immutable character trie over a set of words, stored in flat arrays so that
+ * matching never allocates. Besides plain prefix matching it carries
+ * Aho-Corasick failure links, which let {@link #occursIn} find any of the
+ * words inside a text in a single pass, however many words there are.
+ */
+class CharTrie {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    /**
+     * Sorted outgoing edge labels per node.
+     */
+    private final char[][] labels;
+    /**
+     * Target node per edge, parallel to {@link #labels}.
+     */
+    private final int[][] targets;
+    /**
+     * Aho-Corasick failure link per node: the node of the longest proper
+     * suffix of the node's path that is also a path in the trie.
+     */
+    private final int[] failures;
+    /**
+     * Whether a word ends at the node.
+     */
+    private final boolean[] wordEnds;
+    /**
+     * Whether a word ends at the node or at any node on its failure chain,
+     * i.e. whether reaching the node means some word has occurred.
+     */
+    private final boolean[] outputs;
+
+    private CharTrie(char[][] labels, int[][] targets, int[] failures, boolean[] wordEnds, boolean[] outputs) {
+        this.labels = labels;
+        this.targets = targets;
+        this.failures = failures;
+        this.wordEnds = wordEnds;
+        this.outputs = outputs;
+    }
+
+    static CharTrie of(Collection<String> words) {
+        List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+        List<Boolean> ends = new ArrayList<>();
+        edges.add(new TreeMap<>());
+        ends.add(false);
+        for (String word : words) {
+            int node = ROOT;
+            for (int i = 0; i < word.length(); i++) {
+                Integer next = edges.get(node).get(word.charAt(i));
+                if (next == null) {
+                    next = edges.size();
+                    edges.get(node).put(word.charAt(i), next);
+                    edges.add(new TreeMap<>());
+                    ends.add(false);
+                }
+                node = next;
+            }
+            ends.set(node, true);
+        }
+
+        int size = edges.size();
+        char[][] labels = new char[size][];
+        int[][] targets = new int[size][];
+        boolean[] wordEnds = new boolean[size];
+        for (int node = 0; node < size; node++) {
+            labels[node] = new char[edges.get(node).size()];
+            targets[node] = new int[edges.get(node).size()];
+            int edge = 0;
+            for (var entry : edges.get(node).entrySet()) {
+                labels[node][edge] = entry.getKey();
+                targets[node][edge++] = entry.getValue();
+            }
+            wordEnds[node] = ends.get(node);
+        }
+
+        int[] failures = new int[size];
+        boolean[] outputs = wordEnds.clone();
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[ROOT]) {
+            failures[child] = ROOT;
+            queue.add(child);
+        }
+        CharTrie trie = new CharTrie(labels, targets, failures, wordEnds, outputs);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int edge = 0; edge < labels[node].length; edge++) {
+                int child = targets[node][edge];
+                failures[child] = trie.step(failures[node], labels[node][edge]);
+                outputs[child] |= outputs[failures[child]];
+                queue.add(child);
+            }
+        }
+        return trie;
+    }
+
+    /**
+     * Checks whether any of the words is a prefix of the text.
+     *
+     * @param text - the text to check.
+     * @return true if the text starts with one of the words.
+     */
+    boolean matchesPrefixOf(String text) {
+        int node = ROOT;
+        for (int i = 0; ; i++) {
+            if (wordEnds[node]) {
+                return true;
+            }
+            if (i == text.length()) {
+                return false;
+            }
+            node = child(node, text.charAt(i));
+            if (node == NONE) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Checks whether any of the words occurs anywhere in the text.
+     *
+     * @param text - the text to check.
+     * @return true if the text contains one of the words.
+     */
+    boolean occursIn(String text) {
+        int node = ROOT;
+        if (outputs[node]) {
+            return true;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            node = step(node, text.charAt(i));
+            if (outputs[node]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int step(int node, char c) {
+        while (true) {
+            int next = child(node, c);
+            if (next != NONE) {
+                return next;
+            }
+            if (node == ROOT) {
+                return ROOT;
+            }
+            node = failures[node];
+        }
+    }
+
+    private int child(int node, char c) {
+        int edge = Arrays.binarySearch(labels[node], c);
+        return edge >= 0 ? targets[node][edge] : NONE;
+    }
+}
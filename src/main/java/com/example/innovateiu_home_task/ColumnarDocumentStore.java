@@ -0,0 +1,683 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Author;
+import com.example.innovateiu_home_task.DocumentManager.Document;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact storage backend that keeps documents in primitive columns instead
+ * of one object graph per document:
+ * <ul>
+ *     <li>ids in canonical UUID form are stored as two longs, other ids as strings;</li>
+ *     <li>authors are interned in a dictionary and referenced by an int;</li>
+ *     <li>creation times are stored as epoch seconds and nanos;</li>
+ *     <li>titles and contents are stored as UTF-8 bytes in {@link OffHeapSegments},
+ *     contents above a threshold optionally deflated.</li>
+ * </ul>
+ * Every read materializes a new {@link Document}. Documents are spread over
+ * lock stripes by id; writers take the stripe write lock, readers use
+ * optimistic reads and only fall back to the read lock when a writer got in
+ * their way, and materialize the document before validating, so a text is
+ * never read after it was moved. Slots of removed documents are reused;
+ * text bytes of replaced and removed documents are released, and
+ * {@link #compact} moves the remaining texts out of sparse segments so that
+ * those can be freed.
+ */
+class ColumnarDocumentStore implements DocumentStore {
+
+    private static final int STRIPES = 64;
+    private static final int COMPRESSION_THRESHOLD = 1024;
+    private static final int NULL_LENGTH = -1;
+    private static final long NULL_CREATED = Long.MIN_VALUE;
+    // column values plus the id lookup entry
+    private static final int SLOT_BYTES = 96;
+    // segments with at most this share of live bytes are compacted
+    private static final double MAX_LIVE_RATIO = 0.5;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final OffHeapSegments texts;
+    private final AuthorDictionary authors = new AuthorDictionary();
+    private final boolean compressContent;
+    private final AtomicInteger size = new AtomicInteger();
+    // progress of the current compaction, kept across calls of compact
+    private int compactedSegment = -1;
+    private int compactedStripe;
+    private int compactedSlot;
+
+    /**
+     * @param segmentDirectory - the directory for memory-mapped text segments,
+     *                         or null to keep texts in direct buffers.
+     * @param compressContent  - whether to deflate long contents.
+     */
+    ColumnarDocumentStore(Path segmentDirectory, boolean compressContent) {
+        this(segmentDirectory, compressContent, OffHeapSegments.SEGMENT_SIZE);
+    }
+
+    ColumnarDocumentStore(Path segmentDirectory, boolean compressContent, int segmentSize) {
+        this.texts = new OffHeapSegments(segmentDirectory, segmentSize);
+        this.compressContent = compressContent;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private Stripe stripe(String id) {
+        int hash = id.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    @Override
+    public Document get(String id) {
+        Stripe stripe = stripe(id);
+        long stamp = stripe.lock.tryOptimisticRead();
+        Document document = null;
+        try {
+            Row row = stripe.read(stripe.slotOf(id));
+            document = row == null ? null : materialize(id, row);
+        } catch (RuntimeException e) {
+            // a torn row under the optimistic read, the validation below fails
+        }
+        if (stripe.lock.validate(stamp)) {
+            return document;
+        }
+        stamp = stripe.lock.readLock();
+        try {
+            Row row = stripe.read(stripe.slotOf(id));
+            return row == null ? null : materialize(id, row);
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean containsKey(String id) {
+        return get(id) != null;
+    }
+
+    @Override
+    public Document compute(String id, BiFunction<String, Document, Document> remapping) {
+        Stripe stripe = stripe(id);
+        long stamp = stripe.lock.writeLock();
+        try {
+            int slot = stripe.slotOf(id);
+            Row row = stripe.read(slot);
+            Document document = remapping.apply(id, row == null ? null : materialize(id, row));
+            if (document == null) {
+                if (row != null) {
+                    stripe.remove(slot, id);
+                }
+                return null;
+            }
+            stripe.write(slot, id, document);
+            return document;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Document computeIfAbsent(String id, Function<String, Document> mapping) {
+        Stripe stripe = stripe(id);
+        long stamp = stripe.lock.writeLock();
+        try {
+            int slot = stripe.slotOf(id);
+            if (slot >= 0) {
+                return materialize(id, stripe.read(slot));
+            }
+            Document document = mapping.apply(id);
+            stripe.write(slot, id, document);
+            return document;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Document putIfAbsent(String id, Document document) {
+        Document existing = computeIfAbsent(id, key -> document);
+        return existing == document ? null : existing;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public Collection<Document> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Document> iterator() {
+                return new DocumentIterator();
+            }
+
+            @Override
+            public int size() {
+                return size.get();
+            }
+        };
+    }
+
+    /**
+     * Moves the texts still referenced out of the sparsest text segment and
+     * frees the segment once all of them are moved. Each call scans at most
+     * the given number of slots, holding the write lock of one stripe at a
+     * time, and the next call continues where it stopped.
+     */
+    @Override
+    public synchronized boolean compact(int budget) {
+        if (compactedSegment < 0) {
+            compactedSegment = texts.sparsestSegment(MAX_LIVE_RATIO);
+            if (compactedSegment < 0) {
+                return false;
+            }
+            compactedStripe = 0;
+            compactedSlot = 0;
+        }
+        while (budget > 0 && compactedStripe < STRIPES) {
+            Stripe stripe = stripes[compactedStripe];
+            long stamp = stripe.lock.writeLock();
+            try {
+                for (; budget > 0 && compactedSlot < stripe.slots; budget--) {
+                    stripe.relocate(compactedSlot++, compactedSegment);
+                }
+                if (compactedSlot >= stripe.slots) {
+                    compactedStripe++;
+                    compactedSlot = 0;
+                }
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+        if (compactedStripe < STRIPES) {
+            return true;
+        }
+        // another segment may be sparse enough too
+        boolean freed = texts.free(compactedSegment);
+        compactedSegment = -1;
+        return freed;
+    }
+
+    /**
+     * Counts the columns and all bytes reserved for texts outside the heap,
+     * whatever the text length.
+     */
+    @Override
+    public long estimatedBytes(long textLength) {
+        return (long) size.get() * SLOT_BYTES + texts.allocatedBytes();
+    }
+
+    private Document materialize(String id, Row row) {
+        String title = null;
+        String content = null;
+        if (row.titleLength != NULL_LENGTH || row.contentLength != NULL_LENGTH) {
+            byte[] bytes = texts.read(row.textAddress, Math.max(0, row.titleLength) + Math.max(0, row.contentLength));
+            if (row.titleLength != NULL_LENGTH) {
+                title = new String(bytes, 0, row.titleLength, StandardCharsets.UTF_8);
+            }
+            if (row.contentLength != NULL_LENGTH) {
+                int offset = Math.max(0, row.titleLength);
+                content = row.compressed
+                        ? inflate(bytes, offset, row.contentLength)
+                        : new String(bytes, offset, row.contentLength, StandardCharsets.UTF_8);
+            }
+        }
+        return new Document(id, title, content, authors.get(row.authorRef),
+                row.createdSeconds == NULL_CREATED ? null : Instant.ofEpochSecond(row.createdSeconds, row.createdNanos));
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String inflate(byte[] bytes, int offset, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 3);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(chunk);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new DataFormatException("Truncated compressed content");
+                }
+                out.write(chunk, 0, inflated);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException("Corrupted compressed content", e));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Parses an id in the canonical lower-case form produced by
+     * {@link java.util.UUID#toString()}, so that the two longs always turn
+     * back into the very same string.
+     *
+     * @return the most and least significant bits, or null if the id is not
+     * a canonical UUID.
+     */
+    static long[] parseUuid(String id) {
+        if (id.length() != 36 || id.charAt(8) != '-' || id.charAt(13) != '-' || id.charAt(18) != '-' || id.charAt(23) != '-') {
+            return null;
+        }
+        long[] bits = new long[2];
+        int nibble = 0;
+        for (int i = 0; i < 36; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                continue;
+            }
+            char c = id.charAt(i);
+            int digit = c >= '0' && c <= '9' ? c - '0' : c >= 'a' && c <= 'f' ? c - 'a' + 10 : -1;
+            if (digit < 0) {
+                return null;
+            }
+            bits[nibble / 16] = (bits[nibble / 16] << 4) | digit;
+            nibble++;
+        }
+        return bits;
+    }
+
+    private static String formatUuid(long high, long low) {
+        return new java.util.UUID(high, low).toString();
+    }
+
+    /**
+     * The columns of one stored document, copied out of a stripe.
+     */
+    private record Row(int authorRef, long createdSeconds, int createdNanos, long textAddress,
+                       int titleLength, int contentLength, boolean compressed) {
+    }
+
+    /**
+     * One lock stripe: an id lookup table plus the columns of the documents
+     * whose id hashes to the stripe. Arrays are only replaced or written while
+     * holding the write lock.
+     */
+    private final class Stripe {
+
+        private static final int EMPTY = -1;
+
+        final StampedLock lock = new StampedLock();
+
+        // open addressing table from UUID id bits to slot
+        private long[] keyHigh = new long[16];
+        private long[] keyLow = new long[16];
+        private int[] keySlot = filled(16);
+        private int uuidKeys;
+        // ids that are not canonical UUIDs
+        private final ConcurrentMap<String, Integer> otherIds = new ConcurrentHashMap<>();
+
+        private int slots;
+        // slots of removed documents, reused before new slots are added
+        private int[] freeSlots = new int[0];
+        private int freeCount;
+        private boolean[] live = new boolean[16];
+        private long[] idHigh = new long[16];
+        private long[] idLow = new long[16];
+        private String[] rawId = new String[16];
+        private int[] authorRef = new int[16];
+        private long[] createdSeconds = new long[16];
+        private int[] createdNanos = new int[16];
+        private long[] textAddress = new long[16];
+        private int[] titleLength = new int[16];
+        private int[] contentLength = new int[16];
+        private boolean[] compressed = new boolean[16];
+
+        private static int[] filled(int capacity) {
+            int[] table = new int[capacity];
+            Arrays.fill(table, EMPTY);
+            return table;
+        }
+
+        private static int hash(long high, long low) {
+            long mixed = (high ^ Long.rotateLeft(low, 32)) * 0x9e3779b97f4a7c15L;
+            return (int) (mixed ^ (mixed >>> 32));
+        }
+
+        /**
+         * Looks up the slot of an id. Safe under an optimistic read: the probe
+         * is bounded by the table size even if the arrays change underneath.
+         *
+         * @return the slot, or -1 if the id is not stored.
+         */
+        int slotOf(String id) {
+            long[] bits = parseUuid(id);
+            if (bits == null) {
+                Integer slot = otherIds.get(id);
+                return slot == null ? EMPTY : slot;
+            }
+            long[] high = keyHigh;
+            long[] low = keyLow;
+            int[] table = keySlot;
+            int mask = Math.min(Math.min(high.length, low.length), table.length) - 1;
+            int index = hash(bits[0], bits[1]) & mask;
+            for (int probe = 0; probe <= mask; probe++) {
+                int slot = table[index];
+                if (slot == EMPTY) {
+                    return EMPTY;
+                }
+                if (high[index] == bits[0] && low[index] == bits[1]) {
+                    return slot;
+                }
+                index = (index + 1) & mask;
+            }
+            return EMPTY;
+        }
+
+        Row read(int slot) {
+            if (slot < 0 || slot >= slots) {
+                return null;
+            }
+            try {
+                if (!live[slot]) {
+                    return null;
+                }
+                return new Row(authorRef[slot], createdSeconds[slot], createdNanos[slot], textAddress[slot],
+                        titleLength[slot], contentLength[slot], compressed[slot]);
+            } catch (ArrayIndexOutOfBoundsException e) {
+                // arrays replaced under an optimistic read, the caller retries
+                return null;
+            }
+        }
+
+        /**
+         * Stores a document in its slot, or in a new slot if it has none yet.
+         * Must hold the write lock.
+         */
+        void write(int slot, String id, Document document) {
+            if (slot < 0) {
+                slot = addSlot(id);
+            } else {
+                releaseText(slot);
+            }
+            byte[] title = document.getTitle() == null ? null : document.getTitle().getBytes(StandardCharsets.UTF_8);
+            byte[] content = document.getContent() == null ? null : document.getContent().getBytes(StandardCharsets.UTF_8);
+            boolean deflated = compressContent && content != null && content.length > COMPRESSION_THRESHOLD;
+            if (deflated) {
+                content = deflate(content);
+            }
+            byte[] text = new byte[(title == null ? 0 : title.length) + (content == null ? 0 : content.length)];
+            if (title != null) {
+                System.arraycopy(title, 0, text, 0, title.length);
+            }
+            if (content != null) {
+                System.arraycopy(content, 0, text, title == null ? 0 : title.length, content.length);
+            }
+            textAddress[slot] = text.length == 0 ? 0 : texts.write(text);
+            titleLength[slot] = title == null ? NULL_LENGTH : title.length;
+            contentLength[slot] = content == null ? NULL_LENGTH : content.length;
+            compressed[slot] = deflated;
+            authorRef[slot] = authors.intern(document.getAuthor());
+            Instant created = document.getCreated();
+            createdSeconds[slot] = created == null ? NULL_CREATED : created.getEpochSecond();
+            createdNanos[slot] = created == null ? 0 : created.getNano();
+        }
+
+        private int addSlot(String id) {
+            int slot = freeCount > 0 ? freeSlots[--freeCount] : slots;
+            if (slot == idHigh.length) {
+                int capacity = slot * 2;
+                live = Arrays.copyOf(live, capacity);
+                idHigh = Arrays.copyOf(idHigh, capacity);
+                idLow = Arrays.copyOf(idLow, capacity);
+                rawId = Arrays.copyOf(rawId, capacity);
+                authorRef = Arrays.copyOf(authorRef, capacity);
+                createdSeconds = Arrays.copyOf(createdSeconds, capacity);
+                createdNanos = Arrays.copyOf(createdNanos, capacity);
+                textAddress = Arrays.copyOf(textAddress, capacity);
+                titleLength = Arrays.copyOf(titleLength, capacity);
+                contentLength = Arrays.copyOf(contentLength, capacity);
+                compressed = Arrays.copyOf(compressed, capacity);
+            }
+            long[] bits = parseUuid(id);
+            if (bits == null) {
+                rawId[slot] = id;
+                otherIds.put(id, slot);
+            } else {
+                rawId[slot] = null;
+                idHigh[slot] = bits[0];
+                idLow[slot] = bits[1];
+                if ((uuidKeys + 1) * 2 > keySlot.length) {
+                    rehash(keySlot.length * 2);
+                }
+                insertKey(bits[0], bits[1], slot);
+                uuidKeys++;
+            }
+            live[slot] = true;
+            slots = Math.max(slots, slot + 1);
+            size.incrementAndGet();
+            return slot;
+        }
+
+        /**
+         * Frees the slot of a removed document for reuse. Must hold the write
+         * lock.
+         */
+        void remove(int slot, String id) {
+            releaseText(slot);
+            live[slot] = false;
+            long[] bits = parseUuid(id);
+            if (bits == null) {
+                otherIds.remove(id);
+                rawId[slot] = null;
+            } else {
+                removeKey(bits[0], bits[1]);
+                uuidKeys--;
+            }
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeCount * 2));
+            }
+            freeSlots[freeCount++] = slot;
+            size.decrementAndGet();
+        }
+
+        private int textLength(int slot) {
+            return Math.max(0, titleLength[slot]) + Math.max(0, contentLength[slot]);
+        }
+
+        private void releaseText(int slot) {
+            int length = textLength(slot);
+            if (length > 0) {
+                texts.release(textAddress[slot], length);
+            }
+        }
+
+        /**
+         * Copies the text of a live slot to the segment written to, if it is
+         * stored in the given segment. Must hold the write lock.
+         */
+        void relocate(int slot, int segment) {
+            int length = textLength(slot);
+            if (!live[slot] || length == 0 || OffHeapSegments.segmentOf(textAddress[slot]) != segment) {
+                return;
+            }
+            long address = texts.write(texts.read(textAddress[slot], length));
+            texts.release(textAddress[slot], length);
+            textAddress[slot] = address;
+        }
+
+        /**
+         * Removes a key from the open addressing table and shifts the keys
+         * after it back, so that no probe sequence is broken by the gap.
+         */
+        private void removeKey(long high, long low) {
+            int mask = keySlot.length - 1;
+            int index = hash(high, low) & mask;
+            while (keyHigh[index] != high || keyLow[index] != low || keySlot[index] == EMPTY) {
+                index = (index + 1) & mask;
+            }
+            keySlot[index] = EMPTY;
+            for (int next = (index + 1) & mask; keySlot[next] != EMPTY; next = (next + 1) & mask) {
+                int home = hash(keyHigh[next], keyLow[next]) & mask;
+                // the key may fill the gap if the gap lies between its home and its position
+                if (((next - home) & mask) >= ((next - index) & mask)) {
+                    keyHigh[index] = keyHigh[next];
+                    keyLow[index] = keyLow[next];
+                    keySlot[index] = keySlot[next];
+                    keySlot[next] = EMPTY;
+                    index = next;
+                }
+            }
+        }
+
+        private void rehash(int capacity) {
+            long[] oldHigh = keyHigh;
+            long[] oldLow = keyLow;
+            int[] oldSlot = keySlot;
+            long[] newHigh = new long[capacity];
+            long[] newLow = new long[capacity];
+            int[] newSlot = filled(capacity);
+            for (int i = 0; i < oldSlot.length; i++) {
+                if (oldSlot[i] != EMPTY) {
+                    int index = hash(oldHigh[i], oldLow[i]) & (capacity - 1);
+                    while (newSlot[index] != EMPTY) {
+                        index = (index + 1) & (capacity - 1);
+                    }
+                    newHigh[index] = oldHigh[i];
+                    newLow[index] = oldLow[i];
+                    newSlot[index] = oldSlot[i];
+                }
+            }
+            keyHigh = newHigh;
+            keyLow = newLow;
+            keySlot = newSlot;
+        }
+
+        private void insertKey(long high, long low, int slot) {
+            int mask = keySlot.length - 1;
+            int index = hash(high, low) & mask;
+            while (keySlot[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+            keyHigh[index] = high;
+            keyLow[index] = low;
+            keySlot[index] = slot;
+        }
+
+        /**
+         * Returns the id stored in a slot. Ids never change once a slot is
+         * assigned, so no validation is needed beyond the slot being in range.
+         */
+        String idOf(int slot) {
+            String id = rawId[slot];
+            return id != null ? id : formatUuid(idHigh[slot], idLow[slot]);
+        }
+    }
+
+    /**
+     * Iterates the stripes slot by slot, materializing one document at a time.
+     */
+    private final class DocumentIterator implements Iterator<Document> {
+
+        private int stripeIndex;
+        private int slot;
+        private Document next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && stripeIndex < STRIPES) {
+                Stripe stripe = stripes[stripeIndex];
+                long stamp = stripe.lock.readLock();
+                try {
+                    if (slot >= stripe.slots) {
+                        stripeIndex++;
+                        slot = 0;
+                        continue;
+                    }
+                    Row row = stripe.read(slot);
+                    // under the lock, so the text cannot be moved meanwhile
+                    next = row == null ? null : materialize(stripe.idOf(slot), row);
+                    slot++;
+                } finally {
+                    stripe.lock.unlockRead(stamp);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Document next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Document document = next;
+            next = null;
+            return document;
+        }
+    }
+
+    /**
+     * Dictionary of distinct authors. Each distinct (id, name) pair is stored
+     * once and referenced by its index; readers get a fresh copy, so callers
+     * cannot change the interned instance.
+     */
+    private static final class AuthorDictionary {
+
+        private static final int NO_AUTHOR = -1;
+
+        private final ConcurrentMap<Author, Integer> refs = new ConcurrentHashMap<>();
+        private volatile Author[] authors = new Author[16];
+        private int count;
+
+        int intern(Author author) {
+            if (author == null) {
+                return NO_AUTHOR;
+            }
+            Integer ref = refs.get(author);
+            return ref != null ? ref : refs.computeIfAbsent(new Author(author.getId(), author.getName()), this::add);
+        }
+
+        private synchronized int add(Author author) {
+            Author[] table = authors;
+            if (count == table.length) {
+                table = Arrays.copyOf(table, count * 2);
+            }
+            table[count] = author;
+            authors = table;
+            return count++;
+        }
+
+        Author get(int ref) {
+            if (ref == NO_AUTHOR) {
+                return null;
+            }
+            Author author = authors[ref];
+            return new Author(author.getId(), author.getName());
+        }
+    }
+}
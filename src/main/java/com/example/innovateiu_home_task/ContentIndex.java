@@ -0,0 +1,271 @@
+package com.example.innovateiu_home_task;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Trigram index over document content used to narrow down substring
+ * searches. Every distinct three character sequence of a document's content
+ * has a posting list with the ordinals of the documents containing it. A
+ * keyword can only occur in documents that contain all of its trigrams, so
+ * intersecting those posting lists yields a small candidate set that still
+ * has to be confirmed with an exact {@link String#contains} check.
+ * <p>
+ * Postings hold primitive int ordinals instead of the string ids; the
+ * ordinal of a document is assigned the first time it is indexed. Ordinals
+ * of removed documents are reused, so the ordinal table stays as large as
+ * the most documents indexed at once rather than growing with every
+ * document ever indexed.
+ */
+class ContentIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private final ConcurrentMap<Long, IntPostingList> postings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Integer> ordinalsById = new ConcurrentHashMap<>();
+    private volatile String[] idsByOrdinal = new String[1024];
+    private int nextOrdinal;
+    // ordinals of removed documents, reused before new ordinals are handed out
+    private int[] freeOrdinals = new int[0];
+    private int freeCount;
+
+    /**
+     * Replaces the postings of a document. Only the trigrams that differ
+     * between the old and the new content are touched.
+     *
+     * @param id         - the document id.
+     * @param oldContent - the content the document was indexed with; can be null.
+     * @param newContent - the content to index; can be null.
+     */
+    void update(String id, String oldContent, String newContent) {
+        if (oldContent == null && newContent == null || oldContent != null && oldContent.equals(newContent)) {
+            return;
+        }
+        int ordinal = ordinalOf(id);
+        Set<Long> oldGrams = trigrams(oldContent);
+        Set<Long> newGrams = trigrams(newContent);
+        for (Long gram : oldGrams) {
+            if (!newGrams.contains(gram)) {
+                IntPostingList list = postings.get(gram);
+                if (list != null) {
+                    list.remove(ordinal);
+                }
+            }
+        }
+        for (Long gram : newGrams) {
+            if (!oldGrams.contains(gram)) {
+                postings.computeIfAbsent(gram, key -> new IntPostingList()).add(ordinal);
+            }
+        }
+    }
+
+    /**
+     * Removes the postings of a document and frees its ordinal for reuse. A
+     * search that read the postings just before the removal may map the
+     * ordinal to no id or to the id of the document it is reused for; both
+     * are harmless, since every candidate is confirmed against the document
+     * itself.
+     *
+     * @param id         - the document id.
+     * @param oldContent - the content the document was indexed with; can be null.
+     */
+    void remove(String id, String oldContent) {
+        Integer ordinal = ordinalsById.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        for (Long gram : trigrams(oldContent)) {
+            IntPostingList list = postings.get(gram);
+            if (list != null) {
+                list.remove(ordinal);
+            }
+        }
+        releaseOrdinal(ordinal);
+    }
+
+    /**
+     * Indexes a batch of documents that have never been indexed before. All
+     * ordinals are assigned in one go, and the postings are grouped by
+     * trigram, so each posting list is looked up and extended once per batch
+     * instead of once per document.
+     *
+     * @param ids      - the ids of the new documents.
+     * @param contents - the contents of the new documents, parallel to the ids.
+     */
+    void insertAll(List<String> ids, List<String> contents) {
+        int[] assigned = assignOrdinals(ids);
+        Map<Long, int[]> batch = new HashMap<>();
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            int ordinal = assigned[i];
+            for (Long gram : trigrams(contents.get(i))) {
+                int[] ordinals = batch.computeIfAbsent(gram, key -> new int[4]);
+                int count = counts.getOrDefault(gram, 0);
+                if (count == ordinals.length) {
+                    ordinals = Arrays.copyOf(ordinals, count * 2);
+                    batch.put(gram, ordinals);
+                }
+                ordinals[count] = ordinal;
+                counts.put(gram, count + 1);
+            }
+        }
+        batch.forEach((gram, ordinals) -> postings.computeIfAbsent(gram, key -> new IntPostingList()).addAll(ordinals, counts.get(gram)));
+    }
+
+    /**
+     * Finds the ids of the documents that may contain any of the keywords.
+     *
+     * @param keywords - the keywords to look up.
+     * @return the candidate ids, or null if a keyword is too short to be
+     * answered by the index and every document has to be checked.
+     */
+    Set<String> findCandidates(Collection<String> keywords) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            int[] ordinals = candidateOrdinals(keyword);
+            if (ordinals == null) {
+                return null;
+            }
+            // read after the postings, so the table already covers every ordinal found there
+            String[] idTable = idsByOrdinal;
+            for (int ordinal : ordinals) {
+                // null if the document was removed meanwhile
+                if (idTable[ordinal] != null) {
+                    ids.add(idTable[ordinal]);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Estimates how many documents {@link #findCandidates} would return
+     * without building the candidate set: for each keyword, the size of its
+     * shortest trigram posting list.
+     *
+     * @param keywords - the keywords to look up.
+     * @return an upper bound of the candidate count, or -1 if a keyword is
+     * too short to be answered by the index.
+     */
+    long estimateCandidates(Collection<String> keywords) {
+        long estimate = 0;
+        for (String keyword : keywords) {
+            if (keyword.length() < GRAM_LENGTH) {
+                return -1;
+            }
+            int smallest = Integer.MAX_VALUE;
+            for (Long gram : trigrams(keyword)) {
+                IntPostingList list = postings.get(gram);
+                smallest = Math.min(smallest, list == null ? 0 : list.size());
+            }
+            estimate += smallest;
+        }
+        return estimate;
+    }
+
+    private int[] candidateOrdinals(String keyword) {
+        if (keyword.length() < GRAM_LENGTH) {
+            return null;
+        }
+        IntPostingList[] lists = trigrams(keyword).stream()
+                .map(postings::get)
+                .toArray(IntPostingList[]::new);
+        IntPostingList smallest = null;
+        for (IntPostingList list : lists) {
+            if (list == null) {
+                return new int[0];
+            }
+            if (smallest == null || list.size() < smallest.size()) {
+                smallest = list;
+            }
+        }
+        int[] candidates = smallest.toArray();
+        int size = 0;
+        for (int ordinal : candidates) {
+            boolean inAll = true;
+            for (IntPostingList list : lists) {
+                if (list != smallest && !list.contains(ordinal)) {
+                    inAll = false;
+                    break;
+                }
+            }
+            if (inAll) {
+                candidates[size++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(candidates, size);
+    }
+
+    private int ordinalOf(String id) {
+        Integer ordinal = ordinalsById.get(id);
+        return ordinal != null ? ordinal : ordinalsById.computeIfAbsent(id, this::assignOrdinal);
+    }
+
+    /**
+     * Assigns ordinals to a batch of new ids: free ordinals first, then new
+     * ones. The ordinals are ascending, so the batched postings stay sorted.
+     *
+     * @return the ordinals, parallel to the ids.
+     */
+    private synchronized int[] assignOrdinals(List<String> ids) {
+        int reused = Math.min(freeCount, ids.size());
+        int[] ordinals = new int[ids.size()];
+        System.arraycopy(freeOrdinals, freeCount - reused, ordinals, 0, reused);
+        freeCount -= reused;
+        Arrays.sort(ordinals, 0, reused);
+        for (int i = reused; i < ordinals.length; i++) {
+            ordinals[i] = nextOrdinal++;
+        }
+        String[] table = idsByOrdinal;
+        if (nextOrdinal > table.length) {
+            table = Arrays.copyOf(table, Math.max(table.length * 2, nextOrdinal));
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            table[ordinals[i]] = ids.get(i);
+            ordinalsById.put(ids.get(i), ordinals[i]);
+        }
+        idsByOrdinal = table;
+        return ordinals;
+    }
+
+    private synchronized int assignOrdinal(String id) {
+        int ordinal = freeCount > 0 ? freeOrdinals[--freeCount] : nextOrdinal++;
+        String[] table = idsByOrdinal;
+        if (ordinal == table.length) {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+        table[ordinal] = id;
+        idsByOrdinal = table;
+        return ordinal;
+    }
+
+    private synchronized void releaseOrdinal(int ordinal) {
+        idsByOrdinal[ordinal] = null;
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, Math.max(16, freeCount * 2));
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    /**
+     * Packs every distinct trigram of the text into a long, 16 bits per char.
+     */
+    private static Set<Long> trigrams(String text) {
+        if (text == null || text.length() < GRAM_LENGTH) {
+            return Set.of();
+        }
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+}
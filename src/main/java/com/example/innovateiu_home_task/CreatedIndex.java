@@ -0,0 +1,150 @@
+package com.example.innovateiu_home_task;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Time-ordered index of document creation times. Entries are (created, id)
+ * pairs kept in a skip list, so a creation range is one contiguous slice of
+ * the index. The creation time is kept as epoch seconds and nanos in the
+ * entry itself rather than as an {@link Instant} per document.
+ */
+class CreatedIndex {
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+    /**
+     * Moves a document from its previously indexed creation time to its new
+     * one. Either time can be null, in which case that side is skipped.
+     *
+     * @param id         - the document id.
+     * @param oldCreated - the creation time the document was indexed under; can be null.
+     * @param newCreated - the creation time to index the document under; can be null.
+     */
+    void update(String id, Instant oldCreated, Instant newCreated) {
+        if (oldCreated != null && !oldCreated.equals(newCreated)) {
+            entries.remove(Entry.of(oldCreated, id));
+        }
+        if (newCreated != null) {
+            entries.add(Entry.of(newCreated, id));
+        }
+    }
+
+    /**
+     * Finds the ids of the documents created within the given range, giving
+     * up as soon as more than {@code limit} documents have been found. This
+     * keeps probing an unselective range as cheap as the best alternative.
+     *
+     * @param createdFrom - the inclusive start of the range; can be null.
+     * @param createdTo   - the inclusive end of the range; can be null.
+     * @param limit       - the maximum number of ids worth collecting.
+     * @return the ids of the matching documents in creation order, or null if
+     * there are more than {@code limit} of them.
+     */
+    Set<String> find(Instant createdFrom, Instant createdTo, long limit) {
+        Set<String> ids = new LinkedHashSet<>();
+        Entry last = createdTo == null ? null : Entry.of(createdTo, null);
+        for (Entry entry : createdFrom == null ? entries : entries.tailSet(Entry.of(createdFrom, ""))) {
+            if (last != null && entry.compareTo(last) > 0) {
+                break;
+            }
+            if (ids.size() == limit) {
+                return null;
+            }
+            ids.add(entry.id());
+        }
+        return ids;
+    }
+
+    /**
+     * Iterates the ids of the documents created within the given range in
+     * creation order, starting strictly after the given position. Nothing is
+     * collected up front, so a caller that stops early pays only for the
+     * entries it has consumed.
+     *
+     * @param createdFrom  - the inclusive start of the range; can be null.
+     * @param createdTo    - the inclusive end of the range; can be null.
+     * @param afterCreated - the creation time of the position to start after; can be null.
+     * @param afterId      - the document id of the position to start after; can be null.
+     * @param descending   - whether to iterate from the newest to the oldest document.
+     * @return a lazy stream of document ids.
+     */
+    Stream<String> walk(Instant createdFrom, Instant createdTo, Instant afterCreated, String afterId, boolean descending) {
+        NavigableSet<Entry> range = range(createdFrom, createdTo);
+        if (afterCreated != null) {
+            Entry after = Entry.of(afterCreated, afterId);
+            range = descending ? range.headSet(after, false) : range.tailSet(after, false);
+        }
+        return (descending ? range.descendingSet() : range).stream().map(Entry::id);
+    }
+
+    /**
+     * Counts the documents created within the given range per time bucket.
+     * Buckets are aligned to the epoch, and the entries are visited in
+     * creation order, so each run of entries in one bucket costs a single
+     * map update.
+     *
+     * @param createdFrom  - the inclusive start of the range; can be null.
+     * @param createdTo    - the inclusive end of the range; can be null.
+     * @param bucketMillis - the bucket width in milliseconds; positive.
+     * @param counts       - the counts per bucket number, i.e. epoch millis divided by the width, to add to.
+     */
+    void countByBucket(Instant createdFrom, Instant createdTo, long bucketMillis, LongCountMap counts) {
+        long bucket = 0;
+        long count = 0;
+        for (Entry entry : range(createdFrom, createdTo)) {
+            long entryBucket = Math.floorDiv(entry.epochMilli(), bucketMillis);
+            if (count > 0 && entryBucket != bucket) {
+                counts.increment(bucket, count);
+                count = 0;
+            }
+            bucket = entryBucket;
+            count++;
+        }
+        if (count > 0) {
+            counts.increment(bucket, count);
+        }
+    }
+
+    private NavigableSet<Entry> range(Instant createdFrom, Instant createdTo) {
+        NavigableSet<Entry> range = entries;
+        if (createdFrom != null) {
+            range = range.tailSet(Entry.of(createdFrom, ""), true);
+        }
+        if (createdTo != null) {
+            range = range.headSet(Entry.of(createdTo, null), true);
+        }
+        return range;
+    }
+
+    /**
+     * An index entry. A null id is only used for range bounds and sorts after
+     * every id with the same creation time.
+     */
+    private record Entry(long seconds, int nanos, String id) implements Comparable<Entry> {
+
+        static Entry of(Instant created, String id) {
+            return new Entry(created.getEpochSecond(), created.getNano(), id);
+        }
+
+        /**
+         * @return the creation time in epoch millis, like {@link Instant#toEpochMilli()}.
+         */
+        long epochMilli() {
+            return Math.addExact(Math.multiplyExact(seconds, 1000), nanos / 1_000_000);
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byCreated = seconds != other.seconds ? Long.compare(seconds, other.seconds) : Integer.compare(nanos, other.nanos);
+            if (byCreated != 0 || id == other.id) {
+                return byCreated;
+            }
+            return id == null ? 1 : other.id == null ? -1 : id.compareTo(other.id);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Author;
+import com.example.innovateiu_home_task.DocumentManager.Document;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Compact binary form of a {@link Document} shared by the write-ahead log and
+ * the snapshots. Strings are stored as a length-prefixed UTF-8 byte sequence,
+ * with a length of -1 for null; the creation time as epoch seconds and nanos.
+ */
+final class DocumentCodec {
+
+    private static final int NULL_LENGTH = -1;
+
+    private DocumentCodec() {
+    }
+
+    static byte[] encode(Document document) {
+        byte[] id = bytes(document.getId());
+        byte[] title = bytes(document.getTitle());
+        byte[] content = bytes(document.getContent());
+        byte[] authorId = document.getAuthor() == null ? null : bytes(document.getAuthor().getId());
+        byte[] authorName = document.getAuthor() == null ? null : bytes(document.getAuthor().getName());
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 12 + 5 * 4
+                + length(id) + length(title) + length(content) + length(authorId) + length(authorName));
+        put(buffer, id);
+        put(buffer, title);
+        put(buffer, content);
+        buffer.put((byte) (document.getAuthor() == null ? 0 : 1));
+        put(buffer, authorId);
+        put(buffer, authorName);
+        Instant created = document.getCreated();
+        buffer.putLong(created == null ? Long.MIN_VALUE : created.getEpochSecond());
+        buffer.putInt(created == null ? 0 : created.getNano());
+        return buffer.array();
+    }
+
+    static Document decode(ByteBuffer buffer) {
+        String id = string(buffer);
+        String title = string(buffer);
+        String content = string(buffer);
+        boolean hasAuthor = buffer.get() == 1;
+        String authorId = string(buffer);
+        String authorName = string(buffer);
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return new Document(id, title, content,
+                hasAuthor ? new Author(authorId, authorName) : null,
+                seconds == Long.MIN_VALUE ? null : Instant.ofEpochSecond(seconds, nanos));
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        buffer.putInt(value == null ? NULL_LENGTH : value.length);
+        if (value != null) {
+            buffer.put(value);
+        }
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
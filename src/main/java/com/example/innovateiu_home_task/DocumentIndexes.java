@@ -0,0 +1,365 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Document;
+import com.example.innovateiu_home_task.DocumentManager.MatchMode;
+import com.example.innovateiu_home_task.DocumentManager.SearchRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Secondary indexes kept next to the {@link DocumentManager} storage.
+ * <p>
+ * Every index needs the values a document was indexed with in order to
+ * remove them again when the document changes. Those values cannot be read
+ * from the stored document itself, because callers may mutate a saved
+ * document and save the same instance again, so the last indexed values are
+ * remembered per id.
+ * <p>
+ * {@link #update} and {@link #remove} must be called with the write of the
+ * document still in progress (inside the storage compute), which serializes
+ * updates per id.
+ * <p>
+ * With folded matching enabled, the folded title and content of every
+ * document are computed here once per save and kept with the indexed
+ * values. Searches that ignore case and accents read them through
+ * {@link #foldedTexts()}, a second title index holds the folded titles, and
+ * the content index is built over folded contents, which still narrows down
+ * exact keyword searches since the folded keyword occurs in the folded
+ * content whenever the keyword occurs in the content.
+ */
+class DocumentIndexes {
+
+    // below Instant.MIN, marks a document without a creation time
+    private static final long NO_CREATED = Long.MIN_VALUE;
+    // per document: the indexed fields entry and record, the title, author
+    // and creation index entries, and one id string shared by all of them
+    private static final int INDEX_BYTES_PER_DOCUMENT = 360;
+
+    private final ConcurrentMap<String, IndexedFields> indexedFields = new ConcurrentHashMap<>();
+    private final AtomicLong totalContentLength = new AtomicLong();
+    private final AtomicLong totalTitleLength = new AtomicLong();
+
+    final TitleIndex titles = new TitleIndex();
+    final AuthorIndex authors = new AuthorIndex();
+    final CreatedIndex created = new CreatedIndex();
+    final ContentIndex contents;
+    final TitleIndex foldedTitles;
+    final RankedIndex ranked;
+    private final boolean folding;
+
+    DocumentIndexes(DocumentManager.Options options) {
+        this.contents = options.isContentIndexEnabled() ? new ContentIndex() : null;
+        this.folding = options.isFoldedMatchingEnabled();
+        this.foldedTitles = folding ? new TitleIndex() : null;
+        this.ranked = options.isRankedSearchEnabled() ? new RankedIndex() : null;
+    }
+
+    /**
+     * Re-indexes a document after it has been merged.
+     *
+     * @param document - the merged document about to be stored.
+     */
+    void update(Document document) {
+        IndexedFields current = fieldsOf(document);
+        IndexedFields previous = indexedFields.put(document.getId(), current);
+        if (previous == null) {
+            previous = IndexedFields.NONE;
+        }
+        totalContentLength.addAndGet(current.contentLength() - previous.contentLength());
+        totalTitleLength.addAndGet(length(current.title()) - length(previous.title()));
+        titles.update(document.getId(), previous.title(), current.title());
+        if (foldedTitles != null) {
+            foldedTitles.update(document.getId(), previous.foldedTitle(), current.foldedTitle());
+        }
+        authors.update(document.getId(), previous.authorId(), current.authorId());
+        created.update(document.getId(), previous.created(), current.created());
+        if (contents != null) {
+            contents.update(document.getId(), previous.indexedContent(), current.indexedContent());
+        }
+        if (ranked != null) {
+            ranked.update(document.getId(), document.getTitle(), document.getContent());
+        }
+    }
+
+    /**
+     * Removes a document from every index.
+     *
+     * @param id - the id of the document being removed.
+     */
+    void remove(String id) {
+        IndexedFields previous = indexedFields.remove(id);
+        if (previous == null) {
+            return;
+        }
+        totalContentLength.addAndGet(-previous.contentLength());
+        totalTitleLength.addAndGet(-length(previous.title()));
+        titles.update(id, previous.title(), null);
+        if (foldedTitles != null) {
+            foldedTitles.update(id, previous.foldedTitle(), null);
+        }
+        authors.update(id, previous.authorId(), null);
+        created.update(id, previous.created(), null);
+        if (contents != null) {
+            contents.remove(id, previous.indexedContent());
+        }
+        if (ranked != null) {
+            ranked.remove(id);
+        }
+    }
+
+    /**
+     * Indexes a batch of documents that have never been indexed before and
+     * that no other thread can save concurrently, i.e. documents whose IDs
+     * were just generated. Unlike {@link #update}, it does not have to run
+     * inside the storage compute, and the author and content postings are
+     * updated once per author and trigram instead of once per document.
+     *
+     * @param documents - the new documents.
+     */
+    void insertAll(List<Document> documents) {
+        Map<String, List<String>> idsByAuthor = new HashMap<>();
+        List<String> ids = new ArrayList<>(documents.size());
+        List<String> contentList = new ArrayList<>(documents.size());
+        long contentLength = 0;
+        long titleLength = 0;
+        for (Document document : documents) {
+            IndexedFields current = fieldsOf(document);
+            indexedFields.put(document.getId(), current);
+            titles.update(document.getId(), null, current.title());
+            if (foldedTitles != null) {
+                foldedTitles.update(document.getId(), null, current.foldedTitle());
+            }
+            created.update(document.getId(), null, current.created());
+            if (current.authorId() != null) {
+                idsByAuthor.computeIfAbsent(current.authorId(), authorId -> new ArrayList<>()).add(document.getId());
+            }
+            if (ranked != null) {
+                ranked.update(document.getId(), document.getTitle(), document.getContent());
+            }
+            ids.add(document.getId());
+            contentList.add(current.indexedContent());
+            contentLength += current.contentLength();
+            titleLength += length(current.title());
+        }
+        idsByAuthor.forEach(authors::addAll);
+        if (contents != null) {
+            contents.insertAll(ids, contentList);
+        }
+        totalContentLength.addAndGet(contentLength);
+        totalTitleLength.addAndGet(titleLength);
+    }
+
+    /**
+     * Returns the average content length of the indexed documents, which is
+     * what a content keyword check costs per document.
+     */
+    long averageContentLength() {
+        int documents = indexedFields.size();
+        return documents == 0 ? 0 : totalContentLength.get() / documents;
+    }
+
+    /**
+     * Returns the total length of the titles and contents of the indexed
+     * documents.
+     */
+    long totalTextLength() {
+        return totalTitleLength.get() + totalContentLength.get();
+    }
+
+    /**
+     * Estimates the heap held by the indexes that are always kept: the
+     * entries per document plus the title strings, and the folded texts and
+     * indexed contents when those are kept. Every character counts two
+     * bytes, like {@link HeapDocumentStore#estimatedBytes}. The postings of
+     * the optional content and ranked indexes are not included.
+     */
+    long estimatedBytes() {
+        long titles = totalTitleLength.get();
+        long contents = totalContentLength.get();
+        long keptText = titles * (folding ? 2 : 1)
+                + (folding ? contents : 0)
+                + (this.contents != null && !folding ? contents : 0);
+        return (long) indexedFields.size() * INDEX_BYTES_PER_DOCUMENT + 2 * keptText;
+    }
+
+    private static int length(String text) {
+        return text == null ? 0 : text.length();
+    }
+
+    /**
+     * The content itself is only kept when the content index needs the
+     * previous value to compute its trigram changes; otherwise the length is
+     * enough, and a storage backend that keeps contents off the heap is not
+     * undone by holding on to every content string here. Folded texts are
+     * kept if folded matching is enabled; the content index then indexes the
+     * folded content.
+     */
+    private IndexedFields fieldsOf(Document document) {
+        String content = document.getContent();
+        String foldedContent = folding ? TextFolding.fold(content) : null;
+        String indexedContent = contents == null ? null : folding ? foldedContent : content;
+        Instant created = document.getCreated();
+        return new IndexedFields(document.getTitle(), folding ? TextFolding.fold(document.getTitle()) : null,
+                indexedContent, foldedContent, content == null ? 0 : content.length(),
+                document.getAuthor() == null ? null : document.getAuthor().getId(),
+                created == null ? NO_CREATED : created.getEpochSecond(), created == null ? 0 : created.getNano());
+    }
+
+    /**
+     * Returns the source of folded texts for matchers that ignore case and
+     * accents: the forms computed on save if folded matching is enabled,
+     * otherwise folding on the fly. A document that is not indexed (any
+     * more) is folded on the fly as well.
+     */
+    SearchMatcher.FoldedTexts foldedTexts() {
+        return foldedTexts(id -> true);
+    }
+
+    /**
+     * Returns the source of folded texts for the documents of a snapshot.
+     * The folded forms kept here belong to the latest version of each
+     * document, so documents the snapshot does not read the latest version
+     * of are folded on the fly.
+     *
+     * @param isLatest - tells if the snapshot reads the latest version of a
+     *                 document, checked after the folded forms are read.
+     */
+    SearchMatcher.FoldedTexts foldedTexts(Predicate<String> isLatest) {
+        if (!folding) {
+            return SearchMatcher.FOLD_ON_THE_FLY;
+        }
+        return new SearchMatcher.FoldedTexts() {
+            @Override
+            public String title(Document document) {
+                IndexedFields fields = latestFields(document);
+                return fields != null ? fields.foldedTitle() : TextFolding.fold(document.getTitle());
+            }
+
+            @Override
+            public String content(Document document) {
+                IndexedFields fields = latestFields(document);
+                return fields != null ? fields.foldedContent() : TextFolding.fold(document.getContent());
+            }
+
+            private IndexedFields latestFields(Document document) {
+                IndexedFields fields = indexedFields.get(document.getId());
+                return isLatest.test(document.getId()) ? fields : null;
+            }
+        };
+    }
+
+    /**
+     * Collects candidate ids from every index that is selective for the
+     * search request and returns their intersection. The exact or estimated
+     * sizes of the author and content candidates are known up front, so they
+     * are used whenever they beat a full scan; title prefix and creation
+     * range scans are then only allowed to collect fewer ids than the
+     * smallest candidate set found so far, so probing an unselective index
+     * stays cheap. The intersection starts from the smallest set and stops
+     * as soon as it is empty. The other predicates of the request are not
+     * applied here; the caller checks them on the returned candidates.
+     *
+     * @param request    - the search request; never null.
+     * @param corpusSize - the number of stored documents, the cost of a full scan.
+     * @return the candidate ids, or null if no index beats a full scan.
+     */
+    Set<String> plan(SearchRequest request, long corpusSize) {
+        List<Set<String>> candidates = new ArrayList<>(4);
+        long limit = corpusSize;
+
+        List<String> authorIds = request.getAuthorIds();
+        if (authorIds != null && !authorIds.isEmpty() && authors.count(authorIds) < corpusSize) {
+            Set<String> ids = authors.find(authorIds);
+            candidates.add(ids);
+            limit = ids.size();
+        }
+        boolean ignoreCase = request.getMatchMode() == MatchMode.IGNORE_CASE_AND_ACCENTS;
+        List<String> containsContents = request.getContainsContents();
+        // the content index holds either exact or folded trigrams; folded ones serve both match modes
+        if (containsContents != null && !containsContents.isEmpty() && contents != null && (folding || !ignoreCase)) {
+            if (folding) {
+                containsContents = fold(containsContents);
+            }
+            long estimate = contents.estimateCandidates(containsContents);
+            if (estimate >= 0 && estimate < corpusSize) {
+                Set<String> ids = contents.findCandidates(containsContents);
+                candidates.add(ids);
+                limit = Math.min(limit, ids.size());
+            }
+        }
+        List<String> titlePrefixes = request.getTitlePrefixes();
+        TitleIndex titleIndex = ignoreCase ? foldedTitles : titles;
+        if (titlePrefixes != null && !titlePrefixes.isEmpty() && titleIndex != null) {
+            Set<String> ids = titleIndex.findByPrefixes(ignoreCase ? fold(titlePrefixes) : titlePrefixes, limit);
+            if (ids != null) {
+                candidates.add(ids);
+                limit = ids.size();
+            }
+        }
+        Instant createdFrom = request.getCreatedFrom();
+        Instant createdTo = request.getCreatedTo();
+        if (createdFrom != null || createdTo != null) {
+            Set<String> ids = created.find(createdFrom, createdTo, limit);
+            if (ids != null) {
+                candidates.add(ids);
+            }
+        }
+        return intersect(candidates);
+    }
+
+    /**
+     * Intersects candidate sets, checking the ids of the smallest set against
+     * the others, smallest first.
+     *
+     * @return the intersection, the only set if there is one, or null if
+     * there is none.
+     */
+    private static Set<String> intersect(List<Set<String>> candidates) {
+        if (candidates.size() <= 1) {
+            return candidates.isEmpty() ? null : candidates.get(0);
+        }
+        candidates.sort(Comparator.comparingInt(Set::size));
+        Set<String> result = candidates.get(0);
+        for (int i = 1; i < candidates.size() && !result.isEmpty(); i++) {
+            Set<String> other = candidates.get(i);
+            Set<String> retained = new LinkedHashSet<>();
+            for (String id : result) {
+                if (other.contains(id)) {
+                    retained.add(id);
+                }
+            }
+            result = retained;
+        }
+        return result;
+    }
+
+    private static List<String> fold(List<String> texts) {
+        return texts.stream().map(TextFolding::fold).collect(Collectors.toList());
+    }
+
+    /**
+     * The values a document was last indexed with. The creation time is kept
+     * as epoch seconds and nanos, {@link #NO_CREATED} seconds if it has none.
+     */
+    private record IndexedFields(String title, String foldedTitle, String indexedContent, String foldedContent,
+                                 int contentLength, String authorId, long createdSeconds, int createdNanos) {
+
+        static final IndexedFields NONE = new IndexedFields(null, null, null, null, 0, null, NO_CREATED, 0);
+
+        Instant created() {
+            return createdSeconds == NO_CREATED ? null : Instant.ofEpochSecond(createdSeconds, createdNanos);
+        }
+    }
+}
@@ -1,12 +1,34 @@
 package com.example.innovateiu_home_task;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import org.apache.commons.lang3.StringUtils;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * For implement this task focus on clear code, and make this solution as simple readable as possible
@@ -17,9 +39,91 @@ import java.util.stream.Collectors;
  * Implementations should be in a single class
  * This class could be auto tested
  */
-public class DocumentManager {
+public class DocumentManager implements DocumentShard {
 
-    private final Map<String, Document> storage = new HashMap<>();
+    private static final int MAX_CACHED_MATCHERS = 1024;
+    private static final int EXPIRY_BATCH_SIZE = 256;
+    private static final int COMPACTION_BATCH_SIZE = 4096;
+    // request shapes, see DocumentMetrics#shapeOf, that the indexes count on their own
+    private static final int AUTHORS_ONLY = 4;
+    private static final int CREATED_ONLY = 8;
+    private static final long MAX_RECLAIM_INTERVAL_MILLIS = 1000;
+
+    private final DocumentStore storage;
+    // immutable versions: saves work on a copy, searches read snapshots of older versions
+    private final boolean versioned;
+    private final DocumentIndexes indexes;
+    private final IdGenerator idGenerator;
+    private final ParallelSearchExecutor parallelSearch;
+    private final ConcurrentMap<SearchRequest, SearchMatcher> matchers = new ConcurrentHashMap<>();
+    private final SearchResultCache resultCache;
+    private final DocumentMetrics metrics;
+    private final ChangeFeed changeFeed;
+    private final DocumentPersistence persistence;
+    // held shared by writes that log inside their storage compute, and
+    // exclusively by a snapshot while it rotates the log
+    private final ReadWriteLock logGate = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService maintenance;
+    private final Duration documentTtl;
+
+    public DocumentManager() {
+        this(Options.builder().build());
+    }
+
+    /**
+     * Creates a document manager with optional features switched on or off.
+     * With persistence enabled, the documents of the previous run are
+     * recovered before the constructor returns.
+     *
+     * @param options - the features to enable.
+     */
+    public DocumentManager(Options options) {
+        StorageBackend backend = options.getStorageBackend() != null ? options.getStorageBackend() : StorageBackend.HEAP;
+        this.storage = switch (backend) {
+            case HEAP -> new HeapDocumentStore();
+            case COLUMNAR -> new ColumnarDocumentStore(options.getOffHeapDirectory(), options.isCompressContent());
+            case MVCC -> new VersionedDocumentStore();
+        };
+        this.versioned = backend == StorageBackend.MVCC;
+        this.indexes = new DocumentIndexes(options);
+        this.idGenerator = options.getIdGenerator() != null ? options.getIdGenerator() : IdGenerator.randomUuid();
+        this.parallelSearch = options.getSearchParallelism() > 1
+                ? new ParallelSearchExecutor(options.getSearchParallelism(), options.getParallelSearchThreshold())
+                : null;
+        this.resultCache = options.getSearchCacheMaxDocuments() > 0
+                ? new SearchResultCache(options.getSearchCacheMaxDocuments(), options.getSearchCacheTtl())
+                : null;
+        this.metrics = options.getMeterRegistry() != null
+                ? new DocumentMetrics(options.getMeterRegistry(),
+                        options.getMeterTags() != null ? options.getMeterTags() : Tags.empty(), storage::size,
+                        () -> storage.estimatedBytes(indexes.totalTextLength()) + indexes.estimatedBytes())
+                : null;
+        this.changeFeed = options.getChangeFeedCapacity() > 0
+                ? new ChangeFeed(options.getChangeFeedCapacity(), ForkJoinPool.commonPool())
+                : null;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "document-manager-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (options.getPersistenceDirectory() != null) {
+            this.persistence = new DocumentPersistence(options.getPersistenceDirectory(), options.getWalSyncInterval());
+            persistence.recover(this::restore, this::restoreDelete);
+            if (options.getSnapshotInterval() != null) {
+                long millis = options.getSnapshotInterval().toMillis();
+                maintenance.scheduleWithFixedDelay(this::snapshot, millis, millis, TimeUnit.MILLISECONDS);
+            }
+        } else {
+            this.persistence = null;
+        }
+        this.documentTtl = options.getDocumentTtl();
+        if (documentTtl != null || backend == StorageBackend.COLUMNAR) {
+            long millis = documentTtl != null
+                    ? Math.max(1, Math.min(documentTtl.toMillis(), MAX_RECLAIM_INTERVAL_MILLIS))
+                    : MAX_RECLAIM_INTERVAL_MILLIS;
+            maintenance.scheduleWithFixedDelay(this::reclaim, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
 
     // TODO:
     //     * Implementation of this method should upsert the document to your storage
@@ -36,18 +140,226 @@ public class DocumentManager {
      * are updated. If the document is new and does not have a creation time
      * specified, the current timestamp is set as its creation time. Finally,
      * the document is stored in the storage map and returned.
+     * <p>
+     * The method is safe to call from many threads: upserts are atomic per ID,
+     * and {@link #search} and {@link #findById} never block on them.
+     * <p>
+     * With {@link StorageBackend#MVCC}, the given document is left unchanged
+     * and the saved version is returned as a new document.
      */
+    @Override
     public Document save(Document document) {
+        long start = metrics == null ? 0 : System.nanoTime();
+        if (versioned) {
+            document = copyOf(document);
+        }
         if (StringUtils.isEmpty(document.getId())) {
-            String newId;
+            insertWithGeneratedId(document);
+        } else {
+            upsert(document);
+            awaitDurable();
+        }
+        if (metrics != null) {
+            metrics.recordSave(start);
+        }
+        return document;
+    }
+
+    /**
+     * Merges a document with an ID into storage, then drops the cached
+     * search results the new version can affect.
+     */
+    private void upsert(Document document) {
+        logged(() -> storage.compute(document.getId(), (id, existingDocument) -> merge(existingDocument, document)));
+        invalidateCachedResults(document);
+    }
+
+    /**
+     * Runs a storage write whose log record is appended inside the storage
+     * compute. A snapshot rotates the log only while no such write is in
+     * progress, so every record in the rotated segments is already visible
+     * to the snapshot.
+     */
+    private <T> T logged(Supplier<T> write) {
+        if (persistence == null) {
+            return write.get();
+        }
+        Lock lock = logGate.readLock();
+        lock.lock();
+        try {
+            return write.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void invalidateCachedResults(Document document) {
+        if (resultCache != null) {
+            resultCache.invalidate(document);
+        }
+    }
+
+    /**
+     * Inserts a document that came without an ID. A fresh ID is claimed with
+     * computeIfAbsent, so two concurrent inserts can never end up sharing an ID;
+     * if the ID is taken (by a random UUID collision, or a client that chose
+     * it), a new ID is generated.
+     */
+    private void insertWithGeneratedId(Document document) {
+        if (document.getCreated() == null) {
+            document.setCreated(Instant.now());
+        }
+        //Handling duplicate ID generation
+        document.setId(idGenerator.nextId());
+        while (logged(() -> storage.computeIfAbsent(document.getId(), id -> published(null, index(document)))) != document) {
+            if (metrics != null) {
+                metrics.recordIdCollision();
+            }
+            document.setId(idGenerator.nextId());
+        }
+        if (metrics != null) {
+            metrics.recordInserts(1);
+        }
+        invalidateCachedResults(document);
+        awaitDurable();
+    }
+
+    /**
+     * Saves a batch of documents with the same result as calling
+     * {@link #save} for each of them in order, but with the per-call overhead
+     * paid once per batch:
+     * <ul>
+     *     <li>IDs for documents without one are generated in bulk, and not
+     *     checked against stored IDs if the generator is collision-free;</li>
+     *     <li>new documents are indexed before they are published, with author
+     *     and content postings updated once per author and trigram;</li>
+     *     <li>log records are appended under one lock and synced once.</li>
+     * </ul>
+     * Documents with an ID are merged one by one as in {@link #save}.
+     *
+     * @param documents - the documents to save; completed in place like in {@link #save}.
+     * @return the saved documents, in the given order.
+     */
+    @Override
+    public List<Document> saveAll(Collection<Document> documents) {
+        return saveAll(documents, 1);
+    }
+
+    /**
+     * Saves a batch of documents like {@link #saveAll(Collection)}, spreading
+     * the work over a temporary pool of worker threads. Meant for initial
+     * loads; upserts of the same ID still apply in the given order.
+     *
+     * @param documents   - the documents to save; completed in place like in {@link #save}.
+     * @param parallelism - the number of worker threads; 1 saves on the calling thread.
+     * @return the saved documents, in the given order.
+     */
+    public List<Document> saveAll(Collection<Document> documents, int parallelism) {
+        long start = metrics == null ? 0 : System.nanoTime();
+        List<Document> saved = versioned
+                ? documents.stream().map(DocumentManager::copyOf).collect(Collectors.toList())
+                : new ArrayList<>(documents);
+        List<Document> inserts = new ArrayList<>();
+        List<Document> upserts = new ArrayList<>();
+        for (Document document : saved) {
+            (StringUtils.isEmpty(document.getId()) ? inserts : upserts).add(document);
+        }
+
+        if (parallelism <= 1) {
+            insertAllWithGeneratedIds(inserts);
+            upserts.forEach(this::upsert);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<List<Document>> partitions = new ArrayList<>();
+                for (int i = 0; i < parallelism; i++) {
+                    partitions.add(new ArrayList<>());
+                }
+                // the same ID always lands in the same partition, so its upserts keep their order
+                upserts.forEach(document -> partitions.get(Math.floorMod(document.getId().hashCode(), parallelism)).add(document));
+
+                List<Runnable> tasks = new ArrayList<>();
+                for (List<Document> partition : partitions) {
+                    tasks.add(() -> partition.forEach(this::upsert));
+                }
+                int chunk = Math.max(1, (inserts.size() + parallelism - 1) / parallelism);
+                for (int from = 0; from < inserts.size(); from += chunk) {
+                    List<Document> slice = inserts.subList(from, Math.min(inserts.size(), from + chunk));
+                    tasks.add(() -> insertAllWithGeneratedIds(slice));
+                }
+                tasks.stream().map(pool::submit).toList().forEach(ForkJoinTask::join);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        awaitDurable();
+        if (metrics != null) {
+            metrics.recordSaveBatch(start);
+        }
+        return saved;
+    }
+
+    /**
+     * Inserts a batch of documents without IDs. Each document first claims
+     * its ID in storage, and a taken ID is replaced by a new one, so the
+     * batch never overwrites a stored document. The claimed documents are
+     * then indexed in one batch, logged and published. Until then they can
+     * be found by ID but not yet by searches; no other caller knows their
+     * IDs before this method returns.
+     */
+    private void insertAllWithGeneratedIds(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        List<String> ids = idGenerator.nextIds(documents.size());
+        Instant now = Instant.now();
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            if (document.getCreated() == null) {
+                document.setCreated(now);
+            }
+            document.setId(ids.get(i));
             //Handling duplicate ID generation
-            do {
-                newId = UUID.randomUUID().toString();
-            } while (storage.containsKey(newId));
-            document.setId(newId);
+            while (storage.putIfAbsent(document.getId(), document) != null) {
+                if (metrics != null) {
+                    metrics.recordIdCollision();
+                }
+                document.setId(idGenerator.nextId());
+            }
+        }
+        indexes.insertAll(documents);
+        if (persistence != null) {
+            persistence.appendAll(DocumentPersistence.PUT, documents);
+        }
+        if (changeFeed != null) {
+            documents.forEach(document -> published(null, document));
+        }
+        documents.forEach(this::invalidateCachedResults);
+        if (metrics != null) {
+            metrics.recordInserts(documents.size());
         }
+    }
 
-        Document existingDocument = storage.get(document.getId());
+    /**
+     * Merges the incoming document with the currently stored version. It runs
+     * inside {@link ConcurrentMap#compute}, so the read of the existing version
+     * and the write of the merged one are atomic per ID: concurrent upserts of
+     * the same document never lose each other's fields, and readers only ever
+     * observe fully merged documents.
+     *
+     * @param existingDocument - the stored version, or null if there is none.
+     * @param document         - the incoming document, completed in place.
+     * @return the document to store.
+     */
+    private Document merge(Document existingDocument, Document document) {
+        Document before = changeFeed != null && existingDocument != null ? copyOf(existingDocument) : null;
+        if (metrics != null) {
+            if (existingDocument != null) {
+                metrics.recordUpdate();
+            } else {
+                metrics.recordInserts(1);
+            }
+        }
         if (existingDocument != null) {
             document.setCreated(existingDocument.getCreated());
 
@@ -60,11 +372,235 @@ public class DocumentManager {
         } else if (document.getCreated() == null) {
             document.setCreated(Instant.now());
         }
+        return published(before, index(document));
+    }
 
-        storage.put(document.getId(), document);
+    /**
+     * Updates the indexes and logs the merged document. Runs inside the
+     * storage compute, so index updates and log records of one ID happen in
+     * the same order as the upserts themselves.
+     */
+    private Document index(Document document) {
+        indexes.update(document);
+        if (persistence != null) {
+            persistence.append(DocumentPersistence.PUT, document);
+        }
         return document;
     }
 
+    /**
+     * Appends a change to the change feed, if enabled. Runs inside the
+     * storage compute like {@link #index}, so the changes of one ID are
+     * numbered in the order they were applied.
+     *
+     * @param before - a copy of the previous version, or null for a new document.
+     * @param after  - the saved document, copied into the change; null for a delete.
+     * @return the saved document.
+     */
+    private Document published(Document before, Document after) {
+        if (changeFeed != null) {
+            changeFeed.append(before, after == null ? null : copyOf(after));
+        }
+        return after;
+    }
+
+    private void awaitDurable() {
+        if (persistence != null) {
+            persistence.awaitDurable();
+        }
+    }
+
+    /**
+     * Puts a recovered document state back into storage and indexes, without
+     * logging it again.
+     */
+    private void restore(Document document) {
+        storage.compute(document.getId(), (id, existingDocument) -> {
+            indexes.update(document);
+            return document;
+        });
+    }
+
+    /**
+     * Removes a document whose delete was recovered, without logging it again.
+     */
+    private void restoreDelete(String id) {
+        storage.compute(id, (key, existingDocument) -> {
+            indexes.remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * Deletes a document from storage and from all indexes. The delete is
+     * logged with persistence enabled, published to the change feed, and
+     * drops the cached search results that held the document.
+     *
+     * @param id - the ID of the document to delete; can be null.
+     * @return true if the document existed.
+     */
+    @Override
+    public boolean deleteById(String id) {
+        if (id == null) {
+            return false;
+        }
+        boolean deleted = delete(id, document -> true);
+        if (deleted) {
+            awaitDurable();
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes a document if it is stored and satisfies the condition, which
+     * is checked inside the storage compute.
+     *
+     * @return true if the document was deleted.
+     */
+    private boolean delete(String id, Predicate<Document> condition) {
+        Document[] deleted = new Document[1];
+        logged(() -> storage.compute(id, (key, existingDocument) -> {
+            if (existingDocument == null || !condition.test(existingDocument)) {
+                return existingDocument;
+            }
+            indexes.remove(id);
+            if (persistence != null) {
+                persistence.append(DocumentPersistence.DELETE, Document.builder().id(id).build());
+            }
+            published(copyOf(existingDocument), null);
+            if (metrics != null) {
+                metrics.recordDelete();
+            }
+            deleted[0] = existingDocument;
+            return null;
+        }));
+        if (deleted[0] == null) {
+            return false;
+        }
+        invalidateCachedResults(deleted[0]);
+        return true;
+    }
+
+    /**
+     * Expires one batch of documents, if a TTL is set, and compacts one step
+     * of the storage. While work remains, the next step is scheduled behind
+     * the other maintenance tasks, so a large backlog is worked off in small
+     * steps rather than in one long sweep.
+     */
+    private void reclaim() {
+        boolean remaining = documentTtl != null && expire();
+        remaining |= storage.compact(COMPACTION_BATCH_SIZE);
+        if (remaining) {
+            try {
+                maintenance.execute(this::reclaim);
+            } catch (RejectedExecutionException e) {
+                // closing, the rest is reclaimed after the next start
+            }
+        }
+    }
+
+    /**
+     * Deletes one batch of documents created more than
+     * {@link Options#getDocumentTtl()} ago, found in creation order through
+     * the created index.
+     *
+     * @return whether the batch was full, so more documents may have expired.
+     */
+    private boolean expire() {
+        Instant cutoff = Instant.now().minus(documentTtl);
+        List<String> expiredIds;
+        try (Stream<String> ids = indexes.created.walk(null, cutoff, null, null, false)) {
+            expiredIds = ids.limit(EXPIRY_BATCH_SIZE).toList();
+        }
+        for (String id : expiredIds) {
+            delete(id, document -> document.getCreated() != null && !document.getCreated().isAfter(cutoff));
+        }
+        awaitDurable();
+        return expiredIds.size() == EXPIRY_BATCH_SIZE;
+    }
+
+    /**
+     * Writes a snapshot of all stored documents, which bounds how much of the
+     * write-ahead log has to be replayed on the next start. Runs periodically
+     * if {@link Options#getSnapshotInterval()} is set, and can be called at
+     * any time without blocking saves or searches.
+     *
+     * @throws IllegalStateException if persistence is not enabled.
+     */
+    public void snapshot() {
+        if (persistence == null) {
+            throw new IllegalStateException("Persistence is not enabled");
+        }
+        persistence.snapshot(logGate.writeLock(), storage::snapshot);
+    }
+
+    /**
+     * Returns a publisher of the changes made by saves after a sequence
+     * number, oldest first. Each subscriber receives only as many changes as
+     * it requested, on a thread of the common fork-join pool; it can resume
+     * after the last sequence number it processed, as long as that change is
+     * still among the last {@link Options#getChangeFeedCapacity()} ones.
+     * Otherwise, or when it falls that far behind, it gets an
+     * {@link IllegalStateException} through {@code onError}. Closing the
+     * document manager completes every subscriber.
+     *
+     * @param afterSequence - the sequence number after which to start; 0 for
+     *                      the first change, {@link #lastChangeSequence()}
+     *                      for new changes only.
+     * @throws IllegalStateException if the change feed is not enabled.
+     */
+    public Flow.Publisher<ChangeEvent> changes(long afterSequence) {
+        ChangeFeed feed = changeFeed();
+        return subscriber -> feed.subscribe(subscriber, afterSequence);
+    }
+
+    /**
+     * Returns up to maxEvents changes after a sequence number, oldest first,
+     * for consumers that poll instead of subscribing.
+     *
+     * @throws IllegalStateException if the change feed is not enabled, or if
+     *                               changes after the sequence number were
+     *                               already overwritten.
+     */
+    public List<ChangeEvent> pollChanges(long afterSequence, int maxEvents) {
+        return changeFeed().poll(afterSequence, maxEvents);
+    }
+
+    /**
+     * @return the sequence number of the latest change, or 0 if there is none.
+     * @throws IllegalStateException if the change feed is not enabled.
+     */
+    public long lastChangeSequence() {
+        return changeFeed().lastSequence();
+    }
+
+    private ChangeFeed changeFeed() {
+        if (changeFeed == null) {
+            throw new IllegalStateException("The change feed is not enabled");
+        }
+        return changeFeed;
+    }
+
+    /**
+     * Stops the background work of this document manager, completes the
+     * change feed subscriptions and, with persistence enabled, syncs and
+     * closes the write-ahead log.
+     */
+    @Override
+    public void close() {
+        if (changeFeed != null) {
+            changeFeed.close();
+        }
+        maintenance.shutdown();
+        DocumentPersistence.awaitTermination(maintenance);
+        if (parallelSearch != null) {
+            parallelSearch.shutdown();
+        }
+        if (persistence != null) {
+            persistence.close();
+        }
+    }
+
     // TODO: Implement this method to find documents that match the search request.
     //     * Each field in the request could be null.
     //     *
@@ -74,91 +610,520 @@ public class DocumentManager {
     /**
      * Searches for documents that match the criteria specified in the search request.
      * If the request is null or all fields in the request are null, it returns all documents in storage.
+     * With {@link Options#getSearchCacheMaxDocuments()} set, results of repeated requests are served
+     * from a cache until a save affects them.
      *
      * @param request - the search request containing criteria for filtering documents.
      *                Each field in the request can be null.
      * @return a list of documents that match the search criteria, or all documents if no criteria are specified.
      */
+    @Override
     public List<Document> search(SearchRequest request) {
+        if (metrics == null) {
+            return searchAll(request);
+        }
+        long start = System.nanoTime();
+        try {
+            return searchAll(request);
+        } finally {
+            metrics.recordSearch(DocumentMetrics.shapeOf(request), start);
+        }
+    }
+
+    private List<Document> searchAll(SearchRequest request) {
         if (request == null ||
                 (request.getTitlePrefixes() == null &&
                         request.getContainsContents() == null &&
                         request.getAuthorIds() == null &&
                         request.getCreatedFrom() == null &&
                         request.getCreatedTo() == null)) {
-            return new ArrayList<>(storage.values());
+            try (DocumentStore.Snapshot snapshot = storage.snapshot()) {
+                return new ArrayList<>(snapshot.values());
+            }
+        }
+
+        SearchMatcher matcher = matcher(request);
+        if (resultCache == null) {
+            try (DocumentStore.Snapshot snapshot = storage.snapshot()) {
+                return scan(request, matcher, snapshot);
+            }
+        }
+        List<Document> cached = resultCache.get(request);
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
+        SearchResultCache.Load load = resultCache.startLoad(matcher);
+        List<Document> results;
+        try (DocumentStore.Snapshot snapshot = storage.snapshot()) {
+            results = scan(request, matcher, snapshot);
+            // writes the snapshot does not see may have been invalidated before the load started
+            for (String id : snapshot.changedIds()) {
+                resultCache.invalidate(load, id, storage.get(id));
+            }
+        } catch (RuntimeException e) {
+            resultCache.abandon(load);
+            throw e;
+        }
+        resultCache.put(copyOf(request), load, new ArrayList<>(results));
+        return results;
+    }
+
+    private List<Document> scan(SearchRequest request, SearchMatcher matcher, DocumentStore.Snapshot snapshot) {
+        Set<String> ids = withChanges(indexes.plan(request, storage.size()), snapshot);
+        Predicate<Document> matches = matches(matcher, snapshot);
+        long candidateCount = ids == null ? storage.size() : ids.size();
+        List<Document> results;
+        if (parallelSearch != null && parallelSearch.isWorthwhile(candidateCount, estimateCostPerDocument(request))) {
+            results = parallelSearch.filter(candidates(snapshot, ids).toArray(Document[]::new), matches);
+        } else {
+            results = new ArrayList<>();
+            candidates(snapshot, ids).forEach(document -> {
+                if (matches.test(document)) {
+                    results.add(document);
+                }
+            });
         }
+        if (metrics != null) {
+            metrics.recordScan(DocumentMetrics.shapeOf(request), candidateCount, results.size());
+        }
+        return results;
+    }
+
+    /**
+     * Estimates the cost of checking one document against the search request:
+     * a fixed cost for the cheap criteria plus, for content keywords, the
+     * characters each keyword has to scan in an average document.
+     */
+    private long estimateCostPerDocument(SearchRequest request) {
+        List<String> containsContents = request.getContainsContents();
+        int keywords = containsContents == null ? 0 : containsContents.size();
+        return ParallelSearchExecutor.BASE_COST_PER_DOCUMENT + keywords * indexes.averageContentLength();
+    }
 
-        return storage.values().stream()
-                .filter(document -> matchesTitlePrefixes(document, request.getTitlePrefixes()))
-                .filter(document -> containsContents(document, request.getContainsContents()))
-                .filter(document -> matchesAuthorIds(document, request.getAuthorIds()))
-                .filter(document -> isWithinCreateRange(document, request.getCreatedFrom(), request.getCreatedTo()))
+    /**
+     * Lazily streams the documents that match the search request. Unlike
+     * {@link #search(SearchRequest)}, matches are not collected into a list,
+     * so a caller that stops early (e.g. with {@link Stream#limit}) only pays
+     * for the documents it has consumed.
+     *
+     * @param request - the search request; can be null to stream all documents.
+     * With {@link StorageBackend#MVCC}, the stream reads the latest versions
+     * rather than one snapshot, so that a stream that is never closed does
+     * not keep old versions alive.
+     *
+     * @return a lazy stream of matching documents in no particular order.
+     */
+    public Stream<Document> stream(SearchRequest request) {
+        if (request == null) {
+            return storage.values().stream();
+        }
+        return candidates(indexes.plan(request, storage.size())).filter(matcher(request)::matches);
+    }
+
+    /**
+     * Returns one page of the documents that match the search request, in the
+     * requested sort order. Pass the cursor of a page with the next page
+     * request to continue after its last document.
+     * <p>
+     * Only {@code limit} documents are ever held at once. Without a selective
+     * index, creation-ordered pages walk the created index in order and stop
+     * as soon as the page is full; all other pages keep the best matches in a
+     * bounded heap instead of sorting every match.
+     *
+     * @param request - the search request; can be null to page through all documents.
+     * @param page    - the page size, sort order and optional cursor.
+     * @return the page of documents with the cursor of the next page.
+     * @throws IllegalArgumentException if the limit is not positive or the
+     *                                  cursor does not belong to the sort order.
+     */
+    @Override
+    public SearchPage search(SearchRequest request, PageRequest page) {
+        if (page.getLimit() <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive: " + page.getLimit());
+        }
+        if (metrics == null) {
+            return searchPage(request, page);
+        }
+        long start = System.nanoTime();
+        try {
+            return searchPage(request, page);
+        } finally {
+            metrics.recordSearch(DocumentMetrics.shapeOf(request), start);
+        }
+    }
+
+    private SearchPage searchPage(SearchRequest request, PageRequest page) {
+        SearchRequest criteria = request != null ? request : SearchRequest.builder().build();
+        SortOrder sort = page.getSort() != null ? page.getSort() : SortOrder.CREATED_ASC;
+        PageCursor cursor = page.getCursor() != null ? PageCursor.decode(page.getCursor(), sort) : null;
+
+        SearchMatcher matcher = matcher(criteria);
+        // scanned and matched documents, only counted with metrics enabled
+        long[] counts = new long[2];
+        List<Document> documents;
+        try (DocumentStore.Snapshot snapshot = storage.snapshot()) {
+            Set<String> ids = withChanges(indexes.plan(criteria, storage.size()), snapshot);
+            Predicate<Document> matches = matches(matcher, snapshot);
+            if (ids == null && sort != SortOrder.TITLE) {
+                // creation times never change, so the created index covers every snapshot but deletes
+                Stream<Document> walked = indexes.created.walk(criteria.getCreatedFrom(), criteria.getCreatedTo(),
+                                cursor == null ? null : cursor.created(), cursor == null ? null : cursor.id(),
+                                sort == SortOrder.CREATED_DESC)
+                        .map(snapshot::get)
+                        .filter(Objects::nonNull);
+                documents = count(count(withDeleted(walked, snapshot, criteria, cursor, sort), counts, 0)
+                        .filter(matches), counts, 1)
+                        .limit(page.getLimit())
+                        .collect(Collectors.toList());
+            } else {
+                Stream<Document> matching = count(count(candidates(snapshot, ids), counts, 0).filter(matches), counts, 1);
+                if (cursor != null) {
+                    Document after = cursor.toDocument();
+                    matching = matching.filter(document -> sort.comparator().compare(document, after) > 0);
+                }
+                documents = topK(matching, sort.comparator(), page.getLimit());
+            }
+        }
+        if (metrics != null) {
+            metrics.recordScan(DocumentMetrics.shapeOf(request), counts[0], counts[1]);
+        }
+
+        String nextCursor = documents.size() < page.getLimit() ? null
+                : PageCursor.of(sort, documents.get(documents.size() - 1)).encode();
+        return new SearchPage(documents, nextCursor);
+    }
+
+    /**
+     * Merges the documents a snapshot reads but the created index no longer
+     * holds at the same position, i.e. documents deleted (and maybe saved
+     * anew) after the snapshot was taken, into a walk of the created index,
+     * keeping the walk order. Only the few writes that raced with the
+     * snapshot are checked.
+     *
+     * @param walked - the snapshot documents of a created index walk.
+     */
+    private Stream<Document> withDeleted(Stream<Document> walked, DocumentStore.Snapshot snapshot,
+                                         SearchRequest criteria, PageCursor cursor, SortOrder sort) {
+        Set<String> changedIds = snapshot.changedIds();
+        if (changedIds.isEmpty()) {
+            return walked;
+        }
+        Comparator<Document> order = sort.comparator();
+        Document after = cursor == null ? null : cursor.toDocument();
+        List<Document> deleted = new ArrayList<>();
+        for (String id : changedIds) {
+            Document document = snapshot.get(id);
+            if (document == null || document.getCreated() == null) {
+                continue;
+            }
+            Document latest = storage.get(id);
+            Instant created = document.getCreated();
+            if ((latest == null || !created.equals(latest.getCreated()))
+                    && (criteria.getCreatedFrom() == null || !created.isBefore(criteria.getCreatedFrom()))
+                    && (criteria.getCreatedTo() == null || !created.isAfter(criteria.getCreatedTo()))
+                    && (after == null || order.compare(document, after) > 0)) {
+                deleted.add(document);
+            }
+        }
+        if (deleted.isEmpty()) {
+            return walked;
+        }
+        deleted.sort(order);
+        Set<String> deletedIds = deleted.stream().map(Document::getId).collect(Collectors.toSet());
+        Iterator<Document> indexed = walked.filter(document -> !deletedIds.contains(document.getId())).iterator();
+        Iterator<Document> merged = new Iterator<>() {
+            private Document nextIndexed;
+            private int nextDeleted;
+
+            @Override
+            public boolean hasNext() {
+                return nextIndexed != null || indexed.hasNext() || nextDeleted < deleted.size();
+            }
+
+            @Override
+            public Document next() {
+                if (nextIndexed == null && indexed.hasNext()) {
+                    nextIndexed = indexed.next();
+                }
+                if (nextDeleted < deleted.size()
+                        && (nextIndexed == null || order.compare(deleted.get(nextDeleted), nextIndexed) < 0)) {
+                    return deleted.get(nextDeleted++);
+                }
+                if (nextIndexed == null) {
+                    throw new NoSuchElementException();
+                }
+                Document document = nextIndexed;
+                nextIndexed = null;
+                return document;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(walked::close);
+    }
+
+    /**
+     * Returns the documents most relevant to a free-text query, best first,
+     * ranked by BM25 over their titles and contents, see {@link RankedIndex}.
+     * Only the best {@code limit} documents are looked up; documents that
+     * contain none of the query terms are not returned.
+     * <p>
+     * Ranking reads the latest versions of the documents, also with
+     * {@link StorageBackend#MVCC}, and scores computed while a document is
+     * being saved may belong to its previous texts.
+     *
+     * @param query  - the free-text query; terms are matched ignoring case and accents.
+     * @param filter - further criteria the documents have to match; can be null.
+     * @param limit  - the maximum number of documents to return.
+     * @return the matching documents with their scores, best first.
+     * @throws IllegalArgumentException if the limit is not positive.
+     * @throws IllegalStateException    if ranked search is not enabled, see
+     *                                  {@link Options#isRankedSearchEnabled()}.
+     */
+    public List<ScoredDocument> searchRanked(String query, SearchRequest filter, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        if (indexes.ranked == null) {
+            throw new IllegalStateException("Ranked search is not enabled");
+        }
+        long start = metrics == null ? 0 : System.nanoTime();
+        SearchMatcher matcher = filter == null ? null : matcher(filter);
+        List<ScoredDocument> results = indexes.ranked.top(query, limit, id -> {
+                    Document document = storage.get(id);
+                    return document == null || matcher != null && !matcher.matches(document) ? null : document;
+                }).stream()
+                .map(hit -> new ScoredDocument(hit.value(), hit.score()))
                 .collect(Collectors.toList());
+        if (metrics != null) {
+            metrics.recordSearch(DocumentMetrics.shapeOf(filter), start);
+        }
+        return results;
     }
 
     /**
-     * Checks if a document's author ID matches any of the provided author IDs.
-     * If the author IDs list is null or empty, the method returns true, indicating
-     * that the document matches by default.
+     * Counts the documents that match the search request without collecting
+     * them. Requests on authors only or on a creation range only are answered
+     * from the indexes without reading any document.
      *
-     * @param document  - the document to check for a matching author ID.
-     * @param authorIds - a list of author IDs to match against. Can be null or empty.
-     * @return true if the document's author ID matches one of the provided author IDs,
-     * or if the authorIds list is null or empty; false otherwise.
+     * @param request - the search request; can be null to count all documents.
+     * @return the number of matching documents.
      */
-    private boolean matchesAuthorIds(Document document, List<String> authorIds) {
-        return authorIds == null || authorIds.isEmpty() || authorIds.contains(document.getAuthor().getId());
+    public long count(SearchRequest request) {
+        int shape = DocumentMetrics.shapeOf(request);
+        if (shape == 0) {
+            return storage.size();
+        }
+        if (shape == AUTHORS_ONLY) {
+            return indexes.authors.count(request.getAuthorIds());
+        }
+        if (shape == CREATED_ONLY) {
+            try (Stream<String> ids = indexes.created.walk(request.getCreatedFrom(), request.getCreatedTo(), null, null, false)) {
+                return ids.count();
+            }
+        }
+        long[] count = new long[1];
+        forEachMatch(request, document -> count[0]++);
+        return count[0];
     }
 
     /**
-     * Checks if a document's content contains any of the specified keywords.
-     * If the containsContents list is null or empty, the method returns true,
-     * indicating that the document matches by default.
+     * Counts the documents that match the search request per author ID.
+     * Documents without an author are not counted. Requests without criteria
+     * or on authors only are answered from the author index.
      *
-     * @param document         - the document to check for matching content.
-     * @param containsContents - a list of keywords to check for within the document's content.
-     *                         Can be null or empty.
-     * @return true if the document's content contains any of the specified keywords,
-     * or if the containsContents list is null or empty; false otherwise.
+     * @param request - the search request; can be null to count all documents.
+     * @return the number of matching documents per author ID.
      */
-    private boolean containsContents(Document document, List<String> containsContents) {
-        return containsContents == null || containsContents.isEmpty() ||
-                containsContents.stream().anyMatch(document.getContent()::contains);
+    public Map<String, Long> countByAuthor(SearchRequest request) {
+        ObjectCountMap<String> counts = new ObjectCountMap<>();
+        int shape = DocumentMetrics.shapeOf(request);
+        if (shape == 0 || shape == AUTHORS_ONLY) {
+            indexes.authors.countByAuthor(shape == 0 ? null : request.getAuthorIds(), counts);
+        } else {
+            forEachMatch(request, document -> {
+                if (document.getAuthor() != null && document.getAuthor().getId() != null) {
+                    counts.increment(document.getAuthor().getId(), 1);
+                }
+            });
+        }
+        return counts.toMap();
     }
 
     /**
-     * Checks if a document's title starts with any of the specified prefixes.
-     * If the titlePrefixes list is null or empty, the method returns true,
-     * indicating that the document matches by default.
+     * Counts the documents that match the search request per creation time
+     * bucket. Buckets are aligned to the epoch, so daily buckets start at
+     * midnight UTC, and only buckets with documents are returned. Documents
+     * without a creation time are not counted. Requests without criteria or
+     * on a creation range only are answered from the created index.
      *
-     * @param document      - the document to check for matching title prefixes.
-     * @param titlePrefixes - a list of prefixes to check against the document's title.
-     *                      Can be null or empty.
-     * @return true if the document's title starts with any of the specified prefixes,
-     * or if the titlePrefixes list is null or empty; false otherwise.
+     * @param request - the search request; can be null to count all documents.
+     * @param bucket  - the width of a bucket, at least one millisecond.
+     * @return the number of matching documents per bucket start.
+     * @throws IllegalArgumentException if the bucket is shorter than a millisecond.
      */
-    private boolean matchesTitlePrefixes(Document document, List<String> titlePrefixes) {
-        return titlePrefixes == null || titlePrefixes.isEmpty() ||
-                titlePrefixes.stream().anyMatch(prefix -> document.getTitle().startsWith(prefix));
+    public SortedMap<Instant, Long> countByCreated(SearchRequest request, Duration bucket) {
+        long bucketMillis = bucket.toMillis();
+        if (bucketMillis <= 0) {
+            throw new IllegalArgumentException("Bucket must be at least one millisecond: " + bucket);
+        }
+        LongCountMap counts = new LongCountMap();
+        int shape = DocumentMetrics.shapeOf(request);
+        if (shape == 0 || shape == CREATED_ONLY) {
+            indexes.created.countByBucket(shape == 0 ? null : request.getCreatedFrom(),
+                    shape == 0 ? null : request.getCreatedTo(), bucketMillis, counts);
+        } else {
+            forEachMatch(request, document -> {
+                if (document.getCreated() != null) {
+                    counts.increment(Math.floorDiv(document.getCreated().toEpochMilli(), bucketMillis), 1);
+                }
+            });
+        }
+        SortedMap<Instant, Long> result = new TreeMap<>();
+        counts.forEach((number, count) -> result.put(Instant.ofEpochMilli(number * bucketMillis), count));
+        return result;
+    }
+
+    /**
+     * Passes every document that matches the search request to the action,
+     * as of one snapshot, without collecting the matches.
+     */
+    private void forEachMatch(SearchRequest request, Consumer<Document> action) {
+        SearchMatcher matcher = matcher(request);
+        try (DocumentStore.Snapshot snapshot = storage.snapshot()) {
+            Set<String> ids = withChanges(indexes.plan(request, storage.size()), snapshot);
+            Predicate<Document> matches = matches(matcher, snapshot);
+            candidates(snapshot, ids).forEach(document -> {
+                if (matches.test(document)) {
+                    action.accept(document);
+                }
+            });
+        }
+    }
+
+    private <T> Stream<T> count(Stream<T> stream, long[] counts, int index) {
+        return metrics == null ? stream : stream.peek(element -> counts[index]++);
+    }
+
+    /**
+     * Keeps the {@code k} smallest documents of the stream in a bounded
+     * max-heap, which costs O(n log k) time and O(k) memory.
+     */
+    private static List<Document> topK(Stream<Document> documents, Comparator<Document> comparator, int k) {
+        PriorityQueue<Document> heap = new PriorityQueue<>(k, comparator.reversed());
+        documents.forEach(document -> {
+            if (heap.size() < k) {
+                heap.add(document);
+            } else if (comparator.compare(document, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(document);
+            }
+        });
+        List<Document> result = new ArrayList<>(heap);
+        result.sort(comparator);
+        return result;
     }
 
     /**
-     * Checks if a document's creation date is within the specified range.
-     * If the createdFrom or createdTo parameters are null, they are ignored
-     * in the comparison. A document is considered to be within the range
-     * if its creation date is not before createdFrom and not after createdTo.
+     * Returns the compiled matcher for the search request. Matchers are cached
+     * per distinct request, so dashboards sending the same request over and
+     * over compile it only once. The cache key is a copy of the request,
+     * which callers may keep mutating.
      *
-     * @param document    - the document whose creation date is to be checked.
-     * @param createdFrom - the start of the creation date range; can be null.
-     * @param createdTo   - the end of the creation date range; can be null.
-     * @return true if the document's creation date is within the specified range,
-     * or if the range boundaries are null; false otherwise.
+     * @param request - the search request; never null.
+     * @return the compiled matcher.
      */
-    private boolean isWithinCreateRange(Document document, Instant createdFrom, Instant createdTo) {
-        Instant created = document.getCreated();
-        return (createdFrom == null || !created.isBefore(createdFrom)) &&
-                (createdTo == null || !created.isAfter(createdTo));
+    private SearchMatcher matcher(SearchRequest request) {
+        SearchMatcher matcher = matchers.get(request);
+        if (matcher == null) {
+            if (matchers.size() >= MAX_CACHED_MATCHERS) {
+                matchers.clear();
+            }
+            matcher = new SearchMatcher(request, indexes.foldedTexts());
+            matchers.put(copyOf(request), matcher);
+        }
+        return matcher;
+    }
+
+    private static Document copyOf(Document document) {
+        Author author = document.getAuthor();
+        return new Document(document.getId(), document.getTitle(), document.getContent(),
+                author == null ? null : new Author(author.getId(), author.getName()), document.getCreated());
+    }
+
+    static SearchRequest copyOf(SearchRequest request) {
+        return SearchRequest.builder()
+                .titlePrefixes(request.getTitlePrefixes() == null ? null : new ArrayList<>(request.getTitlePrefixes()))
+                .containsContents(request.getContainsContents() == null ? null : new ArrayList<>(request.getContainsContents()))
+                .authorIds(request.getAuthorIds() == null ? null : new ArrayList<>(request.getAuthorIds()))
+                .createdFrom(request.getCreatedFrom())
+                .createdTo(request.getCreatedTo())
+                .matchMode(request.getMatchMode())
+                .build();
+    }
+
+    /**
+     * Returns the documents worth checking against a search request. The
+     * candidate ids come from the most selective index for the request, see
+     * {@link DocumentIndexes#plan}; if no index beats a full scan, every
+     * stored document is a candidate.
+     *
+     * @param ids - the candidate ids, or null for all stored documents.
+     * @return a stream of candidate documents.
+     */
+    private Stream<Document> candidates(Set<String> ids) {
+        if (ids == null) {
+            return storage.values().stream();
+        }
+        return ids.stream()
+                .map(storage::get)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Returns the candidate documents as of a snapshot, see
+     * {@link #candidates(Set)}.
+     */
+    private static Stream<Document> candidates(DocumentStore.Snapshot snapshot, Set<String> ids) {
+        if (ids == null) {
+            return snapshot.values().stream();
+        }
+        return ids.stream()
+                .map(snapshot::get)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Adds the documents changed after the snapshot to the candidates from
+     * the indexes, which only know the latest versions: the version a
+     * snapshot reads may match even though the latest does not. Must be
+     * called after planning, see {@link DocumentStore.Snapshot#changedIds()}.
+     *
+     * @param ids - the candidate ids from the indexes, or null for a full scan.
+     */
+    private static Set<String> withChanges(Set<String> ids, DocumentStore.Snapshot snapshot) {
+        if (ids == null) {
+            return null;
+        }
+        Set<String> changedIds = snapshot.changedIds();
+        if (changedIds.isEmpty()) {
+            return ids;
+        }
+        Set<String> candidates = new HashSet<>(ids);
+        candidates.addAll(changedIds);
+        return candidates;
+    }
+
+    /**
+     * Returns the predicate that checks documents of the snapshot against the
+     * matcher, with folded texts that belong to the versions the snapshot
+     * reads.
+     */
+    private Predicate<Document> matches(SearchMatcher matcher, DocumentStore.Snapshot snapshot) {
+        if (!versioned) {
+            return matcher::matches;
+        }
+        SearchMatcher.FoldedTexts texts = indexes.foldedTexts(snapshot::isLatest);
+        return document -> matcher.matches(document, texts);
     }
 
 //     TODO: 21.09.2024 Implementation this method should find document by id;
@@ -175,18 +1140,280 @@ public class DocumentManager {
      * @return an Optional containing the document if found, or an empty
      * Optional if no document with the given ID exists.
      */
+    @Override
     public Optional<Document> findById(String id) {
-        return Optional.ofNullable(storage.get(id));
+        if (id == null) {
+            return Optional.empty();
+        }
+        if (metrics == null) {
+            return Optional.ofNullable(storage.get(id));
+        }
+        long start = System.nanoTime();
+        Document document = storage.get(id);
+        metrics.recordFind(start);
+        return Optional.ofNullable(document);
+    }
+
+    /**
+     * Optional features of a document manager. Everything is disabled by
+     * default, which gives the plain in-memory behavior.
+     */
+    @Data
+    @Builder(toBuilder = true)
+    public static class Options {
+        /**
+         * Maintains a trigram index over document content that narrows down
+         * {@link SearchRequest#getContainsContents()} searches. Costs extra
+         * memory and work in {@link #save}.
+         */
+        private boolean contentIndexEnabled;
+        /**
+         * Number of worker threads of a dedicated pool that scans large
+         * candidate sets in parallel. 0 or 1 keeps every search on the
+         * calling thread.
+         */
+        private int searchParallelism;
+        /**
+         * Estimated scan cost, roughly in characters compared, from which a
+         * search is split across the parallel workers.
+         */
+        @Builder.Default
+        private long parallelSearchThreshold = 1_000_000;
+        /**
+         * Directory of the write-ahead log and snapshots. Null keeps the
+         * documents in memory only.
+         */
+        private Path persistenceDirectory;
+        /**
+         * How often the write-ahead log is synced to disk in the background.
+         * Null makes every save wait until its log record is on disk; saves
+         * waiting at the same time share one sync.
+         */
+        private Duration walSyncInterval;
+        /**
+         * How often a snapshot is written automatically. Null writes
+         * snapshots only when {@link DocumentManager#snapshot()} is called.
+         */
+        private Duration snapshotInterval;
+        /**
+         * How documents are kept in memory. Null or {@link StorageBackend#HEAP}
+         * keeps the saved objects themselves.
+         */
+        private StorageBackend storageBackend;
+        /**
+         * Deflates long contents with the {@link StorageBackend#COLUMNAR}
+         * backend, trading CPU on every read for memory.
+         */
+        private boolean compressContent;
+        /**
+         * Directory of memory-mapped files backing the texts of the
+         * {@link StorageBackend#COLUMNAR} backend, so that the OS can page
+         * them out. Null keeps the texts in direct memory.
+         */
+        private Path offHeapDirectory;
+        /**
+         * Maximum number of result documents, summed over all entries, that
+         * the search result cache holds. 0 disables the cache. Saves only
+         * drop the cached results they can affect.
+         */
+        private long searchCacheMaxDocuments;
+        /**
+         * How long a cached search result stays valid. Null keeps results
+         * until a save affects them or they are evicted.
+         */
+        private Duration searchCacheTtl;
+        /**
+         * Registry for latency, throughput and storage metrics, see
+         * {@link DocumentMetrics}. Null records nothing.
+         */
+        private MeterRegistry meterRegistry;
+        /**
+         * Tags added to every meter, to tell apart the meters of several
+         * document managers that share a registry. Null adds none.
+         */
+        private Tags meterTags;
+        /**
+         * Folds the title and content of every document once on save and
+         * indexes the folded forms, so that searches with
+         * {@link MatchMode#IGNORE_CASE_AND_ACCENTS} do not fold anything.
+         * Costs memory for the folded texts; the content index, if enabled,
+         * is built over folded contents.
+         */
+        private boolean foldedMatchingEnabled;
+        /**
+         * Tokenizes the title and content of every document on save and
+         * keeps term statistics for {@link DocumentManager#searchRanked}.
+         * Costs memory for the postings and work in {@link #save}.
+         */
+        private boolean rankedSearchEnabled;
+        /**
+         * Generates the IDs of documents saved without one. Null uses
+         * {@link IdGenerator#randomUuid()}; the other built-in generators
+         * are cheaper and never collide, so generated IDs are not checked.
+         */
+        private IdGenerator idGenerator;
+        /**
+         * How long a document is kept after its creation time. Expired
+         * documents are deleted in small batches in the background, at least
+         * once per second, so a document may outlive its TTL by up to one
+         * sweep. Null keeps documents until they are deleted.
+         */
+        private Duration documentTtl;
+        /**
+         * Number of recent changes kept for {@link DocumentManager#changes}
+         * and {@link DocumentManager#pollChanges}, rounded up to a power of
+         * two. 0 disables the change feed. Each kept change holds copies of
+         * the document before and after the save.
+         */
+        private int changeFeedCapacity;
+    }
+
+    /**
+     * In-memory representation of the stored documents.
+     */
+    public enum StorageBackend {
+        /**
+         * The saved document objects in a hash map. Fastest reads.
+         */
+        HEAP,
+        /**
+         * Primitive columns with titles and contents outside the Java heap.
+         * Much smaller per document and lighter on the garbage collector, but
+         * every read builds a new document. The indexes stay on the heap and
+         * keep the id and title of every document.
+         */
+        COLUMNAR,
+        /**
+         * Immutable document versions: saves never change the caller's
+         * document, reads return copies, and searches read a consistent
+         * point-in-time snapshot without blocking writers. Old versions are
+         * dropped once no search needs them.
+         */
+        MVCC
+    }
+
+    /**
+     * Order of the documents in a {@link SearchPage}. Ties are broken by
+     * document id, so the order is total and pages never overlap.
+     */
+    public enum SortOrder {
+        CREATED_ASC(Comparator.comparing(Document::getCreated).thenComparing(Document::getId)),
+        CREATED_DESC(CREATED_ASC.comparator.reversed()),
+        TITLE(Comparator.comparing(Document::getTitle, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                .thenComparing(Document::getId));
+
+        private final Comparator<Document> comparator;
+
+        SortOrder(Comparator<Document> comparator) {
+            this.comparator = comparator;
+        }
+
+        Comparator<Document> comparator() {
+            return comparator;
+        }
+    }
+
+    /**
+     * Size, order and position of a requested result page.
+     */
+    @Data
+    @Builder
+    public static class PageRequest {
+        private int limit;
+        /**
+         * Defaults to {@link SortOrder#CREATED_ASC} when null.
+         */
+        private SortOrder sort;
+        /**
+         * The {@link SearchPage#getNextCursor()} of the previous page, or null
+         * for the first page.
+         */
+        private String cursor;
+    }
+
+    /**
+     * One page of search results.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class SearchPage {
+        private List<Document> documents;
+        /**
+         * Opaque position to pass with the next page request, or null if this
+         * is the last page.
+         */
+        private String nextCursor;
+    }
+
+    /**
+     * A document returned by {@link DocumentManager#searchRanked} with its
+     * relevance score; higher is more relevant.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ScoredDocument {
+        private Document document;
+        private double score;
+    }
+
+    /**
+     * One save or delete as seen by the change feed. Sequence numbers start at 1 and
+     * increase by one per change; the changes of one document are numbered in
+     * the order they were applied.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ChangeEvent {
+        private long sequence;
+        /**
+         * The document before the change, or null if a save inserted it. With
+         * {@link StorageBackend#HEAP}, saving a stored document after changing
+         * it in place reports the changed fields here too.
+         */
+        private Document before;
+        /**
+         * The document after the save, or null if it was deleted.
+         */
+        private Document after;
+    }
+
+    /**
+     * How title prefixes and content keywords of a {@link SearchRequest} are
+     * compared with documents.
+     */
+    public enum MatchMode {
+        /**
+         * Exact, case-sensitive comparison.
+         */
+        EXACT,
+        /**
+         * Ignores case and accents, so "rep" matches the title "Report" and
+         * "cafe" matches "Café". Fast with
+         * {@link Options#isFoldedMatchingEnabled()}, which folds each
+         * document once on save; otherwise every search folds the texts of
+         * the documents it checks.
+         */
+        IGNORE_CASE_AND_ACCENTS
     }
 
     @Data
     @Builder
+    @AllArgsConstructor
     public static class SearchRequest {
         private List<String> titlePrefixes;
         private List<String> containsContents;
         private List<String> authorIds;
         private Instant createdFrom;
         private Instant createdTo;
+        /**
+         * Null means {@link MatchMode#EXACT}.
+         */
+        private MatchMode matchMode;
+
+        public SearchRequest(List<String> titlePrefixes, List<String> containsContents, List<String> authorIds,
+                             Instant createdFrom, Instant createdTo) {
+            this(titlePrefixes, containsContents, authorIds, createdFrom, createdTo, null);
+        }
     }
 
     @Data
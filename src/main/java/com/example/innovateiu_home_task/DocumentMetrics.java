@@ -0,0 +1,188 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.SearchRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Micrometer meters of a {@link DocumentManager}:
+ * <ul>
+ *     <li>{@code documents.save}, {@code documents.save.batch} and
+ *     {@code documents.find} latency histograms;</li>
+ *     <li>{@code documents.search} latency and {@code documents.search.scanned}
+ *     / {@code documents.search.matched} document counts, tagged with the
+ *     shape of the request, i.e. which criteria were set;</li>
+ *     <li>{@code documents.writes} counted by {@code type} (insert, update or delete)
+ *     and {@code documents.id.collisions} for generated IDs that were taken;</li>
+ *     <li>{@code documents.stored} and {@code documents.memory.estimated} gauges.</li>
+ * </ul>
+ * Every meter also carries the common tags of the document manager, so that
+ * several document managers, e.g. the shards of a
+ * {@link ShardedDocumentManager}, can share a registry.
+ * The document manager holds no instance at all when metrics are disabled,
+ * so the hot paths then only pay a null check.
+ */
+class DocumentMetrics {
+
+    private static final String[] CRITERIA = {"title", "content", "author", "created"};
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Timer save;
+    private final Timer saveBatch;
+    private final Timer find;
+    private final Counter inserts;
+    private final Counter updates;
+    private final Counter deletes;
+    private final Counter idCollisions;
+    // meters per request shape, registered on first use; racing registrations
+    // get the same meters back from the registry
+    private final SearchMeters[] searchMeters = new SearchMeters[1 << CRITERIA.length];
+
+    /**
+     * @param registry       - the registry to register the meters with.
+     * @param tags           - the tags added to every meter.
+     * @param storedCount    - reports the number of stored documents.
+     * @param memoryEstimate - reports the estimated memory of the stored documents and their indexes in bytes.
+     */
+    DocumentMetrics(MeterRegistry registry, Tags tags, LongSupplier storedCount, LongSupplier memoryEstimate) {
+        this.registry = registry;
+        this.tags = tags;
+        this.save = latency("documents.save").tags(tags).register(registry);
+        this.saveBatch = latency("documents.save.batch").tags(tags).register(registry);
+        this.find = latency("documents.find").tags(tags).register(registry);
+        this.inserts = Counter.builder("documents.writes").tags(tags).tag("type", "insert").register(registry);
+        this.updates = Counter.builder("documents.writes").tags(tags).tag("type", "update").register(registry);
+        this.deletes = Counter.builder("documents.writes").tags(tags).tag("type", "delete").register(registry);
+        this.idCollisions = Counter.builder("documents.id.collisions")
+                .description("Generated IDs that were already taken")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("documents.stored", storedCount, LongSupplier::getAsLong)
+                .tags(tags)
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("documents.memory.estimated", memoryEstimate, LongSupplier::getAsLong)
+                .baseUnit("bytes")
+                .tags(tags)
+                .strongReference(true)
+                .register(registry);
+    }
+
+    private static Timer.Builder latency(String name) {
+        return Timer.builder(name).publishPercentileHistogram();
+    }
+
+    /**
+     * Returns the shape of a search request: a bit per criterion that is set.
+     */
+    static int shapeOf(SearchRequest request) {
+        if (request == null) {
+            return 0;
+        }
+        int shape = 0;
+        if (isSet(request.getTitlePrefixes())) {
+            shape |= 1;
+        }
+        if (isSet(request.getContainsContents())) {
+            shape |= 2;
+        }
+        if (isSet(request.getAuthorIds())) {
+            shape |= 4;
+        }
+        if (request.getCreatedFrom() != null || request.getCreatedTo() != null) {
+            shape |= 8;
+        }
+        return shape;
+    }
+
+    private static boolean isSet(List<String> criterion) {
+        return criterion != null && !criterion.isEmpty();
+    }
+
+    void recordSave(long startNanos) {
+        save.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordSaveBatch(long startNanos) {
+        saveBatch.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordFind(long startNanos) {
+        find.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordSearch(int shape, long startNanos) {
+        searchMeters(shape).latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records how many documents one search checked against its request and
+     * how many of them matched.
+     */
+    void recordScan(int shape, long scanned, long matched) {
+        SearchMeters meters = searchMeters(shape);
+        meters.scanned.record(scanned);
+        meters.matched.record(matched);
+    }
+
+    void recordInserts(int count) {
+        inserts.increment(count);
+    }
+
+    void recordUpdate() {
+        updates.increment();
+    }
+
+    void recordDelete() {
+        deletes.increment();
+    }
+
+    void recordIdCollision() {
+        idCollisions.increment();
+    }
+
+    private SearchMeters searchMeters(int shape) {
+        SearchMeters meters = searchMeters[shape];
+        if (meters == null) {
+            meters = new SearchMeters(registry, tags.and("criteria", criteriaTag(shape)));
+            searchMeters[shape] = meters;
+        }
+        return meters;
+    }
+
+    private static String criteriaTag(int shape) {
+        if (shape == 0) {
+            return "none";
+        }
+        StringJoiner criteria = new StringJoiner("+");
+        for (int i = 0; i < CRITERIA.length; i++) {
+            if ((shape & (1 << i)) != 0) {
+                criteria.add(CRITERIA[i]);
+            }
+        }
+        return criteria.toString();
+    }
+
+    private static final class SearchMeters {
+
+        private final Timer latency;
+        private final DistributionSummary scanned;
+        private final DistributionSummary matched;
+
+        private SearchMeters(MeterRegistry registry, Tags tags) {
+            this.latency = latency("documents.search").tags(tags).register(registry);
+            this.scanned = DistributionSummary.builder("documents.search.scanned").tags(tags).register(registry);
+            this.matched = DistributionSummary.builder("documents.search.matched").tags(tags).register(registry);
+        }
+    }
+}
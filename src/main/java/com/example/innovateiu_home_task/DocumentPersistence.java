@@ -0,0 +1,523 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Document;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log and snapshots that make the in-memory storage survive a
+ * restart.
+ * <p>
+ * Every saved document is appended to the current log segment as a record
+ * holding its complete merged state, and every deleted document as a record
+ * holding just its id, so replaying the records of a document in log order
+ * always ends at its latest state. Records are buffered and
+ * written with one fsync per group: either every save waits for the group
+ * commit that covers it, or, with a sync interval, the log is synced in the
+ * background and a crash may lose the last interval of saves.
+ * <p>
+ * A snapshot rotates the log to a new segment while no write is between its
+ * log record and its storage write, so every record of the closed segments
+ * is visible to the snapshot. It then writes every stored document to a
+ * snapshot file through a {@link FileChannel}, and deletes the closed
+ * segments and older snapshots. Recovery memory-maps the latest snapshot,
+ * loads it and replays the log records from its sequence number on; older
+ * records left behind by an interrupted cleanup are skipped.
+ * <p>
+ * File layout, with the first sequence number zero-padded in the name:
+ * <ul>
+ *     <li>{@code wal-<first seq>.log}: records of
+ *     {@code [int length][int crc][byte type][long seq][length bytes of document]}</li>
+ *     <li>{@code snapshot-<replay from seq>.bin}: {@code [long magic][long replay from seq]}
+ *     followed by {@code [int length][document]} entries and an int -1</li>
+ * </ul>
+ */
+class DocumentPersistence implements Closeable {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    private static final String WAL_PREFIX = "wal-";
+    private static final String WAL_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final long SNAPSHOT_MAGIC = 0x444f43534e415031L;
+    private static final int RECORD_HEADER = 4 + 4 + 1 + 8;
+    private static final int END_OF_SNAPSHOT = -1;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long MAP_WINDOW = 1L << 28;
+
+    private final Path directory;
+    private final boolean syncOnCommit;
+    private final ScheduledExecutorService syncScheduler;
+
+    private final Object syncLock = new Object();
+    private final Object writeLock = new Object();
+    private final Object snapshotLock = new Object();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel segment;
+    private long segmentFirstSeq;
+    private long nextSeq;
+    private long lastAppendedSeq = -1;
+    private volatile long durableSeq = -1;
+
+    /**
+     * @param directory    - the directory holding the log and snapshot files.
+     * @param syncInterval - how often to fsync the log in the background, or
+     *                     null to make every save wait for its group commit.
+     */
+    DocumentPersistence(Path directory, Duration syncInterval) {
+        this.directory = directory;
+        this.syncOnCommit = syncInterval == null;
+        if (syncInterval == null) {
+            this.syncScheduler = null;
+        } else {
+            this.syncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "document-wal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = Math.max(1, syncInterval.toMillis());
+            syncScheduler.scheduleWithFixedDelay(this::sync, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Loads the latest snapshot, replays the log written after it and opens a
+     * new log segment for the following saves. Must be called once, before
+     * the first append.
+     *
+     * @param restore - receives every recovered document state, in log order.
+     * @param remove  - receives the id of every recovered delete, in log order.
+     */
+    void recover(Consumer<Document> restore, Consumer<String> remove) {
+        try {
+            Files.createDirectories(directory);
+            long replayFrom = 0;
+            Path snapshot = latest(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            if (snapshot != null) {
+                replayFrom = loadSnapshot(snapshot, restore);
+            }
+            long lastSeq = replayFrom - 1;
+            List<Path> logs = files(WAL_PREFIX, WAL_SUFFIX);
+            for (int i = 0; i < logs.size(); i++) {
+                // a segment ends where the next one starts
+                boolean obsolete = i + 1 < logs.size() && firstSeq(logs.get(i + 1), WAL_PREFIX, WAL_SUFFIX) <= replayFrom;
+                if (!obsolete) {
+                    lastSeq = Math.max(lastSeq, replay(logs.get(i), replayFrom, restore, remove));
+                }
+            }
+            synchronized (writeLock) {
+                nextSeq = lastSeq + 1;
+                lastAppendedSeq = lastSeq;
+                durableSeq = lastSeq;
+                openSegment();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot recover documents from " + directory, e);
+        }
+    }
+
+    /**
+     * Appends the merged state of a document to the log. The record is only
+     * buffered; see {@link #awaitDurable()}.
+     *
+     * @param type     - the record type.
+     * @param document - the merged document.
+     */
+    void append(byte type, Document document) {
+        byte[] payload = DocumentCodec.encode(document);
+        synchronized (writeLock) {
+            appendRecord(type, payload);
+        }
+    }
+
+    /**
+     * Appends the merged states of a batch of documents under a single
+     * acquisition of the log lock.
+     *
+     * @param type      - the record type.
+     * @param documents - the merged documents.
+     */
+    void appendAll(byte type, List<Document> documents) {
+        List<byte[]> payloads = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            payloads.add(DocumentCodec.encode(document));
+        }
+        synchronized (writeLock) {
+            for (byte[] payload : payloads) {
+                appendRecord(type, payload);
+            }
+        }
+    }
+
+    private void appendRecord(byte type, byte[] payload) {
+        long seq = nextSeq++;
+        crc.reset();
+        crc.update(type);
+        crc.update(ByteBuffer.allocate(8).putLong(0, seq));
+        crc.update(payload);
+        ensureBufferSpace(RECORD_HEADER + payload.length);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(type).putLong(seq);
+        if (payload.length > buffer.remaining()) {
+            flushBuffer();
+            write(ByteBuffer.wrap(payload));
+        } else {
+            buffer.put(payload);
+        }
+        lastAppendedSeq = seq;
+    }
+
+    /**
+     * Blocks until every record appended so far by the calling thread is on
+     * disk, unless the log is synced in the background. Concurrent callers
+     * share a single fsync: whoever gets the sync lock first syncs all records
+     * appended until then, the others find their records already durable.
+     */
+    void awaitDurable() {
+        if (!syncOnCommit) {
+            return;
+        }
+        long seq;
+        synchronized (writeLock) {
+            seq = lastAppendedSeq;
+        }
+        if (durableSeq < seq) {
+            sync();
+        }
+    }
+
+    private void sync() {
+        synchronized (syncLock) {
+            long target;
+            synchronized (writeLock) {
+                if (segment == null || durableSeq >= lastAppendedSeq) {
+                    return;
+                }
+                flushBuffer();
+                target = lastAppendedSeq;
+            }
+            try {
+                segment.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot sync the write-ahead log", e);
+            }
+            durableSeq = target;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the stored documents and deletes the log segments
+     * and snapshots it makes obsolete.
+     *
+     * @param rotationLock - excludes writes between their log record and
+     *                     their storage write while the log is rotated.
+     * @param documents    - opens a view of the stored documents, which may
+     *                     change while being written; opened after the
+     *                     rotation.
+     */
+    void snapshot(Lock rotationLock, Supplier<DocumentStore.Snapshot> documents) {
+        synchronized (snapshotLock) {
+            long replayFrom;
+            rotationLock.lock();
+            try {
+                replayFrom = rotate();
+            } finally {
+                rotationLock.unlock();
+            }
+            Path target = file(SNAPSHOT_PREFIX, replayFrom, SNAPSHOT_SUFFIX);
+            Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            try {
+                try (DocumentStore.Snapshot view = documents.get();
+                     FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                             StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                    out.putLong(SNAPSHOT_MAGIC).putLong(replayFrom);
+                    for (Document document : view.values()) {
+                        byte[] payload = DocumentCodec.encode(document);
+                        if (out.remaining() < 4 + payload.length) {
+                            drain(channel, out);
+                        }
+                        out.putInt(payload.length);
+                        if (payload.length > out.remaining()) {
+                            drain(channel, out);
+                            writeFully(channel, ByteBuffer.wrap(payload));
+                        } else {
+                            out.put(payload);
+                        }
+                    }
+                    if (out.remaining() < 4) {
+                        drain(channel, out);
+                    }
+                    out.putInt(END_OF_SNAPSHOT);
+                    drain(channel, out);
+                    channel.force(true);
+                }
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                for (Path snapshot : files(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                    if (firstSeq(snapshot, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < replayFrom) {
+                        Files.deleteIfExists(snapshot);
+                    }
+                }
+                for (Path log : files(WAL_PREFIX, WAL_SUFFIX)) {
+                    if (firstSeq(log, WAL_PREFIX, WAL_SUFFIX) < replayFrom) {
+                        Files.deleteIfExists(log);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot write snapshot " + target, e);
+            }
+        }
+    }
+
+    /**
+     * Closes the current segment and opens a new one.
+     *
+     * @return the first sequence number of the new segment.
+     */
+    private long rotate() {
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                try {
+                    flushBuffer();
+                    segment.force(false);
+                    segment.close();
+                    durableSeq = lastAppendedSeq;
+                    openSegment();
+                    return segmentFirstSeq;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot rotate the write-ahead log", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (syncScheduler != null) {
+            // not shutdownNow: interrupting a thread inside force() would close the log channel
+            syncScheduler.shutdown();
+            awaitTermination(syncScheduler);
+        }
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                if (segment == null) {
+                    return;
+                }
+                try {
+                    flushBuffer();
+                    segment.force(false);
+                    segment.close();
+                    durableSeq = lastAppendedSeq;
+                    segment = null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot close the write-ahead log", e);
+                }
+            }
+        }
+    }
+
+    static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void openSegment() throws IOException {
+        segmentFirstSeq = nextSeq;
+        segment = FileChannel.open(file(WAL_PREFIX, segmentFirstSeq, WAL_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    private void ensureBufferSpace(int bytes) {
+        if (buffer.remaining() < Math.min(bytes, BUFFER_SIZE)) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer bytes) {
+        try {
+            writeFully(segment, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write to the write-ahead log", e);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        writeFully(channel, out);
+        out.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private long loadSnapshot(Path snapshot, Consumer<Document> restore) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedReader reader = new MappedReader(channel);
+            if (!reader.ensure(16) || reader.buffer().getLong() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a document snapshot: " + snapshot);
+            }
+            long replayFrom = reader.buffer().getLong();
+            while (true) {
+                if (!reader.ensure(4)) {
+                    throw new IOException("Truncated snapshot: " + snapshot);
+                }
+                int length = reader.buffer().getInt();
+                if (length == END_OF_SNAPSHOT) {
+                    return replayFrom;
+                }
+                if (!reader.ensure(length)) {
+                    throw new IOException("Truncated snapshot: " + snapshot);
+                }
+                restore.accept(DocumentCodec.decode(reader.buffer()));
+            }
+        }
+    }
+
+    /**
+     * Replays one log segment up to its end or up to the first torn or
+     * corrupted record, which is where a crash interrupted the last write.
+     * Records before the snapshot's sequence number are skipped.
+     *
+     * @return the sequence number of the last replayed record, or -1.
+     */
+    private long replay(Path log, long replayFrom, Consumer<Document> restore, Consumer<String> remove) throws IOException {
+        long lastSeq = -1;
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            MappedReader reader = new MappedReader(channel);
+            CRC32 checksum = new CRC32();
+            while (reader.ensure(RECORD_HEADER)) {
+                ByteBuffer buffer = reader.buffer();
+                int length = buffer.getInt();
+                int expectedCrc = buffer.getInt();
+                byte type = buffer.get();
+                long seq = buffer.getLong();
+                if (length < 0 || !reader.ensure(length)) {
+                    break;
+                }
+                buffer = reader.buffer();
+                checksum.reset();
+                checksum.update(type);
+                checksum.update(ByteBuffer.allocate(8).putLong(0, seq));
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                checksum.update(payload.duplicate());
+                if ((int) checksum.getValue() != expectedCrc) {
+                    break;
+                }
+                // earlier records are covered by the snapshot
+                if (seq >= replayFrom && type == PUT) {
+                    restore.accept(DocumentCodec.decode(payload));
+                } else if (seq >= replayFrom && type == DELETE) {
+                    remove.accept(DocumentCodec.decode(payload).getId());
+                }
+                buffer.position(buffer.position() + length);
+                lastSeq = seq;
+            }
+        }
+        return lastSeq;
+    }
+
+    private Path latest(String prefix, String suffix) throws IOException {
+        List<Path> files = files(prefix, suffix);
+        return files.isEmpty() ? null : files.get(files.size() - 1);
+    }
+
+    /**
+     * Lists the files with the given prefix and suffix, ordered by the
+     * sequence number in their name.
+     */
+    private List<Path> files(String prefix, String suffix) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            List<Path> files = new ArrayList<>(paths
+                    .filter(path -> path.getFileName().toString().startsWith(prefix)
+                            && path.getFileName().toString().endsWith(suffix))
+                    .toList());
+            files.sort((left, right) -> Long.compare(firstSeq(left, prefix, suffix), firstSeq(right, prefix, suffix)));
+            return files;
+        }
+    }
+
+    private Path file(String prefix, long seq, String suffix) {
+        return directory.resolve(prefix + String.format("%020d", seq) + suffix);
+    }
+
+    private static long firstSeq(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    /**
+     * Reads a file through a sliding memory-mapped window, so that files
+     * larger than one mapping can be read sequentially.
+     */
+    private static class MappedReader {
+
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAP_WINDOW));
+        }
+
+        ByteBuffer buffer() {
+            return window;
+        }
+
+        /**
+         * Makes sure the next {@code bytes} bytes of the file are readable
+         * from {@link #buffer()}, remapping the window if needed.
+         *
+         * @return false if the file ends before that.
+         */
+        boolean ensure(long bytes) throws IOException {
+            long position = windowStart + window.position();
+            if (position + bytes > size) {
+                return false;
+            }
+            if (window.remaining() < bytes) {
+                windowStart = position;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, Math.max(bytes, MAP_WINDOW)));
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Document;
+import com.example.innovateiu_home_task.DocumentManager.PageRequest;
+import com.example.innovateiu_home_task.DocumentManager.SearchPage;
+import com.example.innovateiu_home_task.DocumentManager.SearchRequest;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One partition of a {@link ShardedDocumentManager}, reached through
+ * whatever transport connects to it. {@link DocumentManager} is the
+ * in-process implementation; a shard on another node implements these
+ * methods as remote calls with the same semantics.
+ */
+public interface DocumentShard extends AutoCloseable {
+
+    /**
+     * @see DocumentManager#save
+     */
+    Document save(Document document);
+
+    /**
+     * @see DocumentManager#saveAll(Collection)
+     */
+    List<Document> saveAll(Collection<Document> documents);
+
+    /**
+     * @see DocumentManager#findById
+     */
+    Optional<Document> findById(String id);
+
+    /**
+     * @see DocumentManager#deleteById
+     */
+    boolean deleteById(String id);
+
+    /**
+     * @see DocumentManager#search(SearchRequest)
+     */
+    List<Document> search(SearchRequest request);
+
+    /**
+     * @see DocumentManager#search(SearchRequest, PageRequest)
+     */
+    SearchPage search(SearchRequest request, PageRequest page);
+
+    @Override
+    void close();
+}
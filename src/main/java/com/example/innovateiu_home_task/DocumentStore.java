@@ -0,0 +1,140 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Document;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Storage backend of a {@link DocumentManager}, keyed by document id. The
+ * operations follow {@link java.util.concurrent.ConcurrentMap}: updates of
+ * one id are atomic, and reads never block on them.
+ * <p>
+ * Backends are free to keep documents in a different representation and
+ * materialize a {@link Document} on every read, so a read may return a new
+ * instance each time; the documents returned by the mapping functions are
+ * returned as they are.
+ */
+interface DocumentStore {
+
+    Document get(String id);
+
+    boolean containsKey(String id);
+
+    /**
+     * Atomically replaces the document stored under the id with the result of
+     * the remapping function, which receives the current document or null.
+     * A null result removes the document.
+     *
+     * @return the new document, or null if there is none.
+     */
+    Document compute(String id, BiFunction<String, Document, Document> remapping);
+
+    /**
+     * Atomically stores the result of the mapping function if nothing is
+     * stored under the id yet.
+     *
+     * @return the result of the mapping function if it was stored, otherwise
+     * the document already stored.
+     */
+    Document computeIfAbsent(String id, Function<String, Document> mapping);
+
+    /**
+     * @return null if the document was stored, otherwise the document already
+     * stored under the id.
+     */
+    Document putIfAbsent(String id, Document document);
+
+    int size();
+
+    /**
+     * Returns a weakly consistent view of all stored documents, like
+     * {@link java.util.concurrent.ConcurrentMap#values()}.
+     */
+    Collection<Document> values();
+
+    /**
+     * Roughly estimates the memory held by the stored documents.
+     *
+     * @param textLength - the total length of all titles and contents.
+     * @return the estimate in bytes.
+     */
+    long estimatedBytes(long textLength);
+
+    /**
+     * Reclaims memory still held for replaced and removed documents, in
+     * steps of bounded work. Backends that leave this to the garbage
+     * collector have nothing to do.
+     *
+     * @param budget - roughly how many documents one step may look at.
+     * @return whether more work remains.
+     */
+    default boolean compact(int budget) {
+        return false;
+    }
+
+    /**
+     * Opens a read view of the stored documents. Backends that keep versions
+     * return a consistent point-in-time view; the others return a live view
+     * with the same guarantees as reading the store directly.
+     */
+    default Snapshot snapshot() {
+        return new Snapshot() {
+            @Override
+            public Document get(String id) {
+                return DocumentStore.this.get(id);
+            }
+
+            @Override
+            public Collection<Document> values() {
+                return DocumentStore.this.values();
+            }
+
+            @Override
+            public boolean isLatest(String id) {
+                return true;
+            }
+
+            @Override
+            public Set<String> changedIds() {
+                return Set.of();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * A read view of the stored documents, which may hold on to old document
+     * versions until it is closed.
+     */
+    interface Snapshot extends AutoCloseable {
+
+        Document get(String id);
+
+        Collection<Document> values();
+
+        /**
+         * Checks that the snapshot reads the latest version of a document and
+         * that no newer write of it has started, i.e. that whatever the
+         * indexes remember about the document belongs to the version the
+         * snapshot reads. Check it after reading from the indexes.
+         */
+        boolean isLatest(String id);
+
+        /**
+         * Returns the ids of the documents changed after the snapshot was
+         * taken. The indexes already reflect their latest versions, so a
+         * search over the snapshot has to check them in addition to the
+         * candidates it gets from the indexes.
+         */
+        Set<String> changedIds();
+
+        @Override
+        void close();
+    }
+}
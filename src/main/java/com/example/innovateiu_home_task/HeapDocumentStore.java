@@ -0,0 +1,65 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Document;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Default storage backend: the documents themselves in a
+ * {@link ConcurrentHashMap}.
+ */
+class HeapDocumentStore implements DocumentStore {
+
+    // map entry, document, author, instant and string headers
+    private static final int DOCUMENT_OVERHEAD = 240;
+
+    private final ConcurrentMap<String, Document> documents = new ConcurrentHashMap<>();
+
+    @Override
+    public Document get(String id) {
+        return documents.get(id);
+    }
+
+    @Override
+    public boolean containsKey(String id) {
+        return documents.containsKey(id);
+    }
+
+    @Override
+    public Document compute(String id, BiFunction<String, Document, Document> remapping) {
+        return documents.compute(id, remapping);
+    }
+
+    @Override
+    public Document computeIfAbsent(String id, Function<String, Document> mapping) {
+        return documents.computeIfAbsent(id, mapping);
+    }
+
+    @Override
+    public Document putIfAbsent(String id, Document document) {
+        return documents.putIfAbsent(id, document);
+    }
+
+    @Override
+    public int size() {
+        return documents.size();
+    }
+
+    @Override
+    public Collection<Document> values() {
+        return documents.values();
+    }
+
+    /**
+     * Counts two bytes per character, which overestimates Latin-1 texts
+     * that the JVM stores in one byte per character.
+     */
+    @Override
+    public long estimatedBytes(long textLength) {
+        return (long) documents.size() * DOCUMENT_OVERHEAD + 2 * textLength;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.innovateiu_home_task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates the IDs of documents saved without one. Must be thread-safe.
+ *
+ * @see DocumentManager.Options#getIdGenerator()
+ */
+public interface IdGenerator {
+
+    String nextId();
+
+    /**
+     * Generates several IDs at once, for {@link DocumentManager#saveAll}.
+     */
+    default List<String> nextIds(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(nextId());
+        }
+        return ids;
+    }
+
+    /**
+     * Whether the generator never returns the same ID twice. The document
+     * manager then trusts generated IDs to be free instead of checking them
+     * against the stored documents; IDs chosen by clients must not look like
+     * generated ones.
+     */
+    default boolean isCollisionFree() {
+        return false;
+    }
+
+    /**
+     * Random (version 4) UUIDs from a secure random generator, the default.
+     * Collisions are practically impossible but are still checked for.
+     */
+    static IdGenerator randomUuid() {
+        return IdGenerators.RandomUuid.INSTANCE;
+    }
+
+    /**
+     * Time-ordered (version 7) UUIDs: a millisecond timestamp followed by a
+     * sequence number and random bits. IDs of one generator increase, also
+     * as strings, so they sort in creation order. Stored compactly by
+     * {@link DocumentManager.StorageBackend#COLUMNAR}.
+     */
+    static IdGenerator timeOrderedUuid() {
+        return new IdGenerators.TimeOrderedUuid();
+    }
+
+    /**
+     * A node prefix followed by a base-36 counter, e.g. {@code "n1-k3x9z0a"}.
+     * Threads take blocks of counter values, so they do not contend on every
+     * ID. The counter starts from the clock, so a restarted node does not
+     * reuse the IDs of its previous run.
+     *
+     * @param nodePrefix - distinguishes the IDs of different nodes.
+     */
+    static IdGenerator counter(String nodePrefix) {
+        return new IdGenerators.Counter(nodePrefix);
+    }
+
+    /**
+     * Snowflake-style 64-bit IDs: milliseconds since 2024, a 10-bit node ID
+     * and a 12-bit sequence number, rendered as zero-padded decimal strings so
+     * that they sort in creation order.
+     *
+     * @param nodeId - distinguishes the IDs of different nodes; 0 to 1023.
+     */
+    static IdGenerator snowflake(int nodeId) {
+        return new IdGenerators.Snowflake(nodeId);
+    }
+}
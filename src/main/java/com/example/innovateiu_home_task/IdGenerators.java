@@ -0,0 +1,153 @@
+package com.example.innovateiu_home_task;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The built-in {@link IdGenerator}s.
+ */
+final class IdGenerators {
+
+    private IdGenerators() {
+    }
+
+    static final class RandomUuid implements IdGenerator {
+
+        static final RandomUuid INSTANCE = new RandomUuid();
+
+        private static final SecureRandom RANDOM = new SecureRandom();
+
+        @Override
+        public String nextId() {
+            return UUID.randomUUID().toString();
+        }
+
+        /**
+         * Generates the UUIDs from a single draw of the shared secure random
+         * generator instead of one draw per UUID.
+         */
+        @Override
+        public List<String> nextIds(int count) {
+            byte[] random = new byte[count * 16];
+            RANDOM.nextBytes(random);
+            ByteBuffer bytes = ByteBuffer.wrap(random);
+            List<String> uuids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long mostSignificant = (bytes.getLong() & ~0xf000L) | 0x4000L;
+                long leastSignificant = (bytes.getLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+                uuids.add(new UUID(mostSignificant, leastSignificant).toString());
+            }
+            return uuids;
+        }
+    }
+
+    static final class TimeOrderedUuid implements IdGenerator {
+
+        private final MonotonicClock clock = new MonotonicClock(0);
+
+        @Override
+        public String nextId() {
+            long tick = clock.next();
+            long millis = tick >>> MonotonicClock.SEQUENCE_BITS;
+            long sequence = tick & MonotonicClock.SEQUENCE_MASK;
+            long mostSignificant = (millis << 16) | 0x7000L | sequence;
+            long leastSignificant = (ThreadLocalRandom.current().nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+            return new UUID(mostSignificant, leastSignificant).toString();
+        }
+
+        @Override
+        public boolean isCollisionFree() {
+            return true;
+        }
+    }
+
+    static final class Counter implements IdGenerator {
+
+        private static final int BLOCK_SIZE = 4096;
+
+        private final String nodePrefix;
+        private final AtomicLong nextBlock;
+        // the next value and the end of the block of the current thread
+        private final ThreadLocal<long[]> block = ThreadLocal.withInitial(() -> new long[2]);
+
+        Counter(String nodePrefix) {
+            this.nodePrefix = nodePrefix;
+            // a restart only reuses values if the previous run took over a million per millisecond
+            this.nextBlock = new AtomicLong(System.currentTimeMillis() << 20);
+        }
+
+        @Override
+        public String nextId() {
+            long[] block = this.block.get();
+            if (block[0] == block[1]) {
+                block[0] = nextBlock.getAndAdd(BLOCK_SIZE);
+                block[1] = block[0] + BLOCK_SIZE;
+            }
+            return nodePrefix + Long.toString(block[0]++, 36);
+        }
+
+        @Override
+        public boolean isCollisionFree() {
+            return true;
+        }
+    }
+
+    static final class Snowflake implements IdGenerator {
+
+        private static final long EPOCH_MILLIS = 1_704_067_200_000L;
+        private static final int NODE_BITS = 10;
+
+        private final MonotonicClock clock = new MonotonicClock(EPOCH_MILLIS);
+        private final long node;
+
+        Snowflake(int nodeId) {
+            if (nodeId < 0 || nodeId >= 1 << NODE_BITS) {
+                throw new IllegalArgumentException("Node ID must be between 0 and 1023: " + nodeId);
+            }
+            this.node = (long) nodeId << MonotonicClock.SEQUENCE_BITS;
+        }
+
+        @Override
+        public String nextId() {
+            long tick = clock.next();
+            long millis = tick >>> MonotonicClock.SEQUENCE_BITS;
+            long id = millis << (NODE_BITS + MonotonicClock.SEQUENCE_BITS) | node | (tick & MonotonicClock.SEQUENCE_MASK);
+            String digits = Long.toString(id);
+            return "0".repeat(19 - digits.length()) + digits;
+        }
+
+        @Override
+        public boolean isCollisionFree() {
+            return true;
+        }
+    }
+
+    /**
+     * Strictly increasing ticks of a millisecond timestamp and a 12-bit
+     * sequence number. More than 4096 ticks in one millisecond borrow from
+     * the next millisecond instead of waiting, and a clock that goes back is
+     * ignored until it catches up, so ticks never repeat.
+     */
+    static final class MonotonicClock {
+
+        static final int SEQUENCE_BITS = 12;
+        static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+        private final long epochMillis;
+        private final AtomicLong last = new AtomicLong();
+
+        MonotonicClock(long epochMillis) {
+            this.epochMillis = epochMillis;
+        }
+
+        long next() {
+            long now = (System.currentTimeMillis() - epochMillis) << SEQUENCE_BITS;
+            return last.accumulateAndGet(now, (previous, current) -> Math.max(previous + 1, current));
+        }
+    }
+}
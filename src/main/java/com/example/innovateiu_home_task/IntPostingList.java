@@ -0,0 +1,89 @@
+package com.example.innovateiu_home_task;
+
+import java.util.Arrays;
+
+/**
+ * Sorted list of primitive document ordinals. New ordinals are handed out in
+ * increasing order and are appended at the end, while the reused ordinals
+ * of removed documents are inserted in place. All access is synchronized;
+ * the critical sections are short array operations.
+ */
+class IntPostingList {
+
+    private int[] ordinals = new int[4];
+    private int size;
+
+    synchronized void add(int ordinal) {
+        int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size + (size >> 1) + 1);
+        }
+        System.arraycopy(ordinals, insertAt, ordinals, insertAt + 1, size - insertAt);
+        ordinals[insertAt] = ordinal;
+        size++;
+    }
+
+    /**
+     * Adds a batch of ordinals at once. When the whole batch sorts after the
+     * current postings, which is the case for new ordinals, it is appended
+     * with a single array copy; a batch with reused ordinals is merged into
+     * the postings in one pass.
+     *
+     * @param batch - the ordinals to add, sorted ascending.
+     * @param count - the number of ordinals to take from the batch.
+     */
+    synchronized void addAll(int[] batch, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (size == 0 || batch[0] > ordinals[size - 1]) {
+            if (size + count > ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, Math.max(size + count, size + (size >> 1) + 1));
+            }
+            System.arraycopy(batch, 0, ordinals, size, count);
+            size += count;
+            return;
+        }
+        int[] merged = new int[Math.max(size + count, ordinals.length)];
+        int mergedSize = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < count) {
+            int next;
+            if (j == count || i < size && ordinals[i] <= batch[j]) {
+                next = ordinals[i++];
+            } else {
+                next = batch[j++];
+            }
+            if (mergedSize == 0 || merged[mergedSize - 1] != next) {
+                merged[mergedSize++] = next;
+            }
+        }
+        ordinals = merged;
+        size = mergedSize;
+    }
+
+    synchronized void remove(int ordinal) {
+        int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (position >= 0) {
+            System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+            size--;
+        }
+    }
+
+    synchronized boolean contains(int ordinal) {
+        return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized int[] toArray() {
+        return Arrays.copyOf(ordinals, size);
+    }
+}
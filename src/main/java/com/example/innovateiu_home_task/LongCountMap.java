@@ -0,0 +1,80 @@
+package com.example.innovateiu_home_task;
+
+/**
+ * Open-addressing hash map from primitive long keys to primitive long
+ * counts, for aggregations that would otherwise box a key and a counter per
+ * increment. Not thread-safe; every aggregation uses its own map.
+ */
+class LongCountMap {
+
+    private long[] keys = new long[16];
+    private long[] counts = new long[16];
+    private boolean[] used = new boolean[16];
+    private int size;
+
+    void increment(long key, long delta) {
+        int slot = slotOf(key);
+        if (!used[slot]) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+                slot = slotOf(key);
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot] += delta;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Calls the consumer with every key and its count, in no particular order.
+     */
+    void forEach(LongLongConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                consumer.accept(keys[slot], counts[slot]);
+            }
+        }
+    }
+
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        boolean[] oldUsed = used;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldUsed[slot]) {
+                int newSlot = slotOf(oldKeys[slot]);
+                used[newSlot] = true;
+                keys[newSlot] = oldKeys[slot];
+                counts[newSlot] = oldCounts[slot];
+            }
+        }
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    interface LongLongConsumer {
+        void accept(long key, long count);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.innovateiu_home_task;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Open-addressing hash map from keys to primitive long counts: one array of
+ * keys and one of counts, so counting allocates nothing per increment. Not
+ * thread-safe; every aggregation uses its own map.
+ *
+ * @see LongCountMap
+ */
+class ObjectCountMap<K> {
+
+    private Object[] keys = new Object[16];
+    private long[] counts = new long[16];
+    private int size;
+
+    /**
+     * @param key - the key to count; never null.
+     */
+    void increment(K key, long delta) {
+        int slot = slotOf(key);
+        if (keys[slot] == null) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+                slot = slotOf(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot] += delta;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copies the counts into a map, boxing each count once.
+     */
+    @SuppressWarnings("unchecked")
+    Map<K, Long> toMap() {
+        Map<K, Long> map = new HashMap<>(size * 4 / 3 + 1);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null) {
+                map.put((K) keys[slot], counts[slot]);
+            }
+        }
+        return map;
+    }
+
+    private int slotOf(Object key) {
+        int mask = keys.length - 1;
+        int hash = key.hashCode() * 0x9E3779B9;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        Object[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new Object[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != null) {
+                int newSlot = slotOf(oldKeys[slot]);
+                keys[newSlot] = oldKeys[slot];
+                counts[newSlot] = oldCounts[slot];
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.innovateiu_home_task;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Append-only byte storage outside the Java heap, made of large segments
+ * that are either direct buffers or memory-mapped files. Written bytes are
+ * addressed by a long (segment index in the high half, offset in the low
+ * half) and can be read without locking.
+ * <p>
+ * Each segment counts its live bytes: bytes no longer referenced are
+ * {@link #release released}, and once a full segment holds only few live
+ * bytes, its owner copies them elsewhere and {@link #free frees} the
+ * segment. A reader holding an address of a freed segment fails, so owners
+ * must make sure no reader uses an address after moving its bytes.
+ */
+class OffHeapSegments {
+
+    static final int SEGMENT_SIZE = 64 << 20;
+
+    private final Path directory;
+    private final int segmentSize;
+    private volatile ByteBuffer[] segments = new ByteBuffer[0];
+    private long[] liveBytes = new long[0];
+    private ByteBuffer current;
+    private int currentOffset;
+    private long allocatedBytes;
+
+    /**
+     * @param directory - the directory for memory-mapped segment files, or
+     *                  null to allocate direct buffers.
+     */
+    OffHeapSegments(Path directory) {
+        this(directory, SEGMENT_SIZE);
+    }
+
+    OffHeapSegments(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Copies the bytes into the segments.
+     *
+     * @return the address of the copy.
+     */
+    synchronized long write(byte[] bytes) {
+        if (current == null || bytes.length > current.capacity() - currentOffset) {
+            current = allocate(Math.max(segmentSize, bytes.length));
+            currentOffset = 0;
+            ByteBuffer[] grown = Arrays.copyOf(segments, segments.length + 1);
+            grown[grown.length - 1] = current;
+            liveBytes = Arrays.copyOf(liveBytes, grown.length);
+            segments = grown;
+            allocatedBytes += current.capacity();
+        }
+        current.put(currentOffset, bytes);
+        long address = ((long) (segments.length - 1) << 32) | currentOffset;
+        currentOffset += bytes.length;
+        liveBytes[segments.length - 1] += bytes.length;
+        return address;
+    }
+
+    /**
+     * Marks bytes written earlier as no longer referenced.
+     */
+    synchronized void release(long address, int length) {
+        liveBytes[segmentOf(address)] -= length;
+    }
+
+    static int segmentOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    /**
+     * Finds the full segment with the smallest share of live bytes. The
+     * segment written to is never returned.
+     *
+     * @param maxLiveRatio - the share of live bytes above which a segment is
+     *                     not worth compacting.
+     * @return the segment index, or -1 if no segment is sparse enough.
+     */
+    synchronized int sparsestSegment(double maxLiveRatio) {
+        ByteBuffer[] table = segments;
+        int sparsest = -1;
+        double sparsestRatio = maxLiveRatio;
+        for (int i = 0; i < table.length - 1; i++) {
+            if (table[i] != null) {
+                double ratio = (double) liveBytes[i] / table[i].capacity();
+                if (ratio <= sparsestRatio) {
+                    sparsest = i;
+                    sparsestRatio = ratio;
+                }
+            }
+        }
+        return sparsest;
+    }
+
+    /**
+     * Drops a segment whose bytes have all been released. Its memory is
+     * returned once the last reader still holding it is done.
+     *
+     * @return whether the segment was freed.
+     */
+    synchronized boolean free(int segment) {
+        ByteBuffer[] table = segments;
+        if (table[segment] == null || table[segment] == current || liveBytes[segment] != 0) {
+            return false;
+        }
+        allocatedBytes -= table[segment].capacity();
+        ByteBuffer[] shrunk = table.clone();
+        shrunk[segment] = null;
+        segments = shrunk;
+        return true;
+    }
+
+    /**
+     * Copies bytes written earlier back onto the heap.
+     */
+    byte[] read(long address, int length) {
+        byte[] bytes = new byte[length];
+        segments[segmentOf(address)].get((int) address, bytes);
+        return bytes;
+    }
+
+    synchronized long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private ByteBuffer allocate(int size) {
+        if (directory == null) {
+            return ByteBuffer.allocateDirect(size);
+        }
+        try {
+            Files.createDirectories(directory);
+            Path file = Files.createTempFile(directory, "documents-", ".seg");
+            // the mapping stays valid after the channel is closed and the file is deleted
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map a document segment in " + directory, e);
+        }
+    }
+}
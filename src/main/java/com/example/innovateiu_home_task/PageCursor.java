@@ -0,0 +1,105 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Document;
+import com.example.innovateiu_home_task.DocumentManager.SortOrder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last document of a result page. It holds the sort key and
+ * the id of that document, so the next page continues strictly after it
+ * (keyset pagination) and stays stable while documents are added. Clients
+ * only see the encoded, opaque form.
+ *
+ * @param sort    - the sort order the cursor was created for.
+ * @param created - the creation time of the last document.
+ * @param title   - the title of the last document; can be null.
+ * @param id      - the id of the last document.
+ */
+record PageCursor(SortOrder sort, Instant created, String title, String id) {
+
+    static PageCursor of(SortOrder sort, Document document) {
+        return new PageCursor(sort, document.getCreated(), document.getTitle(), document.getId());
+    }
+
+    /**
+     * Turns the cursor back into a document holding just the sort keys, so it
+     * can be compared with the sort order comparator.
+     */
+    Document toDocument() {
+        return Document.builder().id(id).title(title).created(created).build();
+    }
+
+    String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(sort.ordinal());
+            out.writeLong(created.getEpochSecond());
+            out.writeInt(created.getNano());
+            out.writeBoolean(title != null);
+            if (title != null) {
+                writeString(out, title);
+            }
+            writeString(out, id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decodes a cursor returned with a previous page.
+     *
+     * @param cursor - the encoded cursor.
+     * @param sort   - the sort order of the page being requested.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the cursor is malformed or was
+     *                                  created for a different sort order.
+     */
+    static PageCursor decode(String cursor, SortOrder sort) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            SortOrder cursorSort = SortOrder.values()[in.readByte()];
+            Instant created = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            String title = in.readBoolean() ? readString(in) : null;
+            String id = readString(in);
+            if (cursorSort != sort) {
+                throw new IllegalArgumentException("Cursor was created for sort order " + cursorSort + ", not " + sort);
+            }
+            return new PageCursor(cursorSort, created, title, id);
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof IllegalArgumentException illegalArgument) {
+                throw illegalArgument;
+            }
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Writes a string as its length in bytes followed by its UTF-8 bytes.
+     * Unlike {@link DataOutputStream#writeUTF}, this has no 64 KB limit, so
+     * any title or id can be encoded.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates search predicates over large candidate sets on a dedicated
+ * {@link ForkJoinPool}. The candidates are split into contiguous segments,
+ * each segment is filtered by one worker, and the per-segment results are
+ * concatenated in segment order, so the result is identical to filtering the
+ * same candidates sequentially.
+ * <p>
+ * The pool belongs to the document manager and is never the common pool, so
+ * heavy scans cannot starve unrelated parallel streams of the application.
+ */
+class ParallelSearchExecutor {
+
+    /**
+     * Rough cost of checking the non-content criteria of one document, in the
+     * same unit as content characters scanned.
+     */
+    static final long BASE_COST_PER_DOCUMENT = 32;
+
+    private static final int MIN_SEGMENT_SIZE = 256;
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final long costThreshold;
+
+    ParallelSearchExecutor(int parallelism, long costThreshold) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.parallelism = parallelism;
+        this.costThreshold = costThreshold;
+    }
+
+    /**
+     * Decides whether a scan is expensive enough to pay for splitting it up.
+     *
+     * @param candidates      - the number of documents to check.
+     * @param costPerDocument - the estimated cost of checking one document.
+     * @return true if the scan should run in parallel.
+     */
+    boolean isWorthwhile(long candidates, long costPerDocument) {
+        return candidates >= 2L * MIN_SEGMENT_SIZE && candidates * costPerDocument >= costThreshold;
+    }
+
+    /**
+     * Returns the documents matching the predicate, in candidate order.
+     *
+     * @param candidates - the documents to check.
+     * @param predicate  - the predicate to apply; must be thread-safe.
+     * @return the matching documents.
+     */
+    List<Document> filter(Document[] candidates, Predicate<Document> predicate) {
+        int segmentSize = Math.max(MIN_SEGMENT_SIZE, candidates.length / (parallelism * 4));
+        return pool.invoke(new Segment(candidates, 0, candidates.length, segmentSize, predicate));
+    }
+
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private static class Segment extends RecursiveTask<List<Document>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Document[] candidates;
+        private final int from;
+        private final int to;
+        private final int segmentSize;
+        private final Predicate<Document> predicate;
+
+        Segment(Document[] candidates, int from, int to, int segmentSize, Predicate<Document> predicate) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.segmentSize = segmentSize;
+            this.predicate = predicate;
+        }
+
+        @Override
+        protected List<Document> compute() {
+            if (to - from <= segmentSize) {
+                List<Document> matches = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    if (predicate.test(candidates[i])) {
+                        matches.add(candidates[i]);
+                    }
+                }
+                return matches;
+            }
+            int middle = (from + to) >>> 1;
+            Segment left = new Segment(candidates, from, middle, segmentSize, predicate);
+            left.fork();
+            List<Document> right = new Segment(candidates, middle, to, segmentSize, predicate).compute();
+            List<Document> matches = left.join();
+            matches.addAll(right);
+            return matches;
+        }
+    }
+}
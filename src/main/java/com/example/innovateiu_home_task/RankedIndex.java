@@ -0,0 +1,469 @@
+package com.example.innovateiu_home_task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Inverted index of the terms of document titles and contents that ranks
+ * documents by BM25 relevance to a free-text query.
+ * <p>
+ * Texts are tokenized on save: they are folded like
+ * {@link DocumentManager.MatchMode#IGNORE_CASE_AND_ACCENTS} searches and split at every
+ * character that is neither a letter nor a digit. A title term counts
+ * {@link #TITLE_WEIGHT} times, so the title weighs more than the content
+ * without keeping separate field statistics. Every term has a posting list
+ * of the ordinals of the documents containing it with their term
+ * frequencies; document lengths are kept per ordinal.
+ * <p>
+ * {@link #top} evaluates a query document at a time with MaxScore: every
+ * term has an upper bound of the score it can add, and once the bounded
+ * heap of the best {@code k} documents is full, terms whose bounds cannot
+ * lift a document above the weakest of them together only get probed for
+ * documents found through the other terms. The bounds use the largest term
+ * frequency and the shortest document length a term was ever indexed with,
+ * which only loosen when documents change, so they stay valid without being
+ * recomputed.
+ * <p>
+ * {@link #update} and {@link #remove} must be called inside the storage
+ * compute of the document, like every other index.
+ */
+class RankedIndex {
+
+    static final int TITLE_WEIGHT = 2;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ConcurrentMap<String, TermPostings> postings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TermVector> vectorsById = new ConcurrentHashMap<>();
+    private final AtomicLong totalLength = new AtomicLong();
+    private volatile String[] idsByOrdinal = new String[1024];
+    private volatile int[] lengthsByOrdinal = new int[1024];
+    private int nextOrdinal;
+    // ordinals of removed documents, reused before new ordinals are handed out
+    private int[] freeOrdinals = new int[0];
+    private int freeCount;
+
+    /**
+     * Indexes the current title and content of a document, replacing the
+     * terms it was indexed with before. A document whose texts did not change
+     * keeps its postings.
+     *
+     * @param id      - the document id.
+     * @param title   - the title to index; can be null.
+     * @param content - the content to index; can be null.
+     */
+    void update(String id, String title, String content) {
+        TermVector previous = vectorsById.get(id);
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = tokenize(title, TITLE_WEIGHT, frequencies) + tokenize(content, 1, frequencies);
+        if (previous != null && previous.length() == length && previous.frequencies().equals(frequencies)) {
+            return;
+        }
+        int ordinal = assignOrdinal(id, length);
+        vectorsById.put(id, new TermVector(ordinal, length, frequencies));
+        totalLength.addAndGet(length - (previous == null ? 0 : previous.length()));
+        if (previous != null) {
+            for (String term : previous.frequencies().keySet()) {
+                if (!frequencies.containsKey(term)) {
+                    removePosting(term, previous.ordinal());
+                }
+            }
+        }
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new TermPostings()).put(ordinal, frequency, length));
+    }
+
+    /**
+     * Removes the postings of a document and frees its ordinal for reuse. A
+     * query that opened its cursors before the removal skips the ordinal
+     * once its table entry is cleared; if the ordinal is already reused, the
+     * new document is scored by its own terms, see {@link #top}.
+     *
+     * @param id - the document id.
+     */
+    void remove(String id) {
+        TermVector previous = vectorsById.remove(id);
+        if (previous == null) {
+            return;
+        }
+        totalLength.addAndGet(-previous.length());
+        for (String term : previous.frequencies().keySet()) {
+            removePosting(term, previous.ordinal());
+        }
+        releaseOrdinal(previous.ordinal());
+    }
+
+    private void removePosting(String term, int ordinal) {
+        TermPostings list = postings.get(term);
+        if (list != null) {
+            list.remove(ordinal);
+        }
+    }
+
+    /**
+     * Returns the {@code k} documents with the highest BM25 score for the
+     * query, best first. Only documents that contain at least one query term
+     * score. A document enters the result heap only if the resolver accepts
+     * it, which is asked only for documents whose score beats the current
+     * heap, so filters and lookups run for few documents. Such a document is
+     * scored again from the terms it is indexed with now, since its ordinal
+     * may have been reused since the postings were read.
+     *
+     * @param query    - the free-text query, tokenized like the documents.
+     * @param k        - the maximum number of results.
+     * @param resolver - turns the id of a scoring document into the result,
+     *                 or null to skip the document.
+     * @return the best results with their scores, best first.
+     */
+    <T> List<Hit<T>> top(String query, int k, Function<String, T> resolver) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(query).forEachRemaining(terms::add);
+        int documentCount = vectorsById.size();
+        if (terms.isEmpty() || documentCount == 0) {
+            return List.of();
+        }
+        double averageLength = Math.max(1.0, (double) totalLength.get() / documentCount);
+
+        List<TermCursor> cursorList = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            TermPostings list = postings.get(term);
+            TermCursor cursor = list == null ? null : list.cursor(term, documentCount, averageLength);
+            if (cursor != null) {
+                cursorList.add(cursor);
+            }
+        }
+        // read after the postings, so the tables already cover every ordinal found there
+        String[] ids = idsByOrdinal;
+        int[] lengths = lengthsByOrdinal;
+        TermCursor[] cursors = cursorList.toArray(TermCursor[]::new);
+        Arrays.sort(cursors, Comparator.comparingDouble(TermCursor::bound));
+        double[] boundSums = new double[cursors.length + 1];
+        for (int i = 0; i < cursors.length; i++) {
+            boundSums[i + 1] = boundSums[i] + cursors[i].bound();
+        }
+
+        PriorityQueue<Hit<T>> heap = new PriorityQueue<>(k, Comparator.comparingDouble(Hit::score));
+        double threshold = 0;
+        // cursors below this position are non-essential: together they cannot beat the threshold
+        int firstEssential = 0;
+        while (true) {
+            while (heap.size() == k && firstEssential < cursors.length && boundSums[firstEssential + 1] <= threshold) {
+                firstEssential++;
+            }
+            int ordinal = Integer.MAX_VALUE;
+            for (int i = firstEssential; i < cursors.length; i++) {
+                ordinal = Math.min(ordinal, cursors[i].current());
+            }
+            if (ordinal == Integer.MAX_VALUE) {
+                break;
+            }
+            int length = ordinal < lengths.length ? lengths[ordinal] : (int) averageLength;
+            double score = 0;
+            for (int i = firstEssential; i < cursors.length; i++) {
+                if (cursors[i].current() == ordinal) {
+                    score += cursors[i].score(length);
+                    cursors[i].next();
+                }
+            }
+            boolean competitive = true;
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (score + boundSums[i + 1] <= threshold) {
+                    competitive = false;
+                    break;
+                }
+                if (cursors[i].advance(ordinal)) {
+                    score += cursors[i].score(length);
+                }
+            }
+            if (!competitive || heap.size() == k && score <= threshold || ordinal >= ids.length) {
+                continue;
+            }
+            String id = ids[ordinal];
+            TermVector vector = id == null ? null : vectorsById.get(id);
+            // the document may have been removed or re-indexed under a new ordinal meanwhile
+            if (vector == null || vector.ordinal() != ordinal) {
+                continue;
+            }
+            // and the ordinal may belong to a document indexed after the postings were read
+            score = vector.score(cursors);
+            if (score == 0 || heap.size() == k && score <= threshold) {
+                continue;
+            }
+            T value = resolver.apply(id);
+            if (value == null) {
+                continue;
+            }
+            heap.add(new Hit<>(value, score));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+            if (heap.size() == k) {
+                threshold = heap.peek().score();
+            }
+        }
+        List<Hit<T>> hits = new ArrayList<>(heap);
+        hits.sort(Comparator.comparingDouble(Hit<T>::score).reversed());
+        return hits;
+    }
+
+    /**
+     * Returns the ordinal of the document, assigning a new one on its first
+     * index, and records its length.
+     */
+    private synchronized int assignOrdinal(String id, int length) {
+        TermVector vector = vectorsById.get(id);
+        int ordinal = vector != null ? vector.ordinal() : freeCount > 0 ? freeOrdinals[--freeCount] : nextOrdinal++;
+        String[] idTable = idsByOrdinal;
+        int[] lengthTable = lengthsByOrdinal;
+        if (ordinal == idTable.length) {
+            idTable = Arrays.copyOf(idTable, idTable.length * 2);
+            lengthTable = Arrays.copyOf(lengthTable, lengthTable.length * 2);
+        }
+        idTable[ordinal] = id;
+        lengthTable[ordinal] = length;
+        lengthsByOrdinal = lengthTable;
+        idsByOrdinal = idTable;
+        return ordinal;
+    }
+
+    private synchronized void releaseOrdinal(int ordinal) {
+        idsByOrdinal[ordinal] = null;
+        lengthsByOrdinal[ordinal] = 0;
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, Math.max(16, freeCount * 2));
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    /**
+     * Adds the weighted frequencies of the terms of a text.
+     *
+     * @return the weighted number of terms in the text.
+     */
+    private static int tokenize(String text, int weight, Map<String, Integer> frequencies) {
+        int count = 0;
+        for (TermIterator terms = tokenize(text); terms.hasNext(); ) {
+            frequencies.merge(terms.next(), weight, Integer::sum);
+            count += weight;
+        }
+        return count;
+    }
+
+    private static TermIterator tokenize(String text) {
+        return new TermIterator(TextFolding.fold(text));
+    }
+
+    /**
+     * Iterates the terms of a folded text: the maximal runs of letters and
+     * digits.
+     */
+    private static final class TermIterator implements Iterator<String> {
+
+        private final String text;
+        private int position;
+
+        private TermIterator(String text) {
+            this.text = text == null ? "" : text;
+            skipSeparators();
+        }
+
+        private void skipSeparators() {
+            while (position < text.length() && !Character.isLetterOrDigit(text.codePointAt(position))) {
+                position += Character.charCount(text.codePointAt(position));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < text.length();
+        }
+
+        @Override
+        public String next() {
+            int start = position;
+            while (position < text.length() && Character.isLetterOrDigit(text.codePointAt(position))) {
+                position += Character.charCount(text.codePointAt(position));
+            }
+            String term = text.substring(start, position);
+            skipSeparators();
+            return term;
+        }
+    }
+
+    /**
+     * The terms a document was last indexed with.
+     */
+    private record TermVector(int ordinal, int length, Map<String, Integer> frequencies) {
+
+        /**
+         * @return the score of the document for the terms of the cursors.
+         */
+        double score(TermCursor[] cursors) {
+            double score = 0;
+            for (TermCursor cursor : cursors) {
+                Integer frequency = frequencies.get(cursor.term);
+                if (frequency != null) {
+                    score += cursor.score(frequency, length);
+                }
+            }
+            return score;
+        }
+    }
+
+    /**
+     * A scored result of {@link #top}.
+     */
+    record Hit<T>(T value, double score) {
+    }
+
+    /**
+     * Sorted ordinals of the documents containing a term, with the term
+     * frequencies in a parallel array. All access is synchronized, like
+     * {@link IntPostingList}.
+     */
+    private static final class TermPostings {
+
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+        // whether a cursor reads the arrays, so the next change has to copy them first
+        private boolean shared;
+        // only ever loosened, so the score bound stays valid as documents change
+        private int maxFrequency;
+        private int minLength = Integer.MAX_VALUE;
+
+        synchronized void put(int ordinal, int frequency, int length) {
+            maxFrequency = Math.max(maxFrequency, frequency);
+            minLength = Math.min(minLength, length);
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position >= 0) {
+                unshare(ordinals.length);
+                frequencies[position] = frequency;
+                return;
+            }
+            int insertAt = -position - 1;
+            unshare(size == ordinals.length ? size + (size >> 1) + 1 : ordinals.length);
+            System.arraycopy(ordinals, insertAt, ordinals, insertAt + 1, size - insertAt);
+            System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+            ordinals[insertAt] = ordinal;
+            frequencies[insertAt] = frequency;
+            size++;
+        }
+
+        synchronized void remove(int ordinal) {
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position >= 0) {
+                unshare(ordinals.length);
+                System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+                System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+                size--;
+            }
+        }
+
+        /**
+         * Copies the arrays before a change if a cursor reads them, or grows
+         * them to the given capacity.
+         */
+        private void unshare(int capacity) {
+            if (shared || capacity != ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, capacity);
+                frequencies = Arrays.copyOf(frequencies, capacity);
+                shared = false;
+            }
+        }
+
+        /**
+         * Opens a cursor for one query over the current arrays, without
+         * copying them: the next change copies them instead, so a term
+         * queried more often than it changes is not copied per query.
+         *
+         * @return the cursor, or null if no document contains the term.
+         */
+        synchronized TermCursor cursor(String term, int documentCount, double averageLength) {
+            if (size == 0) {
+                return null;
+            }
+            shared = true;
+            double idf = Math.log(1 + (documentCount - size + 0.5) / (size + 0.5));
+            TermCursor cursor = new TermCursor(term, ordinals, frequencies, size, idf, averageLength);
+            cursor.bound = cursor.score(maxFrequency, minLength);
+            return cursor;
+        }
+    }
+
+    /**
+     * Position in the postings of one query term, as they were when the
+     * cursor was opened.
+     */
+    private static final class TermCursor {
+
+        private final String term;
+        private final int[] ordinals;
+        private final int[] frequencies;
+        private final int size;
+        private final double idf;
+        private final double averageLength;
+        private double bound;
+        private int position;
+
+        private TermCursor(String term, int[] ordinals, int[] frequencies, int size, double idf, double averageLength) {
+            this.term = term;
+            this.ordinals = ordinals;
+            this.frequencies = frequencies;
+            this.size = size;
+            this.idf = idf;
+            this.averageLength = averageLength;
+        }
+
+        double bound() {
+            return bound;
+        }
+
+        /**
+         * @return the current ordinal, or {@link Integer#MAX_VALUE} once exhausted.
+         */
+        int current() {
+            return position < size ? ordinals[position] : Integer.MAX_VALUE;
+        }
+
+        void next() {
+            position++;
+        }
+
+        /**
+         * Moves to the first ordinal not below the target.
+         *
+         * @return true if the cursor is on the target.
+         */
+        boolean advance(int target) {
+            if (current() < target) {
+                int found = Arrays.binarySearch(ordinals, position, size, target);
+                position = found >= 0 ? found : -found - 1;
+            }
+            return current() == target;
+        }
+
+        /**
+         * @return the score of the term in the document at the cursor.
+         */
+        double score(int length) {
+            return score(frequencies[position], length);
+        }
+
+        private double score(int frequency, int length) {
+            return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+        }
+    }
+}
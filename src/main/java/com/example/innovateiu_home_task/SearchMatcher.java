@@ -0,0 +1,153 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Document;
+import com.example.innovateiu_home_task.DocumentManager.MatchMode;
+import com.example.innovateiu_home_task.DocumentManager.SearchRequest;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link SearchRequest} compiled once per query into a matcher that checks
+ * a document without allocating: author ids become a hash set, title prefixes
+ * a trie and content keywords a single Aho-Corasick automaton. The criteria
+ * are checked cheapest first, so the content scan only runs for documents
+ * that passed everything else.
+ * <p>
+ * An empty or null list in the request means the criterion is not set and
+ * every document passes it, like a null range boundary does.
+ * <p>
+ * With {@link MatchMode#IGNORE_CASE_AND_ACCENTS}, prefixes and keywords are
+ * folded once here and compared with the folded title and content of each
+ * document, which come from a {@link FoldedTexts} source.
+ */
+class SearchMatcher {
+
+    /**
+     * Source of the folded title and content of a document.
+     */
+    interface FoldedTexts {
+
+        String title(Document document);
+
+        String content(Document document);
+    }
+
+    /**
+     * Folds the texts of every document it is asked for, for when no folded
+     * forms are kept.
+     */
+    static final FoldedTexts FOLD_ON_THE_FLY = new FoldedTexts() {
+        @Override
+        public String title(Document document) {
+            return TextFolding.fold(document.getTitle());
+        }
+
+        @Override
+        public String content(Document document) {
+            return TextFolding.fold(document.getContent());
+        }
+    };
+
+    private final Instant createdFrom;
+    private final Instant createdTo;
+    private final Set<String> authorIds;
+    private final CharTrie titlePrefixes;
+    private final CharTrie contentKeywords;
+    private final boolean folded;
+    private final FoldedTexts foldedTexts;
+
+    SearchMatcher(SearchRequest request) {
+        this(request, FOLD_ON_THE_FLY);
+    }
+
+    /**
+     * @param request     - the search request to compile.
+     * @param foldedTexts - where folded texts come from if the request ignores case and accents.
+     */
+    SearchMatcher(SearchRequest request, FoldedTexts foldedTexts) {
+        this.folded = request.getMatchMode() == MatchMode.IGNORE_CASE_AND_ACCENTS;
+        this.createdFrom = request.getCreatedFrom();
+        this.createdTo = request.getCreatedTo();
+        this.authorIds = isSet(request.getAuthorIds()) ? new HashSet<>(request.getAuthorIds()) : null;
+        this.titlePrefixes = isSet(request.getTitlePrefixes()) ? CharTrie.of(fold(request.getTitlePrefixes(), folded)) : null;
+        this.contentKeywords = isSet(request.getContainsContents()) ? CharTrie.of(fold(request.getContainsContents(), folded)) : null;
+        this.foldedTexts = foldedTexts;
+    }
+
+    private static List<String> fold(List<String> texts, boolean folded) {
+        return folded ? texts.stream().map(TextFolding::fold).collect(Collectors.toList()) : texts;
+    }
+
+    private static boolean isSet(List<String> criterion) {
+        return criterion != null && !criterion.isEmpty();
+    }
+
+    /**
+     * Checks a document against every criterion of the compiled request.
+     *
+     * @param document - the document to check.
+     * @return true if the document matches all criteria that are set.
+     */
+    boolean matches(Document document) {
+        return matches(document, foldedTexts);
+    }
+
+    /**
+     * Checks a document against every criterion of the compiled request,
+     * taking folded texts from the given source instead of the one the
+     * matcher was compiled with. Used for documents of an older snapshot,
+     * whose folded texts may differ from the latest ones.
+     */
+    boolean matches(Document document, FoldedTexts texts) {
+        return isWithinCreateRange(document)
+                && matchesAuthorIds(document)
+                && matchesTitlePrefixes(document, texts)
+                && containsContents(document, texts);
+    }
+
+    /**
+     * Checks if a document's creation date is not before createdFrom and not
+     * after createdTo; a null boundary is ignored.
+     */
+    private boolean isWithinCreateRange(Document document) {
+        Instant created = document.getCreated();
+        return (createdFrom == null || !created.isBefore(createdFrom)) &&
+                (createdTo == null || !created.isAfter(createdTo));
+    }
+
+    /**
+     * Checks if a document's author ID is one of the requested author IDs.
+     * A document without an author matches only if no author IDs are requested.
+     */
+    private boolean matchesAuthorIds(Document document) {
+        return authorIds == null || document.getAuthor() != null && authorIds.contains(document.getAuthor().getId());
+    }
+
+    /**
+     * Checks if a document's title starts with any of the requested prefixes.
+     * A document without a title matches only if no prefixes are requested.
+     */
+    private boolean matchesTitlePrefixes(Document document, FoldedTexts texts) {
+        if (titlePrefixes == null) {
+            return true;
+        }
+        String title = folded ? texts.title(document) : document.getTitle();
+        return title != null && titlePrefixes.matchesPrefixOf(title);
+    }
+
+    /**
+     * Checks if a document's content contains any of the requested keywords.
+     * A document without content matches only if no keywords are requested.
+     */
+    private boolean containsContents(Document document, FoldedTexts texts) {
+        if (contentKeywords == null) {
+            return true;
+        }
+        String content = folded ? texts.content(document) : document.getContent();
+        return content != null && contentKeywords.occursIn(content);
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Document;
+import com.example.innovateiu_home_task.DocumentManager.MatchMode;
+import com.example.innovateiu_home_task.DocumentManager.SearchRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of search results keyed by {@link SearchRequest}.
+ * <p>
+ * A save only drops the entries it can affect: those whose result contains
+ * the saved document (the old version matched) and those whose request
+ * matches the new version. Searches still running while a document is saved
+ * are tracked as loads, and a load is not cached if the save could have
+ * changed its result, so a search that read the old version never leaves a
+ * stale entry behind.
+ * <p>
+ * To find those entries without checking every one, entries are indexed by
+ * the ids in their results and by their most selective criterion: their
+ * author ids, or else the first characters of their exact title prefixes. A
+ * save only checks the entries filed under the saved document's id, author
+ * id and title start, plus the entries that have neither criterion.
+ * <p>
+ * The cache holds at most a configured number of result documents in total;
+ * when it is full, the least recently used entries are evicted. Entries also
+ * expire after an optional time to live. The entries and their indexes are
+ * guarded by the cache's monitor; matching documents against entries runs
+ * outside of it.
+ */
+class SearchResultCache {
+
+    // in access order, so the eldest entry is the least recently used one
+    private final LinkedHashMap<SearchRequest, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<Entry>> entriesByDocumentId = new HashMap<>();
+    private final Map<String, Set<Entry>> entriesByAuthorId = new HashMap<>();
+    private final Map<Character, Set<Entry>> entriesByTitleStart = new HashMap<>();
+    private final Set<Entry> unindexedEntries = new HashSet<>();
+    private final Set<Load> loads = ConcurrentHashMap.newKeySet();
+    private long cachedDocuments;
+    private final long maxDocuments;
+    private final long ttlNanos;
+
+    /**
+     * @param maxDocuments - the maximum number of result documents held over all entries.
+     * @param ttl          - how long an entry stays valid, or null to keep entries until invalidated.
+     */
+    SearchResultCache(long maxDocuments, Duration ttl) {
+        this.maxDocuments = maxDocuments;
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+    }
+
+    /**
+     * @return the cached result, or null if the request is not cached or its
+     * entry has expired. The list must not be modified.
+     */
+    synchronized List<Document> get(SearchRequest request) {
+        Entry entry = entries.get(request);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            remove(entry);
+            return null;
+        }
+        return entry.documents;
+    }
+
+    /**
+     * Registers a search that is about to read the storage. Must be called
+     * before the search reads anything, and followed by {@link #put} or
+     * {@link #abandon}.
+     */
+    Load startLoad(SearchMatcher matcher) {
+        Load load = new Load(matcher);
+        loads.add(load);
+        return load;
+    }
+
+    /**
+     * Caches the result of a finished load, unless a save during the load
+     * could have changed it or the result alone exceeds the memory bound.
+     *
+     * @param request   - the cache key; must not be modified afterwards.
+     * @param documents - the result; must not be modified afterwards.
+     */
+    void put(SearchRequest request, Load load, List<Document> documents) {
+        try {
+            if (load.stale || documents.size() > maxDocuments) {
+                return;
+            }
+            Entry entry = new Entry(request, load.matcher, documents, System.nanoTime());
+            add(entry);
+            // a save either marks the still registered load, which is checked
+            // here, or checks the entries after this one was added
+            if (load.stale || load.changedIds.stream().anyMatch(entry.ids::contains)) {
+                synchronized (this) {
+                    remove(entry);
+                }
+            }
+        } finally {
+            loads.remove(load);
+        }
+    }
+
+    void abandon(Load load) {
+        loads.remove(load);
+    }
+
+    /**
+     * Drops the entries that a save of the document can affect. Must be
+     * called after the saved version is visible to searches.
+     *
+     * @param document - the saved version of the document.
+     */
+    void invalidate(Document document) {
+        for (Load load : loads) {
+            if (load.matcher.matches(document)) {
+                load.stale = true;
+            } else {
+                load.changedIds.add(document.getId());
+            }
+        }
+        List<Entry> containing;
+        List<Entry> candidates = new ArrayList<>();
+        synchronized (this) {
+            containing = new ArrayList<>(entriesByDocumentId.getOrDefault(document.getId(), Set.of()));
+            candidates.addAll(unindexedEntries);
+            if (document.getAuthor() != null) {
+                candidates.addAll(entriesByAuthorId.getOrDefault(document.getAuthor().getId(), Set.of()));
+            }
+            if (document.getTitle() != null && !document.getTitle().isEmpty()) {
+                candidates.addAll(entriesByTitleStart.getOrDefault(document.getTitle().charAt(0), Set.of()));
+            }
+        }
+        long now = System.nanoTime();
+        List<Entry> affected = new ArrayList<>(containing);
+        for (Entry entry : candidates) {
+            if (entry.isExpired(now) || entry.matcher.matches(document)) {
+                affected.add(entry);
+            }
+        }
+        if (!affected.isEmpty()) {
+            synchronized (this) {
+                affected.forEach(this::remove);
+            }
+        }
+    }
+
+    /**
+     * Tells a load about a write it did not see, e.g. a write after the
+     * snapshot the load reads. The load is not cached if the write could
+     * have changed its result.
+     *
+     * @param id     - the id of the written document.
+     * @param latest - the latest version of the document, or null if there is none.
+     */
+    void invalidate(Load load, String id, Document latest) {
+        if (latest != null && load.matcher.matches(latest)) {
+            load.stale = true;
+        } else {
+            load.changedIds.add(id);
+        }
+    }
+
+    /**
+     * Adds an entry, replacing the entry of the same request, and evicts the
+     * least recently used entries while the cache holds too many documents.
+     */
+    private synchronized void add(Entry entry) {
+        Entry previous = entries.get(entry.request);
+        if (previous != null) {
+            remove(previous);
+        }
+        entries.put(entry.request, entry);
+        cachedDocuments += entry.documents.size();
+        for (String id : entry.ids) {
+            entriesByDocumentId.computeIfAbsent(id, key -> new HashSet<>()).add(entry);
+        }
+        if (entry.authorIds != null) {
+            entry.authorIds.forEach(authorId -> entriesByAuthorId.computeIfAbsent(authorId, key -> new HashSet<>()).add(entry));
+        } else if (entry.titleStarts != null) {
+            entry.titleStarts.forEach(start -> entriesByTitleStart.computeIfAbsent(start, key -> new HashSet<>()).add(entry));
+        } else {
+            unindexedEntries.add(entry);
+        }
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (cachedDocuments > maxDocuments && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            forget(evicted);
+        }
+    }
+
+    /**
+     * Removes an entry, unless it was already replaced or removed. Must hold
+     * the cache's monitor.
+     */
+    private void remove(Entry entry) {
+        if (entries.remove(entry.request, entry)) {
+            forget(entry);
+        }
+    }
+
+    /**
+     * Drops an entry that left the entry map from the indexes.
+     */
+    private void forget(Entry entry) {
+        cachedDocuments -= entry.documents.size();
+        for (String id : entry.ids) {
+            removeFrom(entriesByDocumentId, id, entry);
+        }
+        if (entry.authorIds != null) {
+            entry.authorIds.forEach(authorId -> removeFrom(entriesByAuthorId, authorId, entry));
+        } else if (entry.titleStarts != null) {
+            entry.titleStarts.forEach(start -> removeFrom(entriesByTitleStart, start, entry));
+        } else {
+            unindexedEntries.remove(entry);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Entry>> index, K key, Entry entry) {
+        Set<Entry> filed = index.get(key);
+        if (filed != null && filed.remove(entry) && filed.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * A search in progress. A save of a document that the search's request
+     * matches makes the load stale; any other saved ID is recorded, since the
+     * search may have seen an old version of it that matched.
+     */
+    static final class Load {
+
+        private final SearchMatcher matcher;
+        private final Set<String> changedIds = ConcurrentHashMap.newKeySet();
+        private volatile boolean stale;
+
+        private Load(SearchMatcher matcher) {
+            this.matcher = matcher;
+        }
+    }
+
+    private final class Entry {
+
+        private final SearchRequest request;
+        private final SearchMatcher matcher;
+        private final List<Document> documents;
+        private final Set<String> ids;
+        // the index keys; at most one of them is set
+        private final Set<String> authorIds;
+        private final Set<Character> titleStarts;
+        private final long createdNanos;
+
+        private Entry(SearchRequest request, SearchMatcher matcher, List<Document> documents, long createdNanos) {
+            this.request = request;
+            this.matcher = matcher;
+            this.documents = documents;
+            this.ids = new HashSet<>(documents.size() * 2);
+            documents.forEach(document -> ids.add(document.getId()));
+            this.authorIds = isSet(request.getAuthorIds()) ? new HashSet<>(request.getAuthorIds()) : null;
+            this.titleStarts = authorIds == null ? titleStarts(request) : null;
+            this.createdNanos = createdNanos;
+        }
+
+        /**
+         * Returns the first characters of the title prefixes, or null if
+         * titles are compared folded, or if a prefix is empty and so matches
+         * every title.
+         */
+        private static Set<Character> titleStarts(SearchRequest request) {
+            if (!isSet(request.getTitlePrefixes()) || request.getMatchMode() == MatchMode.IGNORE_CASE_AND_ACCENTS) {
+                return null;
+            }
+            Set<Character> starts = new HashSet<>();
+            for (String prefix : request.getTitlePrefixes()) {
+                if (prefix.isEmpty()) {
+                    return null;
+                }
+                starts.add(prefix.charAt(0));
+            }
+            return starts;
+        }
+
+        private static boolean isSet(List<String> criterion) {
+            return criterion != null && !criterion.isEmpty();
+        }
+
+        private boolean isExpired(long now) {
+            return ttlNanos > 0 && now - createdNanos >= ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Document;
+import com.example.innovateiu_home_task.DocumentManager.Options;
+import com.example.innovateiu_home_task.DocumentManager.PageRequest;
+import com.example.innovateiu_home_task.DocumentManager.SearchPage;
+import com.example.innovateiu_home_task.DocumentManager.SearchRequest;
+import com.example.innovateiu_home_task.DocumentManager.SortOrder;
+import io.micrometer.core.instrument.Tags;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+/**
+ * Partitions documents over independent {@link DocumentShard}s, each with
+ * its own storage and indexes. Saves and lookups go to the one shard that
+ * owns the document ID; searches are scattered to all shards in parallel and
+ * their results gathered, with pages merged in sort order.
+ * <p>
+ * IDs are assigned to shards with jump consistent hashing: when the shard
+ * count grows, an ID either stays on its shard or moves to one of the new
+ * shards, and the new shards take over an even share of the IDs.
+ */
+public class ShardedDocumentManager implements AutoCloseable {
+
+    private final IntFunction<? extends DocumentShard> shardFactory;
+    private final IdGenerator idGenerator;
+    private final ForkJoinPool scatterPool;
+    // searches and saves share the lock, resizing takes it exclusively
+    private final ReadWriteLock resizeLock = new ReentrantReadWriteLock();
+    private volatile List<DocumentShard> shards;
+
+    /**
+     * Creates in-process shards, each a {@link DocumentManager} with the
+     * given options. IDs are generated with the ID generator of the options,
+     * and the meters of each shard are tagged with its index as
+     * {@code shard}.
+     *
+     * @param shardCount - the initial number of shards.
+     * @param options    - the options of every shard.
+     * @throws IllegalArgumentException if persistence is enabled, since all
+     *                                  shards would share one directory; use
+     *                                  a shard factory instead.
+     */
+    public ShardedDocumentManager(int shardCount, Options options) {
+        this(shardCount, localShards(options),
+                options.getIdGenerator() != null ? options.getIdGenerator() : IdGenerator.randomUuid());
+    }
+
+    private static IntFunction<DocumentManager> localShards(Options options) {
+        if (options.getPersistenceDirectory() != null) {
+            throw new IllegalArgumentException("Shards cannot share a persistence directory, use a shard factory");
+        }
+        if (options.getMeterRegistry() == null) {
+            return shard -> new DocumentManager(options);
+        }
+        return shard -> new DocumentManager(options.toBuilder()
+                .meterTags(Tags.concat(options.getMeterTags(), "shard", String.valueOf(shard)))
+                .build());
+    }
+
+    /**
+     * @param shardCount   - the initial number of shards.
+     * @param shardFactory - creates or connects to the shard with the given
+     *                     index. Called again for every index a {@link #resize}
+     *                     adds.
+     */
+    public ShardedDocumentManager(int shardCount, IntFunction<? extends DocumentShard> shardFactory) {
+        this(shardCount, shardFactory, IdGenerator.randomUuid());
+    }
+
+    /**
+     * @param shardCount   - the initial number of shards.
+     * @param shardFactory - creates or connects to the shard with the given
+     *                     index. Called again for every index a {@link #resize}
+     *                     adds.
+     * @param idGenerator  - generates the IDs of documents saved without one.
+     */
+    public ShardedDocumentManager(int shardCount, IntFunction<? extends DocumentShard> shardFactory, IdGenerator idGenerator) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.shardFactory = shardFactory;
+        this.idGenerator = idGenerator;
+        this.scatterPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        this.shards = createShards(shardCount);
+    }
+
+    private List<DocumentShard> createShards(int shardCount) {
+        return createShards(0, shardCount);
+    }
+
+    private List<DocumentShard> createShards(int from, int to) {
+        List<DocumentShard> created = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            created.add(shardFactory.apply(i));
+        }
+        return List.copyOf(created);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Saves the document on the shard that owns its ID, see
+     * {@link DocumentManager#save}. A document without an ID gets a fresh
+     * ID here, so that it can be routed; unless the ID generator is
+     * collision-free, the owning shard is asked first whether the ID is
+     * taken.
+     */
+    public Document save(Document document) {
+        resizeLock.readLock().lock();
+        try {
+            if (StringUtils.isEmpty(document.getId())) {
+                assignId(document);
+            }
+            return shardOf(document.getId()).save(document);
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+    }
+
+    private void assignId(Document document) {
+        //Handling duplicate ID generation
+        do {
+            document.setId(idGenerator.nextId());
+        } while (!idGenerator.isCollisionFree() && shardOf(document.getId()).findById(document.getId()).isPresent());
+    }
+
+    /**
+     * Saves a batch of documents, one {@link DocumentShard#saveAll} call per
+     * shard, all shards in parallel.
+     *
+     * @return the saved documents, in the given order, in a list the caller
+     * may modify, like {@link DocumentManager#saveAll}.
+     */
+    public List<Document> saveAll(Collection<Document> documents) {
+        resizeLock.readLock().lock();
+        try {
+            List<DocumentShard> shards = this.shards;
+            List<List<Document>> batches = new ArrayList<>(shards.size());
+            List<List<Integer>> positions = new ArrayList<>(shards.size());
+            for (int i = 0; i < shards.size(); i++) {
+                batches.add(new ArrayList<>());
+                positions.add(new ArrayList<>());
+            }
+            int position = 0;
+            for (Document document : documents) {
+                if (StringUtils.isEmpty(document.getId())) {
+                    assignId(document);
+                }
+                int shard = shardIndex(document.getId(), shards.size());
+                batches.get(shard).add(document);
+                positions.get(shard).add(position++);
+            }
+
+            List<List<Document>> saved = scatter(shards, (shard, index) -> batches.get(index).isEmpty()
+                    ? List.of()
+                    : shard.saveAll(batches.get(index)));
+            Document[] results = new Document[position];
+            for (int i = 0; i < saved.size(); i++) {
+                for (int j = 0; j < saved.get(i).size(); j++) {
+                    results[positions.get(i).get(j)] = saved.get(i).get(j);
+                }
+            }
+            return new ArrayList<>(Arrays.asList(results));
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes the document from the shard that owns its ID, see
+     * {@link DocumentManager#deleteById}.
+     */
+    public boolean deleteById(String id) {
+        if (id == null) {
+            return false;
+        }
+        resizeLock.readLock().lock();
+        try {
+            return shardOf(id).deleteById(id);
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+    }
+
+    public Optional<Document> findById(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        resizeLock.readLock().lock();
+        try {
+            return shardOf(id).findById(id);
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches all shards in parallel, see {@link DocumentManager#search(SearchRequest)}.
+     *
+     * @return the matching documents of all shards, shard by shard.
+     */
+    public List<Document> search(SearchRequest request) {
+        resizeLock.readLock().lock();
+        try {
+            List<Document> results = new ArrayList<>();
+            scatter(shards, (shard, index) -> shard.search(request)).forEach(results::addAll);
+            return results;
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of the matching documents of all shards, see
+     * {@link DocumentManager#search(SearchRequest, PageRequest)}. Every shard
+     * returns its own page after the cursor, which holds a position in the
+     * global sort order; the pages are merged and cut at the limit.
+     */
+    public SearchPage search(SearchRequest request, PageRequest page) {
+        if (page.getLimit() <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive: " + page.getLimit());
+        }
+        SortOrder sort = page.getSort() != null ? page.getSort() : SortOrder.CREATED_ASC;
+        resizeLock.readLock().lock();
+        List<SearchPage> pages;
+        try {
+            pages = scatter(shards, (shard, index) -> shard.search(request, page));
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+        return merge(pages, sort.comparator(), page.getLimit(), sort);
+    }
+
+    /**
+     * Merges sorted shard pages: a heap holds the next document of every
+     * page, so only {@code limit} documents are taken in total.
+     */
+    private static SearchPage merge(List<SearchPage> pages, Comparator<Document> comparator, int limit, SortOrder sort) {
+        PriorityQueue<PageHead> heads = new PriorityQueue<>((a, b) -> comparator.compare(a.document(), b.document()));
+        boolean more = false;
+        for (SearchPage page : pages) {
+            if (!page.getDocuments().isEmpty()) {
+                heads.add(new PageHead(page.getDocuments(), 0));
+            }
+            more |= page.getNextCursor() != null;
+        }
+        List<Document> documents = new ArrayList<>(limit);
+        while (documents.size() < limit && !heads.isEmpty()) {
+            PageHead head = heads.poll();
+            documents.add(head.document());
+            if (head.position() + 1 < head.documents().size()) {
+                heads.add(new PageHead(head.documents(), head.position() + 1));
+            }
+        }
+        more |= !heads.isEmpty();
+        String nextCursor = more && !documents.isEmpty()
+                ? PageCursor.of(sort, documents.get(documents.size() - 1)).encode()
+                : null;
+        return new SearchPage(documents, nextCursor);
+    }
+
+    private record PageHead(List<Document> documents, int position) {
+
+        Document document() {
+            return documents.get(position);
+        }
+    }
+
+    /**
+     * Changes the number of shards and moves the documents whose owner
+     * changes under the new count. Saves and searches wait until the move is
+     * complete.
+     * <p>
+     * With jump consistent hashing only a minimal share of the documents
+     * moves: growing from n to m shards moves about (m - n) / m of the
+     * documents, each from its old shard to one of the new shards; shrinking
+     * moves only the documents of the removed shards, which are emptied and
+     * closed afterwards. The remaining shards are kept as they are.
+     * <p>
+     * Every moved document is saved with its new owner before any document
+     * is deleted from its old shard. If a save fails, the copies are deleted
+     * again, the added shards are closed and the shard count is unchanged. If
+     * a delete fails, the new shard count is in effect and every document is
+     * found by ID, but the documents not yet deleted also stay in their old
+     * shard, where searches of a kept shard still see them.
+     *
+     * @param shardCount - the new number of shards.
+     */
+    public void resize(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        resizeLock.writeLock().lock();
+        try {
+            List<DocumentShard> oldShards = shards;
+            if (shardCount == oldShards.size()) {
+                return;
+            }
+            List<DocumentShard> addedShards = shardCount > oldShards.size()
+                    ? createShards(oldShards.size(), shardCount)
+                    : List.of();
+            List<DocumentShard> newShards = new ArrayList<>(oldShards.subList(0, Math.min(shardCount, oldShards.size())));
+            newShards.addAll(addedShards);
+            Queue<Copy> copies = new ConcurrentLinkedQueue<>();
+            List<List<String>> moved;
+            try {
+                moved = scatter(oldShards, (shard, index) -> {
+                    List<List<Document>> batches = new ArrayList<>(shardCount);
+                    for (int i = 0; i < shardCount; i++) {
+                        batches.add(new ArrayList<>());
+                    }
+                    for (Document document : shard.search(null)) {
+                        int owner = shardIndex(document.getId(), shardCount);
+                        if (owner != index) {
+                            batches.get(owner).add(document);
+                        }
+                    }
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < shardCount; i++) {
+                        if (batches.get(i).isEmpty()) {
+                            continue;
+                        }
+                        List<String> batchIds = batches.get(i).stream().map(Document::getId).toList();
+                        newShards.get(i).saveAll(batches.get(i));
+                        copies.add(new Copy(newShards.get(i), batchIds));
+                        ids.addAll(batchIds);
+                    }
+                    return ids;
+                });
+            } catch (RuntimeException e) {
+                // nothing has been deleted yet: drop the copies that landed in kept shards and the added shards
+                for (Copy copy : copies) {
+                    if (!addedShards.contains(copy.target())) {
+                        try {
+                            copy.ids().forEach(copy.target()::deleteById);
+                        } catch (RuntimeException suppressed) {
+                            e.addSuppressed(suppressed);
+                        }
+                    }
+                }
+                addedShards.forEach(DocumentShard::close);
+                throw e;
+            }
+            try {
+                scatter(oldShards, (shard, index) -> {
+                    moved.get(index).forEach(shard::deleteById);
+                    return null;
+                });
+            } finally {
+                // every document is saved with its new owner, so the new layout holds even if a delete failed
+                shards = List.copyOf(newShards);
+                if (shardCount < oldShards.size()) {
+                    oldShards.subList(shardCount, oldShards.size()).forEach(DocumentShard::close);
+                }
+            }
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a call on every shard, all but the last on the scatter pool and
+     * the last on the calling thread. A failure is reported only once every
+     * call has finished.
+     *
+     * @return the results, in shard order.
+     */
+    private <T> List<T> scatter(List<DocumentShard> shards, ShardCall<T> call) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size() - 1; i++) {
+            int index = i;
+            futures.add(CompletableFuture.supplyAsync(() -> call.apply(shards.get(index), index), scatterPool));
+        }
+        int last = shards.size() - 1;
+        try {
+            futures.add(CompletableFuture.completedFuture(call.apply(shards.get(last), last)));
+        } catch (RuntimeException e) {
+            futures.add(CompletableFuture.failedFuture(e));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Copy(DocumentShard target, List<String> ids) {
+    }
+
+    private interface ShardCall<T> {
+        T apply(DocumentShard shard, int index);
+    }
+
+    private DocumentShard shardOf(String id) {
+        List<DocumentShard> shards = this.shards;
+        return shards.get(shardIndex(id, shards.size()));
+    }
+
+    /**
+     * Jump consistent hash (Lamping and Veach) of the ID: when the shard
+     * count grows, an ID either keeps its shard or moves to one of the new
+     * shards.
+     */
+    static int shardIndex(String id, int shardCount) {
+        long key = hash(id);
+        long shard = -1;
+        long next = 0;
+        while (next < shardCount) {
+            shard = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((shard + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) shard;
+    }
+
+    /**
+     * A 64-bit hash of the ID with the finalizer of MurmurHash3, so that
+     * similar IDs still spread evenly.
+     */
+    private static long hash(String id) {
+        long hash = 1125899906842597L;
+        for (int i = 0; i < id.length(); i++) {
+            hash = 31 * hash + id.charAt(i);
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Closes every shard and the scatter pool.
+     */
+    @Override
+    public void close() {
+        resizeLock.writeLock().lock();
+        try {
+            shards.forEach(DocumentShard::close);
+            scatterPool.shutdown();
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+}
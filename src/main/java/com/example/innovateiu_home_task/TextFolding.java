@@ -0,0 +1,61 @@
+package com.example.innovateiu_home_task;
+
+import java.text.Normalizer;
+
+/**
+ * Folds text for case and accent insensitive matching: accents and other
+ * combining marks are removed after canonical decomposition, and every code
+ * point is lower-cased on its own.
+ * <p>
+ * Folding works code point by code point, so the folded form of a substring
+ * is always a substring of the folded text. That is what lets folded
+ * keywords be looked up in a folded trigram index, and folded prefixes in an
+ * index of folded titles.
+ */
+final class TextFolding {
+
+    private TextFolding() {
+    }
+
+    /**
+     * @param text - the text to fold; can be null.
+     * @return the folded text, the same instance if folding changes nothing,
+     * or null if the text is null.
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return null;
+        }
+        boolean ascii = true;
+        boolean folded = true;
+        for (int i = 0; i < text.length() && ascii; i++) {
+            char c = text.charAt(i);
+            ascii = c < 0x80;
+            folded &= c < 'A' || c > 'Z';
+        }
+        if (ascii) {
+            return folded ? text : asciiLowerCase(text);
+        }
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); ) {
+            int codePoint = decomposed.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.getType(codePoint) != Character.NON_SPACING_MARK) {
+                result.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint)));
+            }
+        }
+        return result.toString();
+    }
+
+    private static String asciiLowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] += 'a' - 'A';
+            }
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.innovateiu_home_task;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Sorted index of document titles used to answer title prefix queries.
+ * Entries are (title, id) pairs kept in a skip list, so all titles starting
+ * with a prefix form one contiguous range and a prefix lookup costs
+ * O(log N + matches) instead of a scan over every document.
+ */
+class TitleIndex {
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+    /**
+     * Moves a document from its previously indexed title to its new one.
+     * Either title can be null, in which case that side is skipped.
+     *
+     * @param id       - the document id.
+     * @param oldTitle - the title the document was indexed under; can be null.
+     * @param newTitle - the title to index the document under; can be null.
+     */
+    void update(String id, String oldTitle, String newTitle) {
+        if (oldTitle != null && !oldTitle.equals(newTitle)) {
+            entries.remove(new Entry(oldTitle, id));
+        }
+        if (newTitle != null) {
+            entries.add(new Entry(newTitle, id));
+        }
+    }
+
+    /**
+     * Finds the ids of all documents whose title starts with any of the given
+     * prefixes. Each prefix is answered by a range scan starting at the prefix
+     * itself and stopping at the first title that no longer matches. The scan
+     * gives up as soon as more than {@code limit} documents have been found.
+     *
+     * @param prefixes - the title prefixes to look up.
+     * @param limit    - the maximum number of ids worth collecting.
+     * @return the ids of the matching documents, in title order per prefix,
+     * or null if there are more than {@code limit} of them.
+     */
+    Set<String> findByPrefixes(Collection<String> prefixes, long limit) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String prefix : prefixes) {
+            for (Entry entry : entries.tailSet(new Entry(prefix, ""))) {
+                if (!entry.title().startsWith(prefix)) {
+                    break;
+                }
+                if (ids.add(entry.id()) && ids.size() > limit) {
+                    return null;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private record Entry(String title, String id) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            int byTitle = title.compareTo(other.title);
+            return byTitle != 0 ? byTitle : id.compareTo(other.id);
+        }
+    }
+}
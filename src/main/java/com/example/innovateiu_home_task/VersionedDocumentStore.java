@@ -0,0 +1,333 @@
+package com.example.innovateiu_home_task;
+
+import com.example.innovateiu_home_task.DocumentManager.Author;
+import com.example.innovateiu_home_task.DocumentManager.Document;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Multi-version storage backend. Every write publishes a new immutable
+ * version of the document, a private copy stamped with a global version
+ * number and linked to the version it replaces. Readers get copies, so
+ * neither writers nor readers can change a published version.
+ * <p>
+ * Removing a document publishes a tombstone, a version without a document,
+ * which is dropped with the versions before it once no snapshot can see them.
+ * <p>
+ * A {@link #snapshot()} reads every document as of the newest version up to
+ * which all writes have completed (the committed watermark), without
+ * blocking writers. Versions older than that are only kept while an open
+ * snapshot may still need them: whenever the oldest open snapshot moves on,
+ * older versions are unlinked from their chains and left to the garbage
+ * collector.
+ */
+class VersionedDocumentStore implements DocumentStore {
+
+    private final ConcurrentMap<String, Version> heads = new ConcurrentHashMap<>();
+    // the version and id of every write that an open snapshot may not see yet
+    private final ConcurrentSkipListMap<Long, String> changes = new ConcurrentSkipListMap<>();
+    private final VersionClock clock = new VersionClock();
+    // heads that are not tombstones
+    private final AtomicInteger size = new AtomicInteger();
+
+    @Override
+    public Document get(String id) {
+        Version head = heads.get(id);
+        return head == null || head.document == null ? null : copy(head.document);
+    }
+
+    @Override
+    public boolean containsKey(String id) {
+        Version head = heads.get(id);
+        return head != null && head.document != null;
+    }
+
+    @Override
+    public Document compute(String id, BiFunction<String, Document, Document> remapping) {
+        long version = clock.begin();
+        // logged before the indexes change, see changedIds
+        changes.put(version, id);
+        try {
+            Version head = heads.compute(id, (key, current) -> {
+                Document existing = current == null ? null : current.document;
+                if (existing != null) {
+                    // before the indexes change, see isLatest
+                    current.successor = version;
+                }
+                Document document = remapping.apply(key, existing == null ? null : copy(existing));
+                if (document == null && existing == null) {
+                    return current;
+                }
+                if (document == null || existing == null) {
+                    size.addAndGet(document == null ? -1 : 1);
+                }
+                return new Version(document == null ? null : copy(document), version, current);
+            });
+            return head == null ? null : head.document;
+        } finally {
+            clock.commit(version);
+            reclaim();
+        }
+    }
+
+    @Override
+    public Document computeIfAbsent(String id, Function<String, Document> mapping) {
+        Version head = heads.get(id);
+        if (head != null && head.document != null) {
+            return copy(head.document);
+        }
+        long version = clock.begin();
+        changes.put(version, id);
+        Document[] stored = new Document[1];
+        try {
+            head = heads.compute(id, (key, current) -> {
+                if (current != null && current.document != null) {
+                    return current;
+                }
+                stored[0] = mapping.apply(key);
+                size.incrementAndGet();
+                return new Version(copy(stored[0]), version, current);
+            });
+            return stored[0] != null ? stored[0] : copy(head.document);
+        } finally {
+            clock.commit(version);
+            reclaim();
+        }
+    }
+
+    @Override
+    public Document putIfAbsent(String id, Document document) {
+        Document existing = computeIfAbsent(id, key -> document);
+        return existing == document ? null : existing;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public Collection<Document> values() {
+        return new VersionCollection(Long.MAX_VALUE);
+    }
+
+    @Override
+    public long estimatedBytes(long textLength) {
+        return (long) (heads.size() + changes.size()) * 280 + 2 * textLength;
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        long version = clock.openSnapshot();
+        return new Snapshot() {
+            private boolean closed;
+
+            @Override
+            public Document get(String id) {
+                Version head = heads.get(id);
+                Document document = head == null ? null : head.visibleAt(version);
+                return document == null ? null : copy(document);
+            }
+
+            @Override
+            public Collection<Document> values() {
+                return new VersionCollection(version);
+            }
+
+            @Override
+            public boolean isLatest(String id) {
+                Version head = heads.get(id);
+                return head != null && head.version <= version && head.successor == 0;
+            }
+
+            @Override
+            public Set<String> changedIds() {
+                Collection<String> ids = changes.tailMap(version, false).values();
+                return ids.isEmpty() ? Set.of() : new HashSet<>(ids);
+            }
+
+            @Override
+            public void close() {
+                if (!closed) {
+                    closed = true;
+                    clock.closeSnapshot(version);
+                    reclaim();
+                }
+            }
+        };
+    }
+
+    /**
+     * Unlinks the versions no open snapshot can read any more: for each write
+     * at or below the oldest snapshot version, everything older than the
+     * newest version visible to that snapshot is dropped from its chain, and
+     * a tombstone that snapshot already sees is dropped altogether.
+     */
+    private void reclaim() {
+        long oldest = clock.oldestNeeded();
+        Map.Entry<Long, String> change;
+        while ((change = changes.firstEntry()) != null && change.getKey() <= oldest) {
+            if (changes.remove(change.getKey(), change.getValue())) {
+                Version head = heads.get(change.getValue());
+                for (Version version = head; version != null; version = version.previous) {
+                    if (version.version <= oldest) {
+                        version.previous = null;
+                        break;
+                    }
+                }
+                if (head != null && head.document == null && head.version <= oldest) {
+                    heads.remove(change.getValue(), head);
+                }
+            }
+        }
+    }
+
+    private static Document copy(Document document) {
+        Author author = document.getAuthor();
+        return new Document(document.getId(), document.getTitle(), document.getContent(),
+                author == null ? null : new Author(author.getId(), author.getName()), document.getCreated());
+    }
+
+    /**
+     * One published version of a document, or a tombstone without a document
+     * if it was removed. Only the link to the previous
+     * version changes, when that version is reclaimed, and the version of
+     * the write replacing it is noted once that write starts.
+     */
+    private static final class Version {
+
+        private final Document document;
+        private final long version;
+        private volatile Version previous;
+        private volatile long successor;
+
+        private Version(Document document, long version, Version previous) {
+            this.document = document;
+            this.version = version;
+            this.previous = previous;
+        }
+
+        /**
+         * @return the document as of the version, or null if it did not exist then.
+         */
+        private Document visibleAt(long snapshot) {
+            for (Version version = this; version != null; version = version.previous) {
+                if (version.version <= snapshot) {
+                    return version.document;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The documents as of a version, copied one at a time while iterating.
+     */
+    private final class VersionCollection extends AbstractCollection<Document> {
+
+        private final long snapshot;
+
+        private VersionCollection(long snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public Iterator<Document> iterator() {
+            Iterator<Version> heads = VersionedDocumentStore.this.heads.values().iterator();
+            return new Iterator<>() {
+                private Document next;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null && heads.hasNext()) {
+                        next = heads.next().visibleAt(snapshot);
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Document next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Document document = copy(next);
+                    next = null;
+                    return document;
+                }
+            };
+        }
+
+        /**
+         * Counts the documents visible at the snapshot, without copying them.
+         */
+        @Override
+        public int size() {
+            if (snapshot == Long.MAX_VALUE) {
+                return size.get();
+            }
+            int size = 0;
+            for (Version head : heads.values()) {
+                if (head.visibleAt(snapshot) != null) {
+                    size++;
+                }
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Hands out version numbers and tracks the committed watermark: the
+     * newest version up to which every write has completed, which is what a
+     * new snapshot reads. Writes may complete out of order, so the watermark
+     * stops below the oldest write still in progress. All state is guarded
+     * by the clock's monitor; the critical sections are a few map operations.
+     */
+    private static final class VersionClock {
+
+        private long last;
+        private long watermark;
+        private final TreeSet<Long> inProgress = new TreeSet<>();
+        // open snapshot versions and how many snapshots share each
+        private final TreeMap<Long, Integer> snapshots = new TreeMap<>();
+
+        synchronized long begin() {
+            inProgress.add(++last);
+            return last;
+        }
+
+        synchronized void commit(long version) {
+            inProgress.remove(version);
+            watermark = inProgress.isEmpty() ? last : inProgress.first() - 1;
+        }
+
+        synchronized long openSnapshot() {
+            snapshots.merge(watermark, 1, Integer::sum);
+            return watermark;
+        }
+
+        synchronized void closeSnapshot(long version) {
+            snapshots.computeIfPresent(version, (key, count) -> count == 1 ? null : count - 1);
+        }
+
+        /**
+         * @return the oldest version an open or future snapshot can read.
+         */
+        synchronized long oldestNeeded() {
+            return snapshots.isEmpty() ? watermark : snapshots.firstKey();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncDocumentManagerTest {
+
+    /**
+     * This test method verifies that identical lookups and searches issued
+     * while the first one is still running are executed only once, and that
+     * every caller gets the result.
+     */
+    @Test
+    void testIdenticalCallsAreCoalesced() throws Exception {
+        GatedShard shard = new GatedShard();
+        shard.documentManager.save(new DocumentManager.Document("a", "title1", "content1", new DocumentManager.Author("1", "Tom"), null));
+        try (AsyncDocumentManager documentManager = new AsyncDocumentManager(shard, 4)) {
+            List<CompletableFuture<Optional<DocumentManager.Document>>> finds = List.of(
+                    documentManager.findById("a"), documentManager.findById("a"), documentManager.findById("a"));
+            DocumentManager.SearchRequest request = DocumentManager.SearchRequest.builder().authorIds(List.of("1")).build();
+            List<CompletableFuture<List<DocumentManager.Document>>> searches = List.of(
+                    documentManager.search(request), documentManager.search(DocumentManager.SearchRequest.builder().authorIds(List.of("1")).build()));
+            shard.gate.countDown();
+
+            for (CompletableFuture<Optional<DocumentManager.Document>> find : finds) {
+                assertEquals("title1", find.get(5, TimeUnit.SECONDS).orElseThrow().getTitle());
+            }
+            for (CompletableFuture<List<DocumentManager.Document>> search : searches) {
+                assertEquals(1, search.get(5, TimeUnit.SECONDS).size());
+            }
+            assertEquals(1, shard.finds.get(), "Concurrent lookups of one ID should run once.");
+            assertEquals(1, shard.searches.get(), "Concurrent equal searches should run once.");
+
+            documentManager.findById("a").get(5, TimeUnit.SECONDS);
+            assertEquals(2, shard.finds.get(), "A lookup after completion should run again.");
+        }
+    }
+
+    /**
+     * This test method verifies that calls made after close fail with a
+     * rejected execution instead of never completing, and that neither a
+     * rejected lookup nor a rejected upsert stays in flight for later callers.
+     */
+    @Test
+    void testCallsAfterCloseFail() {
+        GatedShard shard = new GatedShard();
+        shard.gate.countDown();
+        AsyncDocumentManager documentManager = new AsyncDocumentManager(shard, 1);
+        documentManager.close();
+
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<Optional<DocumentManager.Document>> find = documentManager.findById("a");
+            ExecutionException error = assertThrows(ExecutionException.class, () -> find.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        }
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<DocumentManager.Document> upsert = documentManager.save(
+                    new DocumentManager.Document("a", "title" + i, "content1", new DocumentManager.Author("1", "Tom"), null));
+            ExecutionException error = assertThrows(ExecutionException.class, () -> upsert.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        }
+        assertTrue(documentManager.save(new DocumentManager.Document(null, "title", null, null, null)).isCompletedExceptionally());
+    }
+
+    /**
+     * This test method verifies that upserts of one ID queued behind a
+     * running upsert are merged into a single save with the same result as
+     * saving them in order.
+     */
+    @Test
+    void testUpsertsAreMicroBatched() throws Exception {
+        GatedShard shard = new GatedShard();
+        try (AsyncDocumentManager documentManager = new AsyncDocumentManager(shard, 4)) {
+            CompletableFuture<DocumentManager.Document> first = documentManager.save(
+                    new DocumentManager.Document("a", "title1", "content1", new DocumentManager.Author("1", "Tom"), null));
+            // the first upsert is running and no longer takes more upserts
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (shard.saves.get() == 0 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            CompletableFuture<DocumentManager.Document> second = documentManager.save(
+                    new DocumentManager.Document("a", "title2", null, new DocumentManager.Author("1", "Tom"), null));
+            CompletableFuture<DocumentManager.Document> third = documentManager.save(
+                    new DocumentManager.Document("a", null, "content3", new DocumentManager.Author("2", "Jack"), null));
+            shard.gate.countDown();
+
+            assertEquals("title1", first.get(5, TimeUnit.SECONDS).getTitle());
+            DocumentManager.Document saved = third.get(5, TimeUnit.SECONDS);
+            assertSame(saved, second.get(5, TimeUnit.SECONDS), "Batched upserts should share one save.");
+            assertEquals("title2", saved.getTitle());
+            assertEquals("content3", saved.getContent());
+            assertEquals("2", saved.getAuthor().getId());
+            assertEquals(2, shard.saves.get(), "The queued upserts should be saved as one batch.");
+        }
+    }
+
+    /**
+     * Counts the calls to a document manager and holds them until the gate opens.
+     */
+    private static final class GatedShard implements DocumentShard {
+
+        private final DocumentManager documentManager = new DocumentManager();
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final AtomicInteger saves = new AtomicInteger();
+        private final AtomicInteger finds = new AtomicInteger();
+        private final AtomicInteger searches = new AtomicInteger();
+
+        private void await() {
+            try {
+                assertTrue(gate.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public DocumentManager.Document save(DocumentManager.Document document) {
+            saves.incrementAndGet();
+            await();
+            return documentManager.save(document);
+        }
+
+        @Override
+        public List<DocumentManager.Document> saveAll(Collection<DocumentManager.Document> documents) {
+            return documentManager.saveAll(documents);
+        }
+
+        @Override
+        public Optional<DocumentManager.Document> findById(String id) {
+            finds.incrementAndGet();
+            await();
+            return documentManager.findById(id);
+        }
+
+        @Override
+        public boolean deleteById(String id) {
+            return documentManager.deleteById(id);
+        }
+
+        @Override
+        public List<DocumentManager.Document> search(DocumentManager.SearchRequest request) {
+            searches.incrementAndGet();
+            await();
+            return documentManager.search(request);
+        }
+
+        @Override
+        public DocumentManager.SearchPage search(DocumentManager.SearchRequest request, DocumentManager.PageRequest page) {
+            return documentManager.search(request, page);
+        }
+
+        @Override
+        public void close() {
+            documentManager.close();
+        }
+    }
+}
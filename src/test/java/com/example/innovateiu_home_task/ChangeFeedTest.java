@@ -0,0 +1,143 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeFeedTest {
+
+    /**
+     * This test method verifies that every save is published with an
+     * increasing sequence number and the document before and after the save,
+     * and that a consumer can poll the changes after any sequence number.
+     */
+    @Test
+    void testSavesArePublishedInOrder() {
+        DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .changeFeedCapacity(16)
+                .build());
+        DocumentManager.Document saved = documentManager.save(new DocumentManager.Document(null, "title1", "content1", new DocumentManager.Author("1", "Tom"), null));
+        documentManager.save(new DocumentManager.Document(saved.getId(), "title1 updated", null, new DocumentManager.Author("1", "Tom"), null));
+
+        List<DocumentManager.ChangeEvent> changes = documentManager.pollChanges(0, 10);
+        assertEquals(2, changes.size());
+        assertEquals(1, changes.get(0).getSequence());
+        assertNull(changes.get(0).getBefore(), "An insert has no previous version.");
+        assertEquals("title1", changes.get(0).getAfter().getTitle());
+        assertEquals(2, changes.get(1).getSequence());
+        assertEquals("title1", changes.get(1).getBefore().getTitle());
+        assertEquals("title1 updated", changes.get(1).getAfter().getTitle());
+        assertEquals("content1", changes.get(1).getAfter().getContent(), "The change should hold the merged document.");
+
+        assertEquals(2, documentManager.lastChangeSequence());
+        assertEquals(List.of(changes.get(1)), documentManager.pollChanges(1, 10), "Polling should resume after the given sequence.");
+        assertTrue(documentManager.pollChanges(2, 10).isEmpty());
+    }
+
+    /**
+     * This test method verifies that a subscriber only receives as many
+     * changes as it requested, keeps receiving changes saved after it
+     * subscribed, and is told with an error when it resumes after a change
+     * that is no longer buffered.
+     */
+    @Test
+    void testSubscriberBackpressureAndResume() throws InterruptedException {
+        DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .changeFeedCapacity(4)
+                .build());
+        for (int i = 0; i < 3; i++) {
+            documentManager.save(new DocumentManager.Document(null, "title" + i, "content", new DocumentManager.Author("1", "Tom"), null));
+        }
+
+        QueueSubscriber subscriber = new QueueSubscriber();
+        documentManager.changes(1).subscribe(subscriber);
+        subscriber.subscription.request(1);
+        assertEquals(2, subscriber.events.poll(5, TimeUnit.SECONDS).getSequence());
+        assertNull(subscriber.events.poll(100, TimeUnit.MILLISECONDS), "Nothing more was requested.");
+
+        subscriber.subscription.request(2);
+        assertEquals(3, subscriber.events.poll(5, TimeUnit.SECONDS).getSequence());
+        documentManager.save(new DocumentManager.Document(null, "title3", "content", new DocumentManager.Author("1", "Tom"), null));
+        assertEquals(4, subscriber.events.poll(5, TimeUnit.SECONDS).getSequence(), "A later save should be delivered on demand.");
+        subscriber.subscription.cancel();
+
+        for (int i = 0; i < 4; i++) {
+            documentManager.save(new DocumentManager.Document(null, "title", "content", new DocumentManager.Author("1", "Tom"), null));
+        }
+        QueueSubscriber late = new QueueSubscriber();
+        documentManager.changes(1).subscribe(late);
+        late.subscription.request(1);
+        assertInstanceOf(IllegalStateException.class, late.errors.poll(5, TimeUnit.SECONDS),
+                "Change 2 was overwritten, so resuming after 1 should fail.");
+        assertThrows(IllegalStateException.class, () -> documentManager.pollChanges(1, 10));
+    }
+
+    /**
+     * This test method verifies that an invalid request is reported through
+     * the delivery of the subscription rather than on the requesting thread,
+     * and that closing the document manager completes open subscriptions,
+     * and later ones right away, after the changes they requested.
+     */
+    @Test
+    void testSubscriptionsFailAndCompleteThroughDelivery() throws InterruptedException {
+        DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .changeFeedCapacity(16)
+                .build());
+        documentManager.save(new DocumentManager.Document(null, "title", "content", new DocumentManager.Author("1", "Tom"), null));
+
+        QueueSubscriber invalid = new QueueSubscriber();
+        documentManager.changes(0).subscribe(invalid);
+        invalid.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, invalid.errors.poll(5, TimeUnit.SECONDS));
+        assertNotEquals(Thread.currentThread(), invalid.errorThread, "The error should be delivered by the subscription.");
+
+        QueueSubscriber open = new QueueSubscriber();
+        documentManager.changes(0).subscribe(open);
+        open.subscription.request(10);
+        assertEquals(1, open.events.poll(5, TimeUnit.SECONDS).getSequence());
+        documentManager.close();
+        assertTrue(open.completed.await(5, TimeUnit.SECONDS), "Closing should complete open subscriptions.");
+
+        QueueSubscriber late = new QueueSubscriber();
+        documentManager.changes(0).subscribe(late);
+        assertTrue(late.completed.await(5, TimeUnit.SECONDS), "A subscription after closing should complete.");
+        assertTrue(late.events.isEmpty(), "Nothing was requested.");
+    }
+
+    private static final class QueueSubscriber implements Flow.Subscriber<DocumentManager.ChangeEvent> {
+
+        private final BlockingQueue<DocumentManager.ChangeEvent> events = new LinkedBlockingQueue<>();
+        private final BlockingQueue<Throwable> errors = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Thread errorThread;
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(DocumentManager.ChangeEvent item) {
+            events.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            errorThread = Thread.currentThread();
+            errors.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CharTrieTest {
+
+    /**
+     * This test method verifies that the Aho-Corasick search finds keywords
+     * that only occur after a partial match of another keyword, which is
+     * exactly what the failure links are needed for.
+     */
+    @Test
+    void testOccursInFollowsFailureLinks() {
+        CharTrie trie = CharTrie.of(List.of("he", "she", "his", "hers"));
+
+        assertTrue(trie.occursIn("ushers"), "'she' and 'he' occur in 'ushers'.");
+        assertTrue(trie.occursIn("ahishe"), "'his' occurs in 'ahishe'.");
+        assertTrue(trie.occursIn("xxhex"), "'he' occurs in 'xxhex'.");
+        assertFalse(trie.occursIn("shift"), "No keyword occurs in 'shift'.");
+        assertFalse(trie.occursIn(""), "No keyword occurs in an empty text.");
+    }
+
+    /**
+     * This test method verifies that a keyword starting inside a longer
+     * partial match of another keyword is found.
+     */
+    @Test
+    void testOccursInFindsSuffixOfPartialMatch() {
+        CharTrie trie = CharTrie.of(List.of("abcd", "bce"));
+
+        assertTrue(trie.occursIn("xabce"), "'bce' starts inside a partial match of 'abcd'.");
+        assertFalse(trie.occursIn("xabcx"), "Neither keyword occurs completely.");
+    }
+
+    /**
+     * This test method verifies prefix matching, including overlapping
+     * prefixes and a prefix that is longer than the text.
+     */
+    @Test
+    void testMatchesPrefixOf() {
+        CharTrie trie = CharTrie.of(List.of("ab", "abcd", "x"));
+
+        assertTrue(trie.matchesPrefixOf("abz"), "'ab' is a prefix of 'abz'.");
+        assertTrue(trie.matchesPrefixOf("x"), "'x' is a prefix of 'x'.");
+        assertFalse(trie.matchesPrefixOf("a"), "No prefix fits into 'a'.");
+        assertFalse(trie.matchesPrefixOf("zab"), "Prefixes must match at the start.");
+    }
+
+    /**
+     * This test method verifies that an empty word matches every text, like
+     * {@link String#startsWith} and {@link String#contains} do.
+     */
+    @Test
+    void testEmptyWordMatchesEverything() {
+        CharTrie trie = CharTrie.of(List.of(""));
+
+        assertTrue(trie.matchesPrefixOf("anything"));
+        assertTrue(trie.occursIn("anything"));
+        assertTrue(trie.occursIn(""));
+    }
+}
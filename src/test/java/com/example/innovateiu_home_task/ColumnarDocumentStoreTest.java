@@ -0,0 +1,120 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarDocumentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * This test method verifies that the columnar backend gives documents
+     * back exactly as they were saved, for UUID and other IDs, null fields,
+     * non-ASCII text and nanosecond creation times, and that it merges
+     * upserts the same way as the heap backend.
+     */
+    @Test
+    void testDocumentsRoundTrip() {
+        DocumentManager documentManager = open(false, null);
+        Instant created = Instant.parse("2024-08-19T10:15:30.123456789Z");
+        DocumentManager.Document uuidDocument = new DocumentManager.Document(UUID.randomUUID().toString(), "Ünïcode title", "content", new DocumentManager.Author("1", "Tom"), created);
+        DocumentManager.Document plainDocument = new DocumentManager.Document("custom-id", null, null, null, created);
+        documentManager.save(uuidDocument);
+        documentManager.save(plainDocument);
+        DocumentManager.Document generated = documentManager.save(new DocumentManager.Document(null, "title", "", new DocumentManager.Author("1", "Tom"), null));
+
+        assertEquals(uuidDocument, documentManager.findById(uuidDocument.getId()).orElseThrow(), "A UUID document should round trip.");
+        assertEquals(plainDocument, documentManager.findById("custom-id").orElseThrow(), "A document with null fields should round trip.");
+        assertEquals(generated, documentManager.findById(generated.getId()).orElseThrow(), "A generated document should round trip.");
+        assertTrue(documentManager.findById(UUID.randomUUID().toString()).isEmpty(), "An unknown ID should not be found.");
+
+        documentManager.save(new DocumentManager.Document("custom-id", "new title", null, null, Instant.now()));
+        DocumentManager.Document merged = documentManager.findById("custom-id").orElseThrow();
+        assertEquals("new title", merged.getTitle(), "The title should be updated.");
+        assertEquals(created, merged.getCreated(), "Creation time should not change.");
+        assertEquals(3, documentManager.search(null).size(), "An upsert should not add a document.");
+    }
+
+    /**
+     * This test method verifies that long contents are compressed in
+     * memory-mapped segments and still read back and searched correctly,
+     * and that a document handed out by the backend cannot change what is
+     * stored.
+     */
+    @Test
+    void testCompressedContentInMappedSegments() {
+        DocumentManager documentManager = open(true, directory);
+        String content = "lorem ipsum dolor sit amet ".repeat(200) + "needle";
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(documentManager.save(new DocumentManager.Document(null, "title" + i, content, new DocumentManager.Author(String.valueOf(i % 3), "Tom"), null)).getId());
+        }
+
+        DocumentManager.Document found = documentManager.findById(ids.get(0)).orElseThrow();
+        assertEquals(content, found.getContent(), "Compressed content should be read back.");
+        found.getAuthor().setName("Changed");
+        found.setTitle("changed");
+        assertEquals("Tom", documentManager.findById(ids.get(0)).orElseThrow().getAuthor().getName(), "Returned documents should be copies.");
+        assertEquals("title0", documentManager.findById(ids.get(0)).orElseThrow().getTitle(), "Returned documents should be copies.");
+
+        DocumentManager.SearchRequest request = DocumentManager.SearchRequest.builder()
+                .containsContents(List.of("needle"))
+                .authorIds(List.of("1"))
+                .build();
+        assertEquals(33, documentManager.search(request).size(), "Searches should see the compressed content.");
+    }
+
+    /**
+     * This test method verifies that compaction frees text segments of
+     * replaced and removed documents: after most documents are deleted or
+     * overwritten, compacting until no work remains shrinks the reserved
+     * memory, and the remaining documents still read back unchanged.
+     */
+    @Test
+    void testCompactionFreesSparseSegments() {
+        ColumnarDocumentStore store = new ColumnarDocumentStore(null, false, 4096);
+        for (int i = 0; i < 1000; i++) {
+            String id = i % 2 == 0 ? UUID.randomUUID().toString() : "id" + i;
+            store.putIfAbsent(id, new DocumentManager.Document(id, "title" + i, "content " + i, null, null));
+        }
+        long before = store.estimatedBytes(0);
+        List<DocumentManager.Document> kept = new ArrayList<>();
+        for (DocumentManager.Document document : new ArrayList<>(store.values())) {
+            if (kept.size() < 50) {
+                kept.add(document);
+            } else if (kept.size() < 100) {
+                store.compute(document.getId(), (id, current) -> new DocumentManager.Document(id, "new title", null, null, null));
+                kept.add(store.get(document.getId()));
+            } else {
+                store.compute(document.getId(), (id, current) -> null);
+            }
+        }
+
+        int steps = 0;
+        while (store.compact(100)) {
+            assertTrue(++steps < 10_000, "Compaction should finish.");
+        }
+        assertTrue(store.estimatedBytes(0) < before / 2, "Sparse segments should be freed.");
+        assertEquals(100, store.size());
+        for (DocumentManager.Document document : kept) {
+            assertEquals(document, store.get(document.getId()), "Compacted documents should read back unchanged.");
+        }
+    }
+
+    private static DocumentManager open(boolean compressContent, Path offHeapDirectory) {
+        return new DocumentManager(DocumentManager.Options.builder()
+                .storageBackend(DocumentManager.StorageBackend.COLUMNAR)
+                .compressContent(compressContent)
+                .offHeapDirectory(offHeapDirectory)
+                .build());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DocumentAggregationTest {
+
+    private static final Instant DAY = Instant.parse("2024-08-19T00:00:00Z");
+
+    /**
+     * This test method verifies that counts and facets equal grouping the
+     * results of the same search, both for requests answered from the
+     * indexes and for requests that have to check documents, on every
+     * storage backend.
+     */
+    @Test
+    void testCountsMatchGroupedSearchResults() {
+        for (DocumentManager.StorageBackend backend : DocumentManager.StorageBackend.values()) {
+            DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                    .storageBackend(backend)
+                    .build());
+            for (int i = 0; i < 500; i++) {
+                documentManager.save(new DocumentManager.Document("id" + i, "title" + (i % 7), "content" + (i % 3),
+                        new DocumentManager.Author(String.valueOf(i % 13), "Author"), DAY.plus(Duration.ofHours(i))));
+            }
+            documentManager.save(new DocumentManager.Document("anonymous", "title", "content", null, null));
+            documentManager.deleteById("id0");
+
+            List<DocumentManager.SearchRequest> requests = List.of(
+                    DocumentManager.SearchRequest.builder().build(),
+                    DocumentManager.SearchRequest.builder().authorIds(List.of("1", "2", "2", "unknown")).build(),
+                    DocumentManager.SearchRequest.builder().createdFrom(DAY.plus(Duration.ofDays(3))).createdTo(DAY.plus(Duration.ofDays(5))).build(),
+                    new DocumentManager.SearchRequest(Collections.singletonList("title1"), Collections.singletonList("content2"), null, DAY.plus(Duration.ofDays(2)), null));
+            for (DocumentManager.SearchRequest request : requests) {
+                List<DocumentManager.Document> results = documentManager.search(request);
+                assertEquals(results.size(), documentManager.count(request), backend + ": count of " + request);
+
+                Map<String, Long> byAuthor = results.stream()
+                        .filter(document -> document.getAuthor() != null)
+                        .collect(Collectors.groupingBy(document -> document.getAuthor().getId(), Collectors.counting()));
+                assertEquals(byAuthor, documentManager.countByAuthor(request), backend + ": authors of " + request);
+
+                SortedMap<Instant, Long> byDay = results.stream()
+                        .filter(document -> document.getCreated() != null)
+                        .collect(Collectors.groupingBy(document -> document.getCreated().truncatedTo(ChronoUnit.DAYS), TreeMap::new, Collectors.counting()));
+                assertEquals(byDay, documentManager.countByCreated(request, Duration.ofDays(1)), backend + ": days of " + request);
+            }
+            assertEquals(500, documentManager.count(null));
+            documentManager.close();
+        }
+    }
+
+    /**
+     * This test method verifies that a creation range ending at the largest
+     * instant is accepted by counts, aggregations, streams and paged
+     * searches, on every storage backend.
+     */
+    @Test
+    void testCreatedRangeUpToMaxInstant() {
+        for (DocumentManager.StorageBackend backend : DocumentManager.StorageBackend.values()) {
+            DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                    .storageBackend(backend)
+                    .build());
+            for (int i = 0; i < 20; i++) {
+                documentManager.save(new DocumentManager.Document("id" + i, "title", "content",
+                        new DocumentManager.Author("1", "Author"), DAY.plus(Duration.ofHours(i))));
+            }
+            DocumentManager.SearchRequest request = DocumentManager.SearchRequest.builder()
+                    .createdFrom(DAY.plus(Duration.ofHours(5))).createdTo(Instant.MAX).build();
+
+            assertEquals(15, documentManager.count(request), backend.toString());
+            assertEquals(15, documentManager.stream(request).count(), backend.toString());
+            assertEquals(Map.of("1", 15L), documentManager.countByAuthor(request), backend.toString());
+            assertEquals(15L, documentManager.countByCreated(request, Duration.ofDays(1)).values().stream().mapToLong(Long::longValue).sum(), backend.toString());
+            DocumentManager.SearchPage page = documentManager.search(request, DocumentManager.PageRequest.builder()
+                    .limit(10).sort(DocumentManager.SortOrder.CREATED_ASC).build());
+            assertEquals("id5", page.getDocuments().get(0).getId(), backend.toString());
+            assertEquals(5, documentManager.search(request, DocumentManager.PageRequest.builder()
+                    .limit(10).sort(DocumentManager.SortOrder.CREATED_ASC).cursor(page.getNextCursor()).build()).getDocuments().size(), backend.toString());
+            documentManager.close();
+        }
+    }
+
+    /**
+     * This test method verifies the primitive count maps through growth:
+     * every key keeps its own count, including negative and colliding keys.
+     */
+    @Test
+    void testCountMapsKeepEveryKey() {
+        LongCountMap longCounts = new LongCountMap();
+        ObjectCountMap<String> objectCounts = new ObjectCountMap<>();
+        for (int i = -5000; i < 5000; i++) {
+            longCounts.increment(i * 1024L, i + 5000);
+            longCounts.increment(i * 1024L, 1);
+            objectCounts.increment("key" + i, 2);
+        }
+        assertEquals(10_000, longCounts.size());
+        long[] checked = new long[1];
+        longCounts.forEach((key, count) -> {
+            assertEquals(key / 1024 + 5001, count);
+            checked[0]++;
+        });
+        assertEquals(10_000, checked[0]);
+        Map<String, Long> map = objectCounts.toMap();
+        assertEquals(10_000, map.size());
+        assertTrue(map.values().stream().allMatch(count -> count == 2));
+    }
+}
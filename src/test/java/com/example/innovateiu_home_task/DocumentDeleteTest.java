@@ -0,0 +1,159 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DocumentDeleteTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * This test method verifies that deleteById removes a document from
+     * storage and from every index on all storage backends, that a deleted
+     * ID can be saved anew, and that deleting an unknown ID reports false.
+     */
+    @Test
+    void testDeleteRemovesDocumentFromAllIndexes() {
+        for (DocumentManager.StorageBackend backend : DocumentManager.StorageBackend.values()) {
+            DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                    .storageBackend(backend)
+                    .contentIndexEnabled(true)
+                    .build());
+            String id = UUID.randomUUID().toString();
+            documentManager.save(new DocumentManager.Document(id, "title1", "content1", new DocumentManager.Author("1", "Tom"), Instant.now()));
+            documentManager.save(new DocumentManager.Document("2", "title2", "content2", new DocumentManager.Author("1", "Tom"), Instant.now()));
+            DocumentManager.SearchRequest byContent = new DocumentManager.SearchRequest(null, Collections.singletonList("content1"), null, null, null);
+            assertEquals(1, documentManager.search(byContent).size());
+
+            assertTrue(documentManager.deleteById(id), backend + ": an existing document should be deleted.");
+            assertFalse(documentManager.deleteById(id), backend + ": a deleted document cannot be deleted again.");
+            assertFalse(documentManager.deleteById(null));
+            assertTrue(documentManager.findById(id).isEmpty(), backend + ": a deleted document should not be found.");
+            assertTrue(documentManager.search(byContent).isEmpty(), backend + ": a deleted document should leave the content index.");
+            assertEquals(List.of("2"), documentManager.search(new DocumentManager.SearchRequest(Collections.singletonList("title"), null, null, null, null))
+                    .stream().map(DocumentManager.Document::getId).toList(), backend + ": a deleted document should leave the title index.");
+            assertEquals(1, documentManager.search(DocumentManager.SearchRequest.builder().authorIds(List.of("1")).build()).size(),
+                    backend + ": a deleted document should leave the author index.");
+
+            documentManager.save(new DocumentManager.Document(id, "title3", "content3", new DocumentManager.Author("2", "Jack"), Instant.now()));
+            assertEquals("title3", documentManager.findById(id).orElseThrow().getTitle(), backend + ": a deleted ID can be saved anew.");
+            assertEquals(2, documentManager.search(null).size());
+            documentManager.close();
+        }
+    }
+
+    /**
+     * This test method verifies that content searches stay exact while the
+     * content index reuses the ordinals of deleted documents, for documents
+     * saved one by one and in batches with generated IDs.
+     */
+    @Test
+    void testContentSearchAfterOrdinalReuse() {
+        DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .contentIndexEnabled(true)
+                .build());
+        Map<String, String> contents = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            String content = i % 5 == 0 ? "alpha needle" : "alpha";
+            contents.put(documentManager.save(new DocumentManager.Document("id" + i, "title", content, null, null)).getId(), content);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (String id : List.copyOf(contents.keySet())) {
+                if (Math.floorMod(id.hashCode() + round, 3) == 0) {
+                    assertTrue(documentManager.deleteById(id));
+                    contents.remove(id);
+                }
+            }
+            List<DocumentManager.Document> batch = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                batch.add(new DocumentManager.Document(null, "title", i % 4 == 0 ? "beta needle" : "beta", null, null));
+            }
+            documentManager.saveAll(batch).forEach(document -> contents.put(document.getId(), document.getContent()));
+            for (int i = 0; i < 20; i++) {
+                String content = i % 2 == 0 ? "gamma needle" : "gamma";
+                contents.put(documentManager.save(new DocumentManager.Document("round" + round + "-" + i, "title", content, null, null)).getId(), content);
+            }
+
+            for (String keyword : List.of("needle", "alpha", "beta", "gamma")) {
+                Set<String> expected = contents.entrySet().stream()
+                        .filter(entry -> entry.getValue().contains(keyword))
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toSet());
+                Set<String> found = documentManager.search(new DocumentManager.SearchRequest(null, List.of(keyword), null, null, null)).stream()
+                        .map(DocumentManager.Document::getId)
+                        .collect(Collectors.toSet());
+                assertEquals(expected, found, "round " + round + ": documents containing " + keyword);
+            }
+        }
+        documentManager.close();
+    }
+
+    /**
+     * This test method verifies that a delete is logged: a document deleted
+     * before a restart stays deleted after recovery, and the delete is
+     * published to the change feed with no document after it.
+     */
+    @Test
+    void testDeleteIsRecoveredAndPublished() {
+        DocumentManager.Options options = DocumentManager.Options.builder()
+                .persistenceDirectory(directory)
+                .changeFeedCapacity(16)
+                .build();
+        try (DocumentManager documentManager = new DocumentManager(options)) {
+            documentManager.save(new DocumentManager.Document("1", "title1", "content1", new DocumentManager.Author("1", "Tom"), Instant.now()));
+            documentManager.save(new DocumentManager.Document("2", "title2", "content2", new DocumentManager.Author("1", "Tom"), Instant.now()));
+            documentManager.deleteById("1");
+
+            List<DocumentManager.ChangeEvent> changes = documentManager.pollChanges(0, 10);
+            assertEquals(3, changes.size());
+            assertEquals("title1", changes.get(2).getBefore().getTitle(), "The delete should carry the deleted document.");
+            assertNull(changes.get(2).getAfter(), "A delete has no document after it.");
+        }
+
+        try (DocumentManager documentManager = new DocumentManager(options)) {
+            assertTrue(documentManager.findById("1").isEmpty(), "The delete should be recovered.");
+            assertEquals(1, documentManager.search(null).size(), "The other document should be recovered.");
+        }
+    }
+
+    /**
+     * This test method verifies TTL expiry: documents created longer ago
+     * than the TTL are removed in the background, more than one batch of
+     * them, while documents still within their TTL are kept.
+     */
+    @Test
+    void testExpiredDocumentsAreRemoved() throws InterruptedException {
+        try (DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .documentTtl(Duration.ofMillis(200))
+                .build())) {
+            Instant old = Instant.now().minus(Duration.ofHours(1));
+            for (int i = 0; i < 1000; i++) {
+                documentManager.save(new DocumentManager.Document("old" + i, "title", "content", new DocumentManager.Author("1", "Tom"), old));
+            }
+            documentManager.save(new DocumentManager.Document("fresh", "title", "content", new DocumentManager.Author("1", "Tom"), Instant.now().plus(Duration.ofHours(1))));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (documentManager.search(null).size() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(List.of("fresh"), documentManager.search(null).stream().map(DocumentManager.Document::getId).toList(),
+                    "Only the document within its TTL should be kept.");
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DocumentManagerConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ITERATIONS = 2_000;
+
+    DocumentManager documentManager = new DocumentManager();
+
+    /**
+     * This test method verifies that concurrent inserts of documents without
+     * an ID are never lost. Several threads save documents at the same time,
+     * and the test asserts that every single document ends up in storage
+     * under its own unique generated ID.
+     */
+    @Test
+    void testConcurrentInsertsAreNotLost() throws Exception {
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                documentManager.save(new DocumentManager.Document(null, "title", "content", new DocumentManager.Author("1", "Tom"), null));
+            }
+        });
+
+        List<DocumentManager.Document> results = documentManager.search(null);
+        Set<String> ids = new HashSet<>();
+        results.forEach(document -> ids.add(document.getId()));
+        assertEquals(THREADS * ITERATIONS, results.size(), "Every inserted document should be stored.");
+        assertEquals(THREADS * ITERATIONS, ids.size(), "Every inserted document should get its own ID.");
+    }
+
+    /**
+     * This test method verifies that partial upserts of the same document
+     * from different threads do not overwrite each other. One group of
+     * threads only updates the title, the other only the content. Once all
+     * threads are done, the stored document must hold the last title and
+     * the last content written, and its creation time must not change.
+     */
+    @Test
+    void testConcurrentPartialUpdatesDoNotLoseFields() throws Exception {
+        Instant created = Instant.parse("2024-08-19T10:15:30Z");
+        documentManager.save(new DocumentManager.Document("1", "title", "content", new DocumentManager.Author("1", "Tom"), created));
+
+        runConcurrently(2, thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                if (thread == 0) {
+                    documentManager.save(new DocumentManager.Document("1", "title" + i, null, null, null));
+                } else {
+                    documentManager.save(new DocumentManager.Document("1", null, "content" + i, null, null));
+                }
+            }
+        });
+
+        DocumentManager.Document document = documentManager.findById("1").orElseThrow();
+        assertEquals("title" + (ITERATIONS - 1), document.getTitle(), "The last title update should not be lost.");
+        assertEquals("content" + (ITERATIONS - 1), document.getContent(), "The last content update should not be lost.");
+        assertEquals(created, document.getCreated(), "Creation time should not change.");
+    }
+
+    /**
+     * This test method verifies that readers never observe a half merged
+     * document. Writers keep upserting a small set of documents where the
+     * title and the content always carry the same suffix, while readers
+     * call findById and search at the same time. Every document a reader
+     * sees must have a matching title and content and the original
+     * creation time.
+     */
+    @Test
+    void testReadersNeverSeeTornDocuments() throws Exception {
+        Instant created = Instant.parse("2024-08-19T10:15:30Z");
+        for (int id = 0; id < 8; id++) {
+            documentManager.save(new DocumentManager.Document(String.valueOf(id), "title-init", "content-init", new DocumentManager.Author("1", "Tom"), created));
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<String> violations = new ArrayList<>();
+
+        runConcurrently(THREADS, thread -> {
+            if (thread % 2 == 0) {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    String suffix = thread + "-" + i;
+                    documentManager.save(new DocumentManager.Document(String.valueOf(i % 8), "title-" + suffix, "content-" + suffix, null, null));
+                }
+                writing.set(false);
+            } else {
+                while (writing.get()) {
+                    documentManager.findById(String.valueOf(thread % 8)).ifPresent(document -> check(document, created, violations));
+                    documentManager.search(null).forEach(document -> check(document, created, violations));
+                }
+            }
+        });
+
+        assertTrue(violations.isEmpty(), "Readers should never see torn documents: " + violations);
+    }
+
+    /**
+     * This test method verifies that the columnar backend neither loses
+     * documents nor hands out torn ones while its tables grow. Writers
+     * insert new documents whose title and content carry the same suffix,
+     * while readers keep looking them up and scanning all documents.
+     */
+    @Test
+    void testColumnarBackendUnderConcurrentGrowth() throws Exception {
+        DocumentManager columnar = new DocumentManager(DocumentManager.Options.builder()
+                .storageBackend(DocumentManager.StorageBackend.COLUMNAR)
+                .build());
+        Instant created = Instant.parse("2024-08-19T10:15:30Z");
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<String> violations = new ArrayList<>();
+
+        runConcurrently(THREADS, thread -> {
+            if (thread % 2 == 0) {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    String suffix = thread + "-" + i;
+                    DocumentManager.Document saved = columnar.save(new DocumentManager.Document(null, "title-" + suffix, "content-" + suffix, null, created));
+                    check(columnar.findById(saved.getId()).orElseThrow(), created, violations);
+                }
+                writing.set(false);
+            } else {
+                while (writing.get()) {
+                    columnar.search(null).forEach(document -> check(document, created, violations));
+                }
+            }
+        });
+
+        assertTrue(violations.isEmpty(), "Readers should never see torn documents: " + violations);
+        assertEquals(THREADS / 2 * ITERATIONS, columnar.search(null).size(), "Every inserted document should be stored.");
+    }
+
+    /**
+     * This test method verifies that MVCC searches read a consistent
+     * snapshot. Writers keep moving documents between two authors, which
+     * changes the author index under running searches, while readers search
+     * for both authors. Every search must find every document exactly once.
+     */
+    @Test
+    void testMvccSearchesSeeEveryDocumentWhileAuthorsChange() throws Exception {
+        DocumentManager mvcc = new DocumentManager(DocumentManager.Options.builder()
+                .storageBackend(DocumentManager.StorageBackend.MVCC)
+                .build());
+        int documents = 64;
+        for (int id = 0; id < documents; id++) {
+            mvcc.save(new DocumentManager.Document(String.valueOf(id), "title", "content", new DocumentManager.Author("1", "Tom"), null));
+        }
+        DocumentManager.SearchRequest bothAuthors = DocumentManager.SearchRequest.builder().authorIds(List.of("1", "2")).build();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<String> violations = new ArrayList<>();
+
+        runConcurrently(THREADS, thread -> {
+            if (thread % 2 == 0) {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    String authorId = String.valueOf(1 + (i + thread) % 2);
+                    mvcc.save(new DocumentManager.Document(String.valueOf(i % documents), null, null, new DocumentManager.Author(authorId, "Author"), null));
+                }
+                writing.set(false);
+            } else {
+                while (writing.get()) {
+                    List<DocumentManager.Document> results = mvcc.search(bothAuthors);
+                    Set<String> ids = new HashSet<>();
+                    results.forEach(document -> ids.add(document.getId()));
+                    if (results.size() != documents || ids.size() != documents) {
+                        synchronized (violations) {
+                            violations.add(results.size() + " results, " + ids.size() + " distinct");
+                        }
+                    }
+                }
+            }
+        });
+
+        assertTrue(violations.isEmpty(), "Every search should see every document once: " + violations);
+    }
+
+    private static void check(DocumentManager.Document document, Instant created, List<String> violations) {
+        String title = document.getTitle();
+        String content = document.getContent();
+        if (!title.substring("title-".length()).equals(content.substring("content-".length()))
+                || !created.equals(document.getCreated())) {
+            synchronized (violations) {
+                violations.add(title + "/" + content);
+            }
+        }
+    }
+
+    private static void runConcurrently(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int threadNumber = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(threadNumber);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DocumentManagerPersistenceTest {
+
+    @TempDir
+    Path directory;
+
+    private DocumentManager open() {
+        return new DocumentManager(DocumentManager.Options.builder().persistenceDirectory(directory).build());
+    }
+
+    /**
+     * This test method verifies that saved documents survive a restart. It
+     * saves and updates documents, closes the document manager, opens a new
+     * one on the same directory, and asserts that the latest version of each
+     * document is recovered and found by the indexes.
+     */
+    @Test
+    void testDocumentsAreRecoveredFromLog() {
+        Instant created = Instant.parse("2024-08-19T10:15:30Z");
+        try (DocumentManager documentManager = open()) {
+            documentManager.save(new DocumentManager.Document("1", "title1", "content1", new DocumentManager.Author("1", "Tom"), created));
+            documentManager.save(new DocumentManager.Document("2", "title2", "content2", new DocumentManager.Author("2", "Jack"), created));
+            documentManager.save(new DocumentManager.Document("1", "updated title", null, new DocumentManager.Author("1", "Tom"), null));
+        }
+
+        try (DocumentManager documentManager = open()) {
+            DocumentManager.Document document = documentManager.findById("1").orElseThrow();
+            assertEquals("updated title", document.getTitle(), "The latest title should be recovered.");
+            assertEquals("content1", document.getContent(), "The merged content should be recovered.");
+            assertEquals(created, document.getCreated(), "The creation time should be recovered.");
+            assertEquals(2, documentManager.search(null).size(), "Every document should be recovered.");
+            assertEquals(1, documentManager.search(new DocumentManager.SearchRequest(Collections.singletonList("updated"), null, null, null, null)).size(),
+                    "Recovered documents should be indexed.");
+        }
+    }
+
+    /**
+     * This test method verifies recovery from a snapshot plus the log written
+     * after it. Documents are saved before and after the snapshot, and the
+     * test asserts that all of them are recovered and that the log segments
+     * covered by the snapshot, including the one it rotated, were deleted.
+     */
+    @Test
+    void testDocumentsAreRecoveredFromSnapshotAndLogTail() throws IOException {
+        try (DocumentManager documentManager = open()) {
+            for (int i = 0; i < 100; i++) {
+                documentManager.save(new DocumentManager.Document(String.valueOf(i), "title" + i, "content" + i, new DocumentManager.Author("1", "Tom"), Instant.now()));
+            }
+            documentManager.snapshot();
+            documentManager.save(new DocumentManager.Document("100", "title100", "content100", new DocumentManager.Author("1", "Tom"), Instant.now()));
+            documentManager.snapshot();
+            documentManager.save(new DocumentManager.Document("0", "changed", null, new DocumentManager.Author("1", "Tom"), null));
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(path -> path.getFileName().toString().startsWith("snapshot-")).count(),
+                    "Older snapshots should be deleted.");
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(path -> path.getFileName().toString().startsWith("wal-")).count(),
+                    "Only the segment written after the last snapshot should be kept.");
+        }
+        try (DocumentManager documentManager = open()) {
+            assertEquals(101, documentManager.search(null).size(), "Every document should be recovered.");
+            assertEquals("changed", documentManager.findById("0").orElseThrow().getTitle(), "Saves after the snapshot should be replayed.");
+        }
+    }
+
+    /**
+     * This test method verifies that a record torn by a crash in the middle
+     * of a write is ignored on recovery, while every complete record before
+     * it is still replayed.
+     */
+    @Test
+    void testTornLogTailIsIgnored() throws IOException {
+        try (DocumentManager documentManager = open()) {
+            documentManager.save(new DocumentManager.Document("1", "title1", "content1", new DocumentManager.Author("1", "Tom"), Instant.now()));
+        }
+        Path log;
+        try (Stream<Path> files = Files.list(directory)) {
+            log = files.filter(path -> path.getFileName().toString().startsWith("wal-") && sizeOf(path) > 0).findFirst().orElseThrow();
+        }
+        Files.write(log, new byte[]{0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (DocumentManager documentManager = open()) {
+            assertEquals(List.of("1"), documentManager.search(null).stream().map(DocumentManager.Document::getId).toList(),
+                    "Complete records should be recovered and the torn one ignored.");
+            documentManager.save(new DocumentManager.Document("2", "title2", "content2", new DocumentManager.Author("1", "Tom"), Instant.now()));
+        }
+        try (DocumentManager documentManager = open()) {
+            assertEquals(2, documentManager.search(null).size(), "Saves after recovering from a torn log should be kept.");
+        }
+    }
+
+    /**
+     * This test method verifies the background sync mode, where saves do
+     * not wait for the disk and the log is synced at a fixed interval.
+     */
+    @Test
+    void testDocumentsAreRecoveredWithBackgroundSync() {
+        DocumentManager.Options options = DocumentManager.Options.builder()
+                .persistenceDirectory(directory)
+                .walSyncInterval(Duration.ofMillis(5))
+                .build();
+        try (DocumentManager documentManager = new DocumentManager(options)) {
+            for (int i = 0; i < 1_000; i++) {
+                documentManager.save(new DocumentManager.Document(null, "title", "content", new DocumentManager.Author("1", "Tom"), null));
+            }
+        }
+
+        try (DocumentManager documentManager = open()) {
+            assertEquals(1_000, documentManager.search(null).size(), "Every document should be recovered.");
+        }
+    }
+
+    /**
+     * This test method verifies that documents saved in a batch are written
+     * to the log and recovered after a restart.
+     */
+    @Test
+    void testBatchIsRecoveredFromLog() {
+        List<DocumentManager.Document> batch = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            batch.add(new DocumentManager.Document(i % 2 == 0 ? null : "id" + i, "title" + i, "content" + i, new DocumentManager.Author("1", "Tom"), null));
+        }
+        try (DocumentManager documentManager = open()) {
+            documentManager.saveAll(batch);
+        }
+
+        try (DocumentManager documentManager = open()) {
+            assertEquals(500, documentManager.search(null).size(), "Every document of the batch should be recovered.");
+            assertEquals("title1", documentManager.findById("id1").orElseThrow().getTitle());
+        }
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
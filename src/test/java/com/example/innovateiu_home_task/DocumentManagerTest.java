@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -339,4 +340,355 @@ public class DocumentManagerTest {
         assertEquals("Initial Title", savedDocument.getTitle(), "Title should not change.");
         assertEquals("Initial Content", savedDocument.getContent(), "Content should not change.");
     }
+
+    /**
+     * This test method verifies that the title index follows a title that
+     * changes on upsert. It saves a document, renames it, and asserts that
+     * a search by the old title prefix no longer finds it while a search by
+     * the new title prefix does.
+     */
+    @Test
+    void testSearchByTitlePrefixAfterTitleUpdate() {
+        documentManager.save(new DocumentManager.Document("1", "draft report", "content1", new DocumentManager.Author("1", "Tom"), Instant.now()));
+        documentManager.save(new DocumentManager.Document("1", "final report", null, null, null));
+
+        List<DocumentManager.Document> oldTitleResults = documentManager.search(new DocumentManager.SearchRequest(Collections.singletonList("draft"), null, null, null, null));
+        List<DocumentManager.Document> newTitleResults = documentManager.search(new DocumentManager.SearchRequest(Collections.singletonList("final"), null, null, null, null));
+
+        assertTrue(oldTitleResults.isEmpty(), "The old title should no longer be indexed.");
+        assertEquals(1, newTitleResults.size(), "The new title should be indexed.");
+        assertEquals("final report", newTitleResults.get(0).getTitle());
+    }
+
+    /**
+     * This test method verifies that the title index is updated when the
+     * caller mutates an already saved document instance and saves that same
+     * instance again.
+     */
+    @Test
+    void testSearchByTitlePrefixAfterSavingMutatedInstance() {
+        DocumentManager.Document document = documentManager.save(new DocumentManager.Document("1", "draft report", "content1", new DocumentManager.Author("1", "Tom"), Instant.now()));
+        document.setTitle("final report");
+        documentManager.save(document);
+
+        assertTrue(documentManager.search(new DocumentManager.SearchRequest(Collections.singletonList("draft"), null, null, null, null)).isEmpty(),
+                "The old title should no longer be indexed.");
+        assertEquals(1, documentManager.search(new DocumentManager.SearchRequest(Collections.singletonList("final"), null, null, null, null)).size(),
+                "The new title should be indexed.");
+    }
+
+    /**
+     * This test method verifies that a document matching several of the
+     * requested title prefixes is returned only once, and that documents
+     * sharing the same title are all returned.
+     */
+    @Test
+    void testSearchByOverlappingTitlePrefixes() {
+        documentManager.save(new DocumentManager.Document("1", "title1", "content1", new DocumentManager.Author("1", "Tom"), Instant.now()));
+        documentManager.save(new DocumentManager.Document("2", "title1", "content2", new DocumentManager.Author("2", "Jack"), Instant.now()));
+        documentManager.save(new DocumentManager.Document("3", "other", "content3", new DocumentManager.Author("3", "Mike"), Instant.now()));
+
+        List<DocumentManager.Document> results = documentManager.search(new DocumentManager.SearchRequest(List.of("ti", "title", "title1"), null, null, null, null));
+
+        assertEquals(2, results.size(), "Each matching document should be returned once.");
+    }
+
+    /**
+     * This test method verifies the search by content when the trigram
+     * content index is enabled. It saves documents with different contents,
+     * replaces the content of one of them, and asserts that keywords of the
+     * old content no longer find it, keywords of the new content do, and that
+     * any of several keywords is enough for a document to match.
+     */
+    @Test
+    void testSearchByContentWithContentIndex() {
+        documentManager = new DocumentManager(DocumentManager.Options.builder().contentIndexEnabled(true).build());
+        documentManager.save(new DocumentManager.Document("1", "title1", "quarterly revenue report", new DocumentManager.Author("1", "Tom"), Instant.now()));
+        documentManager.save(new DocumentManager.Document("2", "title2", "meeting notes", new DocumentManager.Author("2", "Jack"), Instant.now()));
+        documentManager.save(new DocumentManager.Document("1", null, "annual budget", null, null));
+
+        assertTrue(search(List.of("revenue")).isEmpty(), "Replaced content should no longer be indexed.");
+        assertEquals(List.of("1"), ids(search(List.of("budget"))), "New content should be indexed.");
+        assertEquals(List.of("1", "2"), ids(search(List.of("budget", "notes"))), "Any keyword should match.");
+        assertEquals(List.of("2"), ids(search(List.of("ee"))), "Keywords shorter than a trigram should still match.");
+        assertTrue(search(List.of("budget notes")).isEmpty(), "Trigram candidates should be confirmed by an exact match.");
+    }
+
+    private List<DocumentManager.Document> search(List<String> containsContents) {
+        return documentManager.search(new DocumentManager.SearchRequest(null, containsContents, null, null, null));
+    }
+
+    private static List<String> ids(List<DocumentManager.Document> documents) {
+        return documents.stream().map(DocumentManager.Document::getId).sorted().toList();
+    }
+
+    /**
+     * This test method verifies the search by author and creation range,
+     * the typical "author X in the last hour" query. It saves older and
+     * recent documents of two authors, moves one recent document to the
+     * other author, and asserts that only the recent documents of the
+     * requested author are returned.
+     */
+    @Test
+    void testSearchByAuthorIdAndDateRange() {
+        Instant now = Instant.parse("2024-08-19T10:15:30Z");
+        documentManager.save(new DocumentManager.Document("1", "title1", "content1", new DocumentManager.Author("1", "Tom"), now.minusSeconds(7200)));
+        documentManager.save(new DocumentManager.Document("2", "title2", "content2", new DocumentManager.Author("1", "Tom"), now.minusSeconds(600)));
+        documentManager.save(new DocumentManager.Document("3", "title3", "content3", new DocumentManager.Author("2", "Jack"), now.minusSeconds(300)));
+        documentManager.save(new DocumentManager.Document("4", "title4", "content4", new DocumentManager.Author("2", "Jack"), now.minusSeconds(60)));
+        documentManager.save(new DocumentManager.Document("4", null, null, new DocumentManager.Author("1", "Tom"), null));
+
+        DocumentManager.SearchRequest searchRequest = new DocumentManager.SearchRequest(null, null, Collections.singletonList("1"), now.minusSeconds(3600), now);
+        List<DocumentManager.Document> results = documentManager.search(searchRequest);
+
+        assertEquals(List.of("2", "4"), ids(results), "Should return the recent documents of author '1'.");
+    }
+
+    /**
+     * This test method verifies that combining every search criterion gives
+     * the same result no matter which index the search starts from. Many
+     * documents share a title prefix and a content keyword, so the author
+     * index is the most selective one, and only one of the author's
+     * documents matches the remaining criteria.
+     */
+    @Test
+    void testSearchWithAllCriteriaStartsFromMostSelectiveIndex() {
+        documentManager = new DocumentManager(DocumentManager.Options.builder().contentIndexEnabled(true).build());
+        Instant now = Instant.parse("2024-08-19T10:15:30Z");
+        for (int i = 0; i < 50; i++) {
+            documentManager.save(new DocumentManager.Document("doc" + i, "report " + i, "shared keyword " + i, new DocumentManager.Author("bulk", "Bulk"), now));
+        }
+        documentManager.save(new DocumentManager.Document("a", "report a", "shared keyword a", new DocumentManager.Author("1", "Tom"), now));
+        documentManager.save(new DocumentManager.Document("b", "memo b", "shared keyword b", new DocumentManager.Author("1", "Tom"), now));
+        documentManager.save(new DocumentManager.Document("c", "report c", "other", new DocumentManager.Author("1", "Tom"), now));
+
+        DocumentManager.SearchRequest searchRequest = new DocumentManager.SearchRequest(
+                Collections.singletonList("report"), Collections.singletonList("keyword"),
+                Collections.singletonList("1"), now.minusSeconds(60), now.plusSeconds(60));
+        List<DocumentManager.Document> results = documentManager.search(searchRequest);
+
+        assertEquals(List.of("a"), ids(results), "Should return only the document matching all criteria.");
+    }
+
+    /**
+     * This test method verifies paging through all documents in creation
+     * order. It saves five documents and reads them two at a time, passing
+     * the cursor of each page to the next request, and asserts that the
+     * pages follow the creation order, do not overlap, and that the last
+     * page has no next cursor.
+     */
+    @Test
+    void testSearchPagesInCreationOrder() {
+        Instant now = Instant.parse("2024-08-19T10:15:30Z");
+        for (int i = 5; i >= 1; i--) {
+            documentManager.save(new DocumentManager.Document(String.valueOf(i), "title" + i, "content" + i, new DocumentManager.Author("1", "Tom"), now.plusSeconds(i)));
+        }
+
+        List<String> ascending = collectPages(null, DocumentManager.SortOrder.CREATED_ASC, 2);
+        List<String> descending = collectPages(null, DocumentManager.SortOrder.CREATED_DESC, 2);
+
+        assertEquals(List.of("1", "2", "3", "4", "5"), ascending, "Pages should follow ascending creation order.");
+        assertEquals(List.of("5", "4", "3", "2", "1"), descending, "Pages should follow descending creation order.");
+    }
+
+    /**
+     * This test method verifies paging through a filtered result sorted by
+     * title. Only the documents of author '1' are requested, which the
+     * author index narrows down before the best matches are selected.
+     */
+    @Test
+    void testSearchPagesByTitleWithCriteria() {
+        Instant now = Instant.now();
+        documentManager.save(new DocumentManager.Document("1", "charlie", "content1", new DocumentManager.Author("1", "Tom"), now));
+        documentManager.save(new DocumentManager.Document("2", "alpha", "content2", new DocumentManager.Author("1", "Tom"), now));
+        documentManager.save(new DocumentManager.Document("3", "bravo", "content3", new DocumentManager.Author("2", "Jack"), now));
+        documentManager.save(new DocumentManager.Document("4", "bravo", "content4", new DocumentManager.Author("1", "Tom"), now));
+        DocumentManager.SearchRequest searchRequest = new DocumentManager.SearchRequest(null, null, Collections.singletonList("1"), null, null);
+
+        assertEquals(List.of("2", "4", "1"), collectPages(searchRequest, DocumentManager.SortOrder.TITLE, 2), "Pages should follow title order.");
+    }
+
+    /**
+     * This test method verifies that a cursor cannot be used with a sort
+     * order other than the one it was created for.
+     */
+    @Test
+    void testSearchPageRejectsCursorOfOtherSortOrder() {
+        documentManager.save(new DocumentManager.Document("1", "title1", "content1", new DocumentManager.Author("1", "Tom"), Instant.now()));
+        String cursor = documentManager.search(null, DocumentManager.PageRequest.builder().limit(1).sort(DocumentManager.SortOrder.TITLE).build()).getNextCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> documentManager.search(null,
+                DocumentManager.PageRequest.builder().limit(1).sort(DocumentManager.SortOrder.CREATED_ASC).cursor(cursor).build()));
+    }
+
+    /**
+     * This test method verifies paging by title through documents whose
+     * titles are longer than 64 KB in UTF-8, and that a truncated cursor is
+     * rejected as malformed.
+     */
+    @Test
+    void testSearchPagesWithVeryLongTitles() {
+        Instant now = Instant.now();
+        documentManager.save(new DocumentManager.Document("1", "b" + "é".repeat(40_000), "content1", new DocumentManager.Author("1", "Tom"), now));
+        documentManager.save(new DocumentManager.Document("2", "a" + "é".repeat(40_000), "content2", new DocumentManager.Author("1", "Tom"), now));
+        documentManager.save(new DocumentManager.Document("3", "c", "content3", new DocumentManager.Author("1", "Tom"), now));
+
+        assertEquals(List.of("2", "1", "3"), collectPages(null, DocumentManager.SortOrder.TITLE, 1), "Long titles should page in title order.");
+
+        String cursor = documentManager.search(null, DocumentManager.PageRequest.builder().limit(1).sort(DocumentManager.SortOrder.TITLE).build()).getNextCursor();
+        assertThrows(IllegalArgumentException.class, () -> documentManager.search(null, DocumentManager.PageRequest.builder()
+                .limit(1).sort(DocumentManager.SortOrder.TITLE).cursor(cursor.substring(0, cursor.length() / 2)).build()));
+    }
+
+    private List<String> collectPages(DocumentManager.SearchRequest searchRequest, DocumentManager.SortOrder sort, int limit) {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            DocumentManager.SearchPage page = documentManager.search(searchRequest, DocumentManager.PageRequest.builder().limit(limit).sort(sort).cursor(cursor).build());
+            assertTrue(page.getDocuments().size() <= limit, "A page should never exceed the limit.");
+            page.getDocuments().forEach(document -> ids.add(document.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    /**
+     * This test method verifies that a search split across parallel workers
+     * returns exactly what the sequential scan returns, in the same order.
+     * The parallel threshold is set to zero so that every scan large enough
+     * to be split runs in parallel.
+     */
+    @Test
+    void testParallelSearchMatchesSequentialSearch() {
+        documentManager = new DocumentManager(DocumentManager.Options.builder().searchParallelism(4).parallelSearchThreshold(0).build());
+        Instant now = Instant.parse("2024-08-19T10:15:30Z");
+        for (int i = 0; i < 5_000; i++) {
+            documentManager.save(new DocumentManager.Document(String.valueOf(i), "title" + i, "content" + (i % 7 == 0 ? " needle" : ""),
+                    new DocumentManager.Author(String.valueOf(i % 3), "Author"), now.plusSeconds(i)));
+        }
+        DocumentManager.SearchRequest searchRequest = new DocumentManager.SearchRequest(null, Collections.singletonList("needle"), null, null, null);
+
+        List<DocumentManager.Document> parallel = documentManager.search(searchRequest);
+        List<DocumentManager.Document> sequential = documentManager.stream(searchRequest).toList();
+
+        assertEquals(715, parallel.size(), "Should return every document containing the keyword.");
+        assertEquals(sequential, parallel, "Parallel search should return the sequential result in the same order.");
+    }
+
+    /**
+     * This test method verifies that reusing and mutating the same search
+     * request object does not return results of a previously compiled
+     * version of that request.
+     */
+    @Test
+    void testSearchWithMutatedRequest() {
+        documentManager.save(new DocumentManager.Document("1", "title1", "content1", new DocumentManager.Author("1", "Tom"), Instant.now()));
+        documentManager.save(new DocumentManager.Document("2", "title2", "content2", new DocumentManager.Author("2", "Jack"), Instant.now()));
+        List<String> authorIds = new ArrayList<>(List.of("1"));
+        DocumentManager.SearchRequest searchRequest = new DocumentManager.SearchRequest(null, null, authorIds, null, null);
+
+        assertEquals(List.of("1"), ids(documentManager.search(searchRequest)));
+        authorIds.set(0, "2");
+        assertEquals(List.of("2"), ids(documentManager.search(searchRequest)), "The mutated request should be compiled again.");
+    }
+
+    /**
+     * This test method verifies that saving a batch gives the same result as
+     * saving each document in order. The batch mixes new documents without
+     * an ID, a new document with an ID, and a later partial update of that
+     * same document. The test asserts that IDs and creation times are
+     * generated, the update is merged, and the indexes find the documents.
+     */
+    @Test
+    void testSaveAll() {
+        documentManager = new DocumentManager(DocumentManager.Options.builder().contentIndexEnabled(true).build());
+        Instant created = Instant.parse("2024-08-19T10:15:30Z");
+        List<DocumentManager.Document> saved = documentManager.saveAll(List.of(
+                new DocumentManager.Document(null, "title1", "alpha content", new DocumentManager.Author("1", "Tom"), null),
+                new DocumentManager.Document("2", "title2", "beta content", new DocumentManager.Author("2", "Jack"), created),
+                new DocumentManager.Document(null, "title3", "gamma content", new DocumentManager.Author("1", "Tom"), null),
+                new DocumentManager.Document("2", "updated title2", null, new DocumentManager.Author("2", "Jack"), null)));
+
+        assertEquals(4, saved.size());
+        assertNotNull(saved.get(0).getId(), "ID should be generated");
+        assertNotNull(saved.get(0).getCreated(), "Creation date should be set");
+        assertNotEquals(saved.get(0).getId(), saved.get(2).getId(), "Generated IDs should be unique");
+        DocumentManager.Document updated = documentManager.findById("2").orElseThrow();
+        assertEquals("updated title2", updated.getTitle(), "The later update should win");
+        assertEquals("beta content", updated.getContent(), "The content should be merged");
+        assertEquals(created, updated.getCreated(), "Creation time should not change");
+        assertEquals(3, documentManager.search(null).size());
+        assertEquals(List.of(saved.get(2).getId()), ids(search(List.of("gamma"))), "Batch inserts should be in the content index.");
+        assertEquals(2, documentManager.search(new DocumentManager.SearchRequest(null, null, Collections.singletonList("1"), null, null)).size(),
+                "Batch inserts should be in the author index.");
+    }
+
+    /**
+     * This test method verifies the parallel bulk load. It saves a large batch
+     * of new documents plus repeated updates of a few existing documents, and
+     * asserts that every document is stored and that the updates of each
+     * document were applied in order.
+     */
+    @Test
+    void testSaveAllInParallel() {
+        List<DocumentManager.Document> batch = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            batch.add(new DocumentManager.Document(null, "title" + i, "content" + i, new DocumentManager.Author(String.valueOf(i % 10), "Author"), null));
+        }
+        for (int round = 0; round < 100; round++) {
+            for (int id = 0; id < 5; id++) {
+                batch.add(new DocumentManager.Document("doc" + id, "title" + round, "content" + round, new DocumentManager.Author("1", "Tom"), null));
+            }
+        }
+
+        documentManager.saveAll(batch, 4);
+
+        assertEquals(10_005, documentManager.search(null).size(), "Every document should be stored.");
+        assertEquals(1_000, documentManager.search(new DocumentManager.SearchRequest(null, null, Collections.singletonList("7"), null, null)).size());
+        for (int id = 0; id < 5; id++) {
+            assertEquals("title99", documentManager.findById("doc" + id).orElseThrow().getTitle(), "The last update should win.");
+        }
+    }
+
+    /**
+     * This test method verifies searches that ignore case and accents, with
+     * folded texts computed on save and with folding on the fly. In both
+     * setups a lower-case prefix finds capitalized titles, an unaccented
+     * keyword finds accented content, and exact searches stay
+     * case-sensitive even though the content index holds folded trigrams.
+     */
+    @Test
+    void testSearchIgnoringCaseAndAccents() {
+        for (boolean folded : List.of(true, false)) {
+            documentManager = new DocumentManager(DocumentManager.Options.builder()
+                    .contentIndexEnabled(true)
+                    .foldedMatchingEnabled(folded)
+                    .build());
+            documentManager.save(new DocumentManager.Document("1", "Report Q1", "Meeting at the Café", new DocumentManager.Author("1", "Tom"), Instant.now()));
+            documentManager.save(new DocumentManager.Document("2", "résumé", "plain notes", new DocumentManager.Author("2", "Jack"), Instant.now()));
+            documentManager.save(new DocumentManager.Document("3", "Draft", "CAFE MENU", new DocumentManager.Author("2", "Jack"), Instant.now()));
+
+            assertEquals(List.of("1"), ids(documentManager.search(DocumentManager.SearchRequest.builder()
+                    .titlePrefixes(List.of("rep"))
+                    .matchMode(DocumentManager.MatchMode.IGNORE_CASE_AND_ACCENTS)
+                    .build())), "A lower-case prefix should match a capitalized title.");
+            assertEquals(List.of("2"), ids(documentManager.search(DocumentManager.SearchRequest.builder()
+                    .titlePrefixes(List.of("RESU"))
+                    .matchMode(DocumentManager.MatchMode.IGNORE_CASE_AND_ACCENTS)
+                    .build())), "An unaccented prefix should match an accented title.");
+            assertEquals(List.of("1", "3"), ids(documentManager.search(DocumentManager.SearchRequest.builder()
+                    .containsContents(List.of("cafe"))
+                    .matchMode(DocumentManager.MatchMode.IGNORE_CASE_AND_ACCENTS)
+                    .build())), "Keywords should match regardless of case and accents.");
+            assertEquals(List.of("1"), ids(search(List.of("Café"))), "Exact keywords should stay case and accent sensitive.");
+            assertTrue(documentManager.search(new DocumentManager.SearchRequest(List.of("rep"), null, null, null, null)).isEmpty(),
+                    "Exact prefixes should stay case-sensitive.");
+
+            documentManager.save(new DocumentManager.Document("1", "Summary", null, null, null));
+            assertTrue(documentManager.search(DocumentManager.SearchRequest.builder()
+                    .titlePrefixes(List.of("report"))
+                    .matchMode(DocumentManager.MatchMode.IGNORE_CASE_AND_ACCENTS)
+                    .build()).isEmpty(), "A replaced title should no longer match.");
+        }
+    }
 }
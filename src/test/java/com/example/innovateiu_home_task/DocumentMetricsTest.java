@@ -0,0 +1,129 @@
+package com.example.innovateiu_home_task;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DocumentMetricsTest {
+
+    /**
+     * This test method verifies that an instrumented document manager
+     * records save, find and search latencies, counts inserts and updates,
+     * tags search meters with the criteria that were set, and reports the
+     * number of stored documents and their estimated memory.
+     */
+    @Test
+    void testOperationsAreRecorded() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .meterRegistry(registry)
+                .build());
+        documentManager.save(new DocumentManager.Document(null, "title1", "content1", new DocumentManager.Author("1", "Tom"), null));
+        documentManager.save(new DocumentManager.Document("2", "title2", "content2", new DocumentManager.Author("2", "Jack"), Instant.now()));
+        documentManager.save(new DocumentManager.Document("2", "title2 updated", null, new DocumentManager.Author("2", "Jack"), null));
+        documentManager.findById("2");
+        documentManager.search(DocumentManager.SearchRequest.builder()
+                .titlePrefixes(List.of("title"))
+                .authorIds(List.of("2"))
+                .build());
+
+        assertEquals(3, registry.get("documents.save").timer().count(), "Every save should be timed.");
+        assertEquals(1, registry.get("documents.find").timer().count(), "Every find should be timed.");
+        assertEquals(2, registry.get("documents.writes").tag("type", "insert").counter().count(), "Two documents were inserted.");
+        assertEquals(1, registry.get("documents.writes").tag("type", "update").counter().count(), "One document was updated.");
+        assertEquals(1, registry.get("documents.search").tag("criteria", "title+author").timer().count(), "The search should be tagged with its criteria.");
+        assertEquals(1, registry.get("documents.search.matched").tag("criteria", "title+author").summary().totalAmount(), "One document matched.");
+        assertTrue(registry.get("documents.search.scanned").tag("criteria", "title+author").summary().totalAmount() >= 1, "The match was scanned.");
+        assertEquals(2, registry.get("documents.stored").gauge().value(), "Two documents are stored.");
+        assertTrue(registry.get("documents.memory.estimated").gauge().value() > 0, "Stored documents take memory.");
+    }
+
+    /**
+     * This test method verifies that the memory estimate covers the indexes
+     * kept for every document on top of the storage estimate, grows with
+     * the indexed titles and drops back once the documents are deleted.
+     */
+    @Test
+    void testMemoryEstimateCoversIndexes() {
+        DocumentIndexes indexes = new DocumentIndexes(DocumentManager.Options.builder().build());
+        for (int i = 0; i < 100; i++) {
+            indexes.update(new DocumentManager.Document("id" + i, "title" + i, "content", new DocumentManager.Author("1", "Tom"), Instant.now()));
+        }
+        long estimate = indexes.estimatedBytes();
+        assertTrue(estimate >= 100 * 100, "Every indexed document takes index memory.");
+        indexes.update(new DocumentManager.Document("id0", "a much longer title than before", "content", null, null));
+        assertTrue(indexes.estimatedBytes() > estimate, "Longer titles take more memory.");
+        for (int i = 0; i < 100; i++) {
+            indexes.remove("id" + i);
+        }
+        assertEquals(0, indexes.estimatedBytes());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .storageBackend(DocumentManager.StorageBackend.COLUMNAR)
+                .meterRegistry(registry)
+                .build());
+        double empty = registry.get("documents.memory.estimated").gauge().value();
+        for (int i = 0; i < 100; i++) {
+            documentManager.save(new DocumentManager.Document(null, "title" + i, "content", new DocumentManager.Author("1", "Tom"), Instant.now()));
+        }
+        assertTrue(registry.get("documents.memory.estimated").gauge().value() - empty >= estimate,
+                "The estimate should include the indexes of the stored documents.");
+        documentManager.close();
+    }
+
+    /**
+     * This test method verifies that the shards of a sharded manager sharing
+     * a registry register their meters under their own shard tag, so that
+     * every shard reports its own stored documents.
+     */
+    @Test
+    void testShardMetersAreTagged() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (ShardedDocumentManager documentManager = new ShardedDocumentManager(2, DocumentManager.Options.builder()
+                .meterRegistry(registry)
+                .build())) {
+            for (int i = 0; i < 20; i++) {
+                documentManager.save(new DocumentManager.Document(null, "title" + i, "content" + i, new DocumentManager.Author("1", "Tom"), null));
+            }
+            double first = registry.get("documents.stored").tag("shard", "0").gauge().value();
+            double second = registry.get("documents.stored").tag("shard", "1").gauge().value();
+            assertEquals(20, first + second, "The shard gauges should add up to all documents.");
+            assertTrue(first > 0 && second > 0, "Both shards should report their own documents.");
+            assertEquals(20, registry.get("documents.writes").tag("type", "insert").counters().stream()
+                    .mapToDouble(Counter::count).sum(), "Every shard should count its own inserts.");
+        }
+    }
+
+    /**
+     * This test method verifies that a search with several selective
+     * criteria only checks the documents that all of its indexes yield: the
+     * scanned count equals the intersection, not the smallest single index
+     * result.
+     */
+    @Test
+    void testSearchScansIntersectionOfIndexes() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .meterRegistry(registry)
+                .build());
+        Instant start = Instant.parse("2024-08-19T00:00:00Z");
+        for (int i = 0; i < 100; i++) {
+            documentManager.save(new DocumentManager.Document("id" + i, "title", "content",
+                    new DocumentManager.Author(String.valueOf(i % 2), "Tom"), start.plusSeconds(3600L * i)));
+        }
+        List<DocumentManager.Document> results = documentManager.search(DocumentManager.SearchRequest.builder()
+                .authorIds(List.of("1"))
+                .createdFrom(start.plusSeconds(3600L * 60))
+                .build());
+
+        assertEquals(20, results.size());
+        assertEquals(20, registry.get("documents.search.scanned").tag("criteria", "author+created").summary().totalAmount(),
+                "Only the documents in both index results should be checked.");
+    }
+}
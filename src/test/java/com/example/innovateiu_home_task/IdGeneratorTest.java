@@ -0,0 +1,80 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdGeneratorTest {
+
+    /**
+     * This test method verifies that the collision-free generators never
+     * repeat an ID across threads, and that the time-ordered generators
+     * produce IDs that sort in generation order.
+     */
+    @Test
+    void testBuiltInGeneratorsAreUniqueAndOrdered() {
+        for (IdGenerator generator : List.of(IdGenerator.timeOrderedUuid(), IdGenerator.counter("n1-"), IdGenerator.snowflake(7))) {
+            assertTrue(generator.isCollisionFree());
+            Set<String> ids = ConcurrentHashMap.newKeySet();
+            IntStream.range(0, 8).parallel().forEach(thread -> {
+                for (int i = 0; i < 20_000; i++) {
+                    assertTrue(ids.add(generator.nextId()), "IDs should never repeat.");
+                }
+            });
+        }
+
+        for (IdGenerator generator : List.of(IdGenerator.timeOrderedUuid(), IdGenerator.snowflake(1023))) {
+            List<String> ids = generator.nextIds(10_000);
+            List<String> sorted = new ArrayList<>(ids);
+            sorted.sort(null);
+            assertEquals(ids, sorted, "Time-ordered IDs should sort in generation order.");
+        }
+        assertEquals(7, UUID.fromString(IdGenerator.timeOrderedUuid().nextId()).version());
+        assertEquals(19, IdGenerator.snowflake(0).nextId().length());
+        assertThrows(IllegalArgumentException.class, () -> IdGenerator.snowflake(1024));
+    }
+
+    /**
+     * This test method verifies that a document manager assigns IDs from the
+     * configured generator on save and saveAll, and that both still retry
+     * when a client already took a generated ID.
+     */
+    @Test
+    void testDocumentManagerUsesGenerator() {
+        DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .idGenerator(IdGenerator.counter("node-"))
+                .build());
+        DocumentManager.Document saved = documentManager.save(new DocumentManager.Document(null, "title1", "content1", new DocumentManager.Author("1", "Tom"), null));
+        assertTrue(saved.getId().startsWith("node-"));
+
+        List<DocumentManager.Document> batch = documentManager.saveAll(List.of(
+                new DocumentManager.Document(null, "title2", "content2", new DocumentManager.Author("1", "Tom"), null),
+                new DocumentManager.Document(null, "title3", "content3", new DocumentManager.Author("1", "Tom"), null)));
+        assertEquals(3, Set.of(saved.getId(), batch.get(0).getId(), batch.get(1).getId()).size());
+
+        DocumentManager.Document collision = documentManager.save(new DocumentManager.Document(null, "title4", "content4", new DocumentManager.Author("1", "Tom"), null));
+        String nextId = "node-" + Long.toString(Long.parseLong(collision.getId().substring(5), 36) + 1, 36);
+        documentManager.save(new DocumentManager.Document(nextId, "taken", "taken", new DocumentManager.Author("2", "Jack"), null));
+        DocumentManager.Document afterCollision = documentManager.save(new DocumentManager.Document(null, "title5", "content5", new DocumentManager.Author("1", "Tom"), null));
+        assertNotEquals(nextId, afterCollision.getId());
+        assertEquals("taken", documentManager.findById(nextId).orElseThrow().getTitle(), "A taken ID should not be overwritten.");
+        assertEquals(6, documentManager.search(null).size());
+
+        String batchId = "node-" + Long.toString(Long.parseLong(afterCollision.getId().substring(5), 36) + 2, 36);
+        documentManager.save(new DocumentManager.Document(batchId, "taken", "taken", new DocumentManager.Author("2", "Jack"), null));
+        List<DocumentManager.Document> batchAfterCollision = documentManager.saveAll(List.of(
+                new DocumentManager.Document(null, "title6", "content6", new DocumentManager.Author("1", "Tom"), null),
+                new DocumentManager.Document(null, "title7", "content7", new DocumentManager.Author("1", "Tom"), null)));
+        assertTrue(batchAfterCollision.stream().noneMatch(document -> document.getId().equals(batchId)),
+                "A batch should get a new ID instead of a taken one.");
+        assertEquals("taken", documentManager.findById(batchId).orElseThrow().getTitle(), "A batch should not overwrite a taken ID.");
+        assertEquals(9, documentManager.search(null).size());
+    }
+}
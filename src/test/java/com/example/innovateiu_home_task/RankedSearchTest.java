@@ -0,0 +1,155 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RankedSearchTest {
+
+    /**
+     * This test method verifies ranked search on a document manager: more
+     * relevant documents come first, title terms weigh more than content
+     * terms, matching ignores case and accents, the filter and the limit are
+     * applied, and updated or deleted documents are ranked by their latest
+     * texts.
+     */
+    @Test
+    void testDocumentsAreRankedByRelevance() {
+        DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .rankedSearchEnabled(true)
+                .build());
+        documentManager.save(new DocumentManager.Document("1", "Java tips", "Streams and records.", new DocumentManager.Author("1", "Tom"), Instant.now()));
+        documentManager.save(new DocumentManager.Document("2", "Cooking", "Java is also an island. Café java.", new DocumentManager.Author("2", "Jack"), Instant.now()));
+        documentManager.save(new DocumentManager.Document("3", "Gardening", "Roses and tulips.", new DocumentManager.Author("1", "Tom"), Instant.now()));
+        documentManager.save(new DocumentManager.Document("4", "Travel", "A trip to the CAFE.", new DocumentManager.Author("1", "Tom"), Instant.now()));
+
+        List<DocumentManager.ScoredDocument> results = documentManager.searchRanked("java", null, 10);
+        assertEquals(List.of("1", "2"), results.stream().map(result -> result.getDocument().getId()).toList(),
+                "A title match should outrank content matches.");
+        assertTrue(results.get(0).getScore() > results.get(1).getScore());
+
+        assertEquals(List.of("2", "4"), documentManager.searchRanked("cafe", null, 10).stream()
+                .map(result -> result.getDocument().getId()).sorted().toList(), "Terms should match ignoring case and accents.");
+        assertEquals(1, documentManager.searchRanked("java", null, 1).size(), "The limit should be applied.");
+        DocumentManager.SearchRequest byAuthor = DocumentManager.SearchRequest.builder().authorIds(List.of("2")).build();
+        assertEquals("2", documentManager.searchRanked("java cafe", byAuthor, 10).get(0).getDocument().getId(),
+                "The filter should be applied.");
+        assertEquals(1, documentManager.searchRanked("java cafe", byAuthor, 10).size());
+
+        documentManager.save(new DocumentManager.Document("1", "Kotlin tips", null, new DocumentManager.Author("1", "Tom"), null));
+        documentManager.deleteById("2");
+        assertTrue(documentManager.searchRanked("java", null, 10).isEmpty(), "Old texts and deleted documents should not rank.");
+        assertEquals("1", documentManager.searchRanked("kotlin", null, 10).get(0).getDocument().getId());
+
+        assertThrows(IllegalArgumentException.class, () -> documentManager.searchRanked("java", null, 0));
+        assertThrows(IllegalStateException.class, () -> new DocumentManager().searchRanked("java", null, 10));
+    }
+
+    /**
+     * This test method verifies that MaxScore pruning does not change the
+     * result: the top results of a random corpus equal the head of the
+     * exhaustive ranking, with the same scores.
+     */
+    @Test
+    void testTopResultsMatchExhaustiveRanking() {
+        RankedIndex index = new RankedIndex();
+        Random random = new Random(42);
+        int documents = 2000;
+        for (int i = 0; i < documents; i++) {
+            index.update("d" + i, words(random, 3), words(random, 5 + random.nextInt(60)));
+        }
+        for (int i = 0; i < 200; i++) {
+            index.remove("d" + random.nextInt(documents));
+        }
+
+        for (String query : List.of("w1 w7", "w0 w3 w19 w40", "w2 w2 w5", "w55 w1 w0")) {
+            List<RankedIndex.Hit<String>> all = index.top(query, documents, Function.identity());
+            List<RankedIndex.Hit<String>> top = index.top(query, 10, Function.identity());
+            assertEquals(10, top.size());
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(all.get(i).score(), top.get(i).score(), 1e-9, "The top scores should match the exhaustive ranking.");
+            }
+        }
+    }
+
+    /**
+     * This test method verifies that rankings stay exact while the ranked
+     * index reuses the ordinals of removed documents: after rounds of
+     * removals and new documents, every query ranks like an index built
+     * from the remaining documents alone.
+     */
+    @Test
+    void testRankingAfterOrdinalReuse() {
+        RankedIndex index = new RankedIndex();
+        Map<String, String[]> texts = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            String[] text = {words(random, 3), words(random, 5 + random.nextInt(40))};
+            index.update("d" + i, text[0], text[1]);
+            texts.put("d" + i, text);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++) {
+                String id = "d" + random.nextInt(500);
+                index.remove(id);
+                texts.remove(id);
+            }
+            for (int i = 0; i < 100; i++) {
+                String[] text = {words(random, 3), words(random, 5 + random.nextInt(40))};
+                index.update("r" + round + "-" + i, text[0], text[1]);
+                texts.put("r" + round + "-" + i, text);
+            }
+
+            RankedIndex rebuilt = new RankedIndex();
+            texts.forEach((id, text) -> rebuilt.update(id, text[0], text[1]));
+            for (String query : List.of("w1 w7", "w0 w3 w19 w40", "w55 w1 w0")) {
+                List<RankedIndex.Hit<String>> expected = rebuilt.top(query, texts.size(), Function.identity());
+                List<RankedIndex.Hit<String>> actual = index.top(query, texts.size(), Function.identity());
+                assertEquals(expected.size(), actual.size(), "round " + round + ": matches of " + query);
+                Map<String, Double> expectedScores = new HashMap<>();
+                expected.forEach(hit -> expectedScores.put(hit.value(), hit.score()));
+                for (RankedIndex.Hit<String> hit : actual) {
+                    assertEquals(expectedScores.get(hit.value()), hit.score(), 1e-9, "round " + round + ": score of " + hit.value());
+                }
+            }
+        }
+    }
+
+    /**
+     * This test method verifies that a query whose postings were read before
+     * a document was removed does not rank the document that reuses its
+     * ordinal by the removed document's terms.
+     */
+    @Test
+    void testReusedOrdinalIsNotScoredWithStalePostings() {
+        RankedIndex index = new RankedIndex();
+        index.update("a", "java", null);
+        index.update("b", "java", null);
+        List<RankedIndex.Hit<String>> hits = index.top("java", 10, id -> {
+            if (id.equals("a")) {
+                index.remove("b");
+                index.update("c", "kotlin", null);
+            }
+            return id;
+        });
+        assertEquals(List.of("a"), hits.stream().map(RankedIndex.Hit::value).toList());
+    }
+
+    /**
+     * Draws words with a skewed frequency: low numbered words are common.
+     */
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append('w').append((int) (60 * Math.pow(random.nextDouble(), 3))).append(' ');
+        }
+        return text.toString();
+    }
+}
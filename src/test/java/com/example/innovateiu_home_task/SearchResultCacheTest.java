@@ -0,0 +1,122 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchResultCacheTest {
+
+    private static final DocumentManager.SearchRequest TOM = DocumentManager.SearchRequest.builder().authorIds(List.of("1")).build();
+    private static final DocumentManager.SearchRequest JACK = DocumentManager.SearchRequest.builder().authorIds(List.of("2")).build();
+
+    /**
+     * This test method verifies that a save only drops the cached results it
+     * can affect: the entry whose request matches the new version and the
+     * entry whose result held the old version, but not unrelated entries,
+     * whichever criterion the entries are filed under.
+     */
+    @Test
+    void testInvalidationIsPrecise() {
+        SearchResultCache cache = new SearchResultCache(100, null);
+        DocumentManager.SearchRequest mike = DocumentManager.SearchRequest.builder().authorIds(List.of("3")).build();
+        DocumentManager.SearchRequest titled = DocumentManager.SearchRequest.builder().titlePrefixes(List.of("ti")).build();
+        DocumentManager.SearchRequest otherTitle = DocumentManager.SearchRequest.builder().titlePrefixes(List.of("zz", "ta")).build();
+        DocumentManager.SearchRequest byContent = DocumentManager.SearchRequest.builder().containsContents(List.of("cont")).build();
+        cache(cache, TOM, List.of(document("a", "1")));
+        cache(cache, JACK, List.of(document("b", "2")));
+        cache(cache, mike, List.of());
+        cache(cache, titled, List.of());
+        cache(cache, otherTitle, List.of());
+        cache(cache, byContent, List.of());
+
+        // document "a" moves from Tom to Jack
+        cache.invalidate(document("a", "2"));
+
+        assertNull(cache.get(TOM), "The result that held the old version should be dropped.");
+        assertNull(cache.get(JACK), "The result the new version matches should be dropped.");
+        assertNull(cache.get(titled), "A title prefix result the new version matches should be dropped.");
+        assertNull(cache.get(byContent), "A content result the new version matches should be dropped.");
+        assertNotNull(cache.get(mike), "An unaffected result should be kept.");
+        assertNotNull(cache.get(otherTitle), "An unaffected title prefix result should be kept.");
+    }
+
+    /**
+     * This test method verifies that a search still running while a document
+     * is saved does not cache its result if the save could have changed it,
+     * while a search the save cannot affect is cached.
+     */
+    @Test
+    void testSaveDuringLoadPreventsStaleEntry() {
+        SearchResultCache cache = new SearchResultCache(100, null);
+        SearchResultCache.Load tomLoad = cache.startLoad(new SearchMatcher(TOM));
+        SearchResultCache.Load jackLoad = cache.startLoad(new SearchMatcher(JACK));
+        SearchResultCache.Load oldVersionLoad = cache.startLoad(new SearchMatcher(JACK));
+
+        cache.invalidate(document("a", "1"));
+
+        cache.put(TOM, tomLoad, List.of());
+        assertNull(cache.get(TOM), "A load whose request matches the saved document should not be cached.");
+        cache.put(JACK, oldVersionLoad, List.of(document("a", "2")));
+        assertNull(cache.get(JACK), "A load that saw the old version should not be cached.");
+        cache.put(JACK, jackLoad, List.of(document("b", "2")));
+        assertNotNull(cache.get(JACK), "A load the save cannot affect should be cached.");
+    }
+
+    /**
+     * This test method verifies that the cache never holds more result
+     * documents than its bound, evicting the least recently used entries
+     * first, and that entries expire after the time to live.
+     */
+    @Test
+    void testMemoryBoundAndTtl() throws InterruptedException {
+        SearchResultCache bounded = new SearchResultCache(3, null);
+        DocumentManager.SearchRequest mike = DocumentManager.SearchRequest.builder().authorIds(List.of("3")).build();
+        cache(bounded, TOM, List.of(document("a", "1")));
+        cache(bounded, JACK, List.of(document("b", "2")));
+        assertNotNull(bounded.get(TOM));
+        cache(bounded, mike, List.of(document("c", "3"), document("d", "3")));
+        assertNull(bounded.get(JACK), "The least recently used entry should be evicted.");
+        assertNotNull(bounded.get(TOM), "A recently used entry should be kept.");
+        assertNotNull(bounded.get(mike), "The newest entry should be kept.");
+
+        SearchResultCache expiring = new SearchResultCache(100, Duration.ofMillis(20));
+        cache(expiring, TOM, List.of(document("a", "1")));
+        assertNotNull(expiring.get(TOM), "A fresh entry should be served.");
+        Thread.sleep(40);
+        assertNull(expiring.get(TOM), "An expired entry should not be served.");
+    }
+
+    /**
+     * This test method verifies through the document manager that cached
+     * results follow saves: repeated searches return the same documents,
+     * and a save that changes what matches is visible to the next search.
+     */
+    @Test
+    void testDocumentManagerServesFreshResults() {
+        DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .searchCacheMaxDocuments(1_000)
+                .build());
+        documentManager.save(document("a", "1"));
+        documentManager.save(document("b", "2"));
+
+        assertEquals(1, documentManager.search(TOM).size(), "Tom has one document.");
+        assertEquals(1, documentManager.search(TOM).size(), "A repeated search should return the same result.");
+
+        documentManager.save(document("b", "1"));
+        documentManager.save(new DocumentManager.Document(null, "title", "content", new DocumentManager.Author("1", "Tom"), null));
+        assertEquals(3, documentManager.search(TOM).size(), "Saves should be visible to cached searches.");
+        assertEquals(0, documentManager.search(JACK).size(), "A moved document should leave the old result.");
+    }
+
+    private static void cache(SearchResultCache cache, DocumentManager.SearchRequest request, List<DocumentManager.Document> documents) {
+        cache.put(request, cache.startLoad(new SearchMatcher(request)), documents);
+    }
+
+    private static DocumentManager.Document document(String id, String authorId) {
+        return new DocumentManager.Document(id, "title", "content", new DocumentManager.Author(authorId, "Name"), Instant.parse("2024-08-19T10:15:30Z"));
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedDocumentManagerTest {
+
+    /**
+     * This test method verifies that documents saved through the sharded
+     * manager are spread over the shards, found by ID, and that searches and
+     * pages gather the matches of every shard in the requested order.
+     */
+    @Test
+    void testScatterGatherSearch() {
+        try (ShardedDocumentManager documentManager = new ShardedDocumentManager(4, DocumentManager.Options.builder().build())) {
+            List<DocumentManager.Document> saved = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                saved.add(documentManager.save(new DocumentManager.Document(null, "title" + i, "content" + i,
+                        new DocumentManager.Author(String.valueOf(i % 2), "Tom"), Instant.ofEpochSecond(1000 + i))));
+            }
+            Set<Integer> usedShards = new HashSet<>();
+            for (DocumentManager.Document document : saved) {
+                usedShards.add(ShardedDocumentManager.shardIndex(document.getId(), 4));
+                assertEquals(document, documentManager.findById(document.getId()).orElseThrow());
+            }
+            assertEquals(4, usedShards.size(), "Forty documents should land on every shard.");
+
+            assertEquals(20, documentManager.search(DocumentManager.SearchRequest.builder().authorIds(List.of("1")).build()).size());
+
+            List<DocumentManager.Document> paged = new ArrayList<>();
+            String cursor = null;
+            do {
+                DocumentManager.SearchPage page = documentManager.search(null,
+                        DocumentManager.PageRequest.builder().limit(7).sort(DocumentManager.SortOrder.CREATED_DESC).cursor(cursor).build());
+                paged.addAll(page.getDocuments());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            List<DocumentManager.Document> expected = new ArrayList<>(saved);
+            expected.sort(DocumentManager.SortOrder.CREATED_DESC.comparator());
+            assertEquals(expected, paged, "Merged pages should list every document once, in order.");
+        }
+    }
+
+    /**
+     * This test method verifies that the sharded manager generates missing
+     * IDs with the ID generator of its options, for single and batch saves,
+     * and that a saved batch comes back in a modifiable list.
+     */
+    @Test
+    void testIdsComeFromConfiguredGenerator() {
+        try (ShardedDocumentManager documentManager = new ShardedDocumentManager(3, DocumentManager.Options.builder()
+                .idGenerator(IdGenerator.counter("n1-"))
+                .build())) {
+            DocumentManager.Document saved = documentManager.save(new DocumentManager.Document(null, "title", "content", null, null));
+            assertTrue(saved.getId().startsWith("n1-"), "A single save should use the configured generator.");
+            List<DocumentManager.Document> batch = documentManager.saveAll(List.of(
+                    new DocumentManager.Document(null, "title1", null, null, null),
+                    new DocumentManager.Document(null, "title2", null, null, null)));
+            assertTrue(batch.stream().allMatch(document -> document.getId().startsWith("n1-")), "A batch save should use the configured generator.");
+            assertEquals(3, documentManager.search(null).size());
+            assertDoesNotThrow(() -> batch.remove(0), "The saved batch should be modifiable, like that of a document manager.");
+        }
+    }
+
+    /**
+     * This test method verifies that growing the shard count keeps every
+     * document findable and searchable, that updates after the resize merge
+     * with the moved documents, and that an ID never moves between two old
+     * shards.
+     */
+    @Test
+    void testResize() {
+        try (ShardedDocumentManager documentManager = new ShardedDocumentManager(2, DocumentManager.Options.builder().build())) {
+            List<DocumentManager.Document> saved = documentManager.saveAll(List.of(
+                    new DocumentManager.Document(null, "title1", "content1", new DocumentManager.Author("1", "Tom"), null),
+                    new DocumentManager.Document("a", "title2", "content2", new DocumentManager.Author("1", "Tom"), null),
+                    new DocumentManager.Document("b", "title3", "content3", new DocumentManager.Author("2", "Jack"), null)));
+            assertEquals("title1", saved.get(0).getTitle(), "Saved documents should keep the given order.");
+
+            documentManager.resize(5);
+            assertEquals(5, documentManager.shardCount());
+            for (DocumentManager.Document document : saved) {
+                assertTrue(documentManager.findById(document.getId()).isPresent());
+            }
+            assertEquals(3, documentManager.search(null).size());
+
+            documentManager.save(new DocumentManager.Document("a", "title2 updated", null, new DocumentManager.Author("1", "Tom"), null));
+            assertEquals("content2", documentManager.findById("a").orElseThrow().getContent());
+
+            assertTrue(documentManager.deleteById("b"));
+            documentManager.resize(1);
+            assertEquals(2, documentManager.search(null).size(), "Shrinking should move the documents of removed shards.");
+            assertTrue(documentManager.findById("a").isPresent());
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            String id = "id" + i;
+            int before = ShardedDocumentManager.shardIndex(id, 3);
+            int after = ShardedDocumentManager.shardIndex(id, 4);
+            assertTrue(after == before || after == 3, "An ID should stay or move to the new shard.");
+        }
+    }
+
+    /**
+     * This test method verifies that shrinking empties the removed shards
+     * before closing them, and that a resize whose saves fail leaves the
+     * shard count and the documents as they were, without duplicates, and
+     * closes the shards it added.
+     */
+    @Test
+    void testResizeFailure() {
+        List<DocumentManager> created = new ArrayList<>();
+        Set<DocumentManager> closed = new HashSet<>();
+        AtomicInteger saveBudget = new AtomicInteger(Integer.MAX_VALUE);
+        try (ShardedDocumentManager documentManager = new ShardedDocumentManager(4, shard -> {
+            DocumentManager local = new DocumentManager() {
+                @Override
+                public List<DocumentManager.Document> saveAll(Collection<DocumentManager.Document> documents) {
+                    if (saveBudget.getAndDecrement() <= 0) {
+                        throw new IllegalStateException("Shard unavailable");
+                    }
+                    return super.saveAll(documents);
+                }
+
+                @Override
+                public void close() {
+                    synchronized (closed) {
+                        closed.add(this);
+                    }
+                    super.close();
+                }
+            };
+            synchronized (created) {
+                created.add(local);
+            }
+            return local;
+        })) {
+            for (int i = 0; i < 40; i++) {
+                documentManager.save(new DocumentManager.Document("id" + i, "title", null, null, null));
+            }
+
+            saveBudget.set(1);
+            assertThrows(IllegalStateException.class, () -> documentManager.resize(1));
+            assertEquals(4, documentManager.shardCount());
+            assertEquals(40, documentManager.search(null).size(), "A failed shrink should not leave copies behind.");
+
+            saveBudget.set(0);
+            assertThrows(IllegalStateException.class, () -> documentManager.resize(6));
+            assertEquals(4, documentManager.shardCount());
+            assertEquals(40, documentManager.search(null).size());
+            assertEquals(6, created.size());
+            assertTrue(closed.containsAll(created.subList(4, 6)), "The added shards should be closed.");
+
+            saveBudget.set(Integer.MAX_VALUE);
+            documentManager.resize(1);
+            assertEquals(40, documentManager.search(null).size());
+            for (DocumentManager removed : created.subList(1, 4)) {
+                assertTrue(closed.contains(removed));
+                assertEquals(0, removed.search(null).size(), "A removed shard should be emptied before it is closed.");
+            }
+        }
+    }
+}
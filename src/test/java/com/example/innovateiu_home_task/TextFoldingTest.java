@@ -0,0 +1,40 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextFoldingTest {
+
+    /**
+     * This test method verifies that folding lower-cases text and removes
+     * accents, and that already folded ASCII text is returned as it is
+     * without a copy.
+     */
+    @Test
+    void testFold() {
+        assertEquals("resume cafe", TextFolding.fold("Résumé CAFÉ"));
+        assertEquals("angstrom", TextFolding.fold("Ångström"));
+        assertEquals("straße", TextFolding.fold("Straße"));
+        assertNull(TextFolding.fold(null));
+        String folded = "already folded";
+        assertSame(folded, TextFolding.fold(folded), "Folded text should not be copied.");
+    }
+
+    /**
+     * This test method verifies that the folded form of a substring is a
+     * substring of the folded text, which the trigram and title indexes
+     * over folded texts rely on.
+     */
+    @Test
+    void testFoldKeepsSubstrings() {
+        String text = "Ça Coûte Cher à NAÏVE Zoë, Ελληνικά";
+        String folded = TextFolding.fold(text);
+        for (int from = 0; from < text.length(); from++) {
+            for (int to = from + 1; to <= text.length(); to++) {
+                String part = text.substring(from, to);
+                assertTrue(folded.contains(TextFolding.fold(part)), "The fold of '" + part + "' should occur in '" + folded + "'.");
+            }
+        }
+    }
+}
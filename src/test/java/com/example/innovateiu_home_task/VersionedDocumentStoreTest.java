@@ -0,0 +1,120 @@
+package com.example.innovateiu_home_task;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VersionedDocumentStoreTest {
+
+    private static final Instant CREATED = Instant.parse("2024-08-19T10:15:30Z");
+
+    /**
+     * This test method verifies snapshot isolation of the versioned store:
+     * a snapshot keeps reading the versions it was opened on while newer
+     * versions and new documents are written, reports the changed IDs, and
+     * a snapshot opened afterwards reads the latest versions.
+     */
+    @Test
+    void testSnapshotReadsPointInTimeVersions() {
+        VersionedDocumentStore store = new VersionedDocumentStore();
+        store.compute("1", (id, existing) -> document("1", "old"));
+
+        try (DocumentStore.Snapshot snapshot = store.snapshot()) {
+            store.compute("1", (id, existing) -> document("1", "new"));
+            store.compute("2", (id, existing) -> document("2", "other"));
+
+            assertEquals("old", snapshot.get("1").getTitle(), "The snapshot should read the old version.");
+            assertNull(snapshot.get("2"), "A document created later should not be in the snapshot.");
+            assertEquals(1, snapshot.values().size(), "The snapshot should hold one document.");
+            assertEquals(Set.of("1", "2"), snapshot.changedIds(), "Both documents changed after the snapshot.");
+            assertFalse(snapshot.isLatest("1"), "The snapshot does not read the latest version.");
+            assertEquals("new", store.get("1").getTitle(), "The store should read the latest version.");
+        }
+
+        try (DocumentStore.Snapshot snapshot = store.snapshot()) {
+            assertEquals("new", snapshot.get("1").getTitle(), "A new snapshot should read the latest version.");
+            assertTrue(snapshot.changedIds().isEmpty(), "Nothing changed after the new snapshot.");
+            assertTrue(snapshot.isLatest("1"), "The new snapshot reads the latest version.");
+        }
+    }
+
+    /**
+     * This test method verifies that a delete leaves a tombstone: the store
+     * no longer holds the document, while a snapshot opened before the
+     * delete still reads it.
+     */
+    @Test
+    void testDeleteKeepsSnapshotVersion() {
+        VersionedDocumentStore store = new VersionedDocumentStore();
+        store.compute("1", (id, existing) -> document("1", "old"));
+
+        try (DocumentStore.Snapshot snapshot = store.snapshot()) {
+            assertNull(store.compute("1", (id, existing) -> null));
+            assertNull(store.get("1"), "The store should not hold a deleted document.");
+            assertFalse(store.containsKey("1"));
+            assertEquals(0, store.size());
+            assertEquals("old", snapshot.get("1").getTitle(), "The snapshot should still read the deleted document.");
+            assertEquals(Set.of("1"), snapshot.changedIds());
+        }
+
+        try (DocumentStore.Snapshot snapshot = store.snapshot()) {
+            assertNull(snapshot.get("1"), "A new snapshot should not read the deleted document.");
+            assertTrue(snapshot.values().isEmpty());
+        }
+        store.computeIfAbsent("1", id -> document("1", "new"));
+        assertEquals("new", store.get("1").getTitle(), "A deleted ID can be stored again.");
+    }
+
+    /**
+     * This test method verifies that published versions cannot be changed:
+     * neither the document handed to the store nor the documents it returns
+     * are the stored instances.
+     */
+    @Test
+    void testVersionsAreImmutable() {
+        VersionedDocumentStore store = new VersionedDocumentStore();
+        DocumentManager.Document written = document("1", "title");
+        store.compute("1", (id, existing) -> written);
+
+        written.setTitle("changed by the writer");
+        store.get("1").setTitle("changed by a reader");
+        store.get("1").getAuthor().setName("changed by a reader");
+
+        assertEquals("title", store.get("1").getTitle(), "The stored version should not change.");
+        assertEquals("Tom", store.get("1").getAuthor().getName(), "The stored author should not change.");
+    }
+
+    /**
+     * This test method verifies the MVCC mode of the document manager: a
+     * save leaves the caller's document unchanged and returns the saved
+     * version, upserts still merge fields, and searches see the result.
+     */
+    @Test
+    void testDocumentManagerDoesNotMutateCallerDocuments() {
+        DocumentManager documentManager = new DocumentManager(DocumentManager.Options.builder()
+                .storageBackend(DocumentManager.StorageBackend.MVCC)
+                .build());
+        DocumentManager.Document document = new DocumentManager.Document(null, "title", "content", new DocumentManager.Author("1", "Tom"), null);
+
+        DocumentManager.Document saved = documentManager.save(document);
+        DocumentManager.Document update = new DocumentManager.Document(saved.getId(), "new title", null, new DocumentManager.Author("1", "Tom"), null);
+        DocumentManager.Document updated = documentManager.save(update);
+
+        assertNull(document.getId(), "The caller's document should not get an ID.");
+        assertNull(document.getCreated(), "The caller's document should not get a creation time.");
+        assertNull(update.getContent(), "The caller's update should not be merged in place.");
+        assertEquals("content", updated.getContent(), "The saved version should be merged.");
+        assertEquals(saved.getCreated(), updated.getCreated(), "Creation time should not change.");
+        assertEquals(List.of(updated), documentManager.search(DocumentManager.SearchRequest.builder()
+                .titlePrefixes(List.of("new"))
+                .build()), "Searches should find the saved version.");
+    }
+
+    private static DocumentManager.Document document(String id, String title) {
+        return new DocumentManager.Document(id, title, "content", new DocumentManager.Author("1", "Tom"), CREATED);
+    }
+}